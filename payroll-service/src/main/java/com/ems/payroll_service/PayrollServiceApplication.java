@@ -3,8 +3,10 @@ package com.ems.payroll_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableEurekaClient
+@EnableScheduling
 @SpringBootApplication
 public class PayrollServiceApplication {
 
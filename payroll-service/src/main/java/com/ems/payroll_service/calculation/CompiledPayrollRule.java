@@ -0,0 +1,74 @@
+package com.ems.payroll_service.calculation;
+
+import lombok.Getter;
+
+/**
+ * One payroll rule flattened into primitive arrays. Tax on the slabs below the one an
+ * amount falls in is precomputed, so evaluation is a short scan plus one multiplication.
+ */
+public final class CompiledPayrollRule {
+
+    private final long[] slabUpperBounds; // micro-units, inclusive; the last one is Long.MAX_VALUE
+    private final long[] slabRates;       // basis points
+    private final long[] taxBelowSlab;    // tax on everything under slab i
+    private final long taxCap;            // negative for no cap
+
+    private final long providentFundRate; // basis points
+    private final long providentFundCap;  // negative for no cap
+
+    @Getter
+    private final long insurance;
+
+    CompiledPayrollRule(long[] slabUpperBounds, long[] slabRates, long taxCap,
+                        long providentFundRate, long providentFundCap, long insurance) {
+        this.slabUpperBounds = slabUpperBounds;
+        this.slabRates = slabRates;
+        this.taxCap = taxCap;
+        this.providentFundRate = providentFundRate;
+        this.providentFundCap = providentFundCap;
+        this.insurance = insurance;
+
+        this.taxBelowSlab = new long[slabUpperBounds.length];
+        long lowerBound = 0L;
+        for (int i = 1; i < slabUpperBounds.length; i++) {
+            taxBelowSlab[i] = taxBelowSlab[i - 1]
+                    + Money.applyRate(slabUpperBounds[i - 1] - lowerBound, slabRates[i - 1]);
+            lowerBound = slabUpperBounds[i - 1];
+        }
+    }
+
+    public long tax(long taxable) {
+        if (taxable <= 0L) {
+            return 0L;
+        }
+
+        int slab = 0;
+        while (taxable > slabUpperBounds[slab]) {
+            slab++;
+        }
+
+        long lowerBound = slab == 0 ? 0L : slabUpperBounds[slab - 1];
+        long tax = taxBelowSlab[slab] + Money.applyRate(taxable - lowerBound, slabRates[slab]);
+        return taxCap >= 0L ? Math.min(tax, taxCap) : tax;
+    }
+
+    public long providentFund(long baseSalary) {
+        long providentFund = Money.applyRate(baseSalary, providentFundRate);
+        return providentFundCap >= 0L ? Math.min(providentFund, providentFundCap) : providentFund;
+    }
+
+    // Copy with some parameters replaced; a flat tax rate replaces all slabs and the cap
+    CompiledPayrollRule withOverrides(Long flatTaxRate, Long providentFundRate, Long insurance) {
+        return new CompiledPayrollRule(
+                flatTaxRate != null ? new long[]{Long.MAX_VALUE} : slabUpperBounds,
+                flatTaxRate != null ? new long[]{flatTaxRate} : slabRates,
+                flatTaxRate != null ? -1L : taxCap,
+                providentFundRate != null ? providentFundRate : this.providentFundRate,
+                providentFundCap,
+                insurance != null ? insurance : this.insurance);
+    }
+
+    public int slabCount() {
+        return slabUpperBounds.length;
+    }
+}
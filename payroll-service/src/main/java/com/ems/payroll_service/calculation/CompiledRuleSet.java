@@ -0,0 +1,125 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.PayrollRule;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned set of compiled payroll rules. Compiled once when a rule set is
+ * loaded and swapped in whole, so readers never see a half-built table.
+ */
+public final class CompiledRuleSet {
+
+    private static final String ANY = "*";
+
+    @Getter
+    private final long version;
+    private final Map<String, CompiledPayrollRule> rulesByKey;
+
+    private CompiledRuleSet(long version, Map<String, CompiledPayrollRule> rulesByKey) {
+        this.version = version;
+        this.rulesByKey = rulesByKey;
+    }
+
+    // The original hardcoded behaviour: flat 10% tax on gross, 12% PF on base, 500 insurance
+    public static CompiledRuleSet defaults() {
+        CompiledPayrollRule rule = new CompiledPayrollRule(
+                new long[]{Long.MAX_VALUE}, new long[]{1_000L}, -1L, 1_200L, -1L, Money.of(500));
+        return new CompiledRuleSet(0L, Map.of(key(null, null), rule));
+    }
+
+    public static CompiledRuleSet compile(long version, List<PayrollRule> rules) {
+        Map<String, CompiledPayrollRule> rulesByKey = new HashMap<>();
+        for (PayrollRule rule : rules) {
+            String key = key(rule.getEmploymentType(), rule.getSalaryGrade());
+            if (rulesByKey.put(key, compile(rule)) != null) {
+                throw new RuntimeException("Duplicate payroll rule for " + key);
+            }
+        }
+
+        if (!rulesByKey.containsKey(key(null, null))) {
+            throw new RuntimeException("Rule set must contain a catch-all rule without employmentType and salaryGrade");
+        }
+
+        return new CompiledRuleSet(version, Map.copyOf(rulesByKey));
+    }
+
+    // Same version with selected parameters replaced in every rule; used for what-if simulations
+    public CompiledRuleSet withOverrides(BigDecimal flatTaxRate, BigDecimal providentFundRate, BigDecimal insurance) {
+        if (flatTaxRate == null && providentFundRate == null && insurance == null) {
+            return this;
+        }
+
+        Long taxRateBps = flatTaxRate != null ? toBasisPoints(flatTaxRate) : null;
+        Long providentFundRateBps = providentFundRate != null ? toBasisPoints(providentFundRate) : null;
+        Long insuranceMicros = insurance != null ? Money.toMicros(insurance) : null;
+
+        Map<String, CompiledPayrollRule> overridden = new HashMap<>();
+        rulesByKey.forEach((key, rule) ->
+                overridden.put(key, rule.withOverrides(taxRateBps, providentFundRateBps, insuranceMicros)));
+        return new CompiledRuleSet(version, Map.copyOf(overridden));
+    }
+
+    public CompiledPayrollRule resolve(String employmentType, String salaryGrade) {
+        CompiledPayrollRule rule = rulesByKey.get(key(employmentType, salaryGrade));
+        if (rule == null) rule = rulesByKey.get(key(employmentType, null));
+        if (rule == null) rule = rulesByKey.get(key(null, salaryGrade));
+        if (rule == null) rule = rulesByKey.get(key(null, null));
+        return rule;
+    }
+
+    private static CompiledPayrollRule compile(PayrollRule rule) {
+        List<PayrollRule.TaxSlab> slabs = rule.getTaxSlabs();
+        if (slabs == null || slabs.isEmpty()) {
+            throw new RuntimeException("Payroll rule needs at least one tax slab");
+        }
+
+        long[] upperBounds = new long[slabs.size()];
+        long[] rates = new long[slabs.size()];
+        for (int i = 0; i < slabs.size(); i++) {
+            PayrollRule.TaxSlab slab = slabs.get(i);
+            boolean last = i == slabs.size() - 1;
+
+            if (slab.getUpTo() == null && !last) {
+                throw new RuntimeException("Only the last tax slab can be open-ended");
+            }
+            if (slab.getUpTo() != null && last) {
+                throw new RuntimeException("The last tax slab must be open-ended");
+            }
+
+            upperBounds[i] = last ? Long.MAX_VALUE : Money.toMicros(slab.getUpTo());
+            if (i > 0 && upperBounds[i] <= upperBounds[i - 1]) {
+                throw new RuntimeException("Tax slabs must be in ascending order");
+            }
+            rates[i] = toBasisPoints(slab.getRate());
+        }
+
+        return new CompiledPayrollRule(upperBounds, rates,
+                rule.getTaxCap() != null ? Money.toMicros(rule.getTaxCap()) : -1L,
+                toBasisPoints(rule.getProvidentFundRate()),
+                rule.getProvidentFundCap() != null ? Money.toMicros(rule.getProvidentFundCap()) : -1L,
+                Money.toMicros(rule.getInsurance()));
+    }
+
+    private static long toBasisPoints(BigDecimal percentage) {
+        if (percentage == null) {
+            return 0L;
+        }
+        if (percentage.signum() < 0) {
+            throw new RuntimeException("Rates cannot be negative: " + percentage);
+        }
+        try {
+            return percentage.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new RuntimeException("Rates support at most two decimals: " + percentage);
+        }
+    }
+
+    private static String key(String employmentType, String salaryGrade) {
+        return (employmentType != null ? employmentType : ANY) + "|" + (salaryGrade != null ? salaryGrade : ANY);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ems.payroll_service.calculation;
+
+import lombok.Getter;
+
+/**
+ * One work policy with every field resolved, hours as doubles the way attendance stores
+ * them and the overtime multiplier in basis points for {@link PayrollCalculator}.
+ */
+@Getter
+public final class CompiledWorkPolicy {
+
+    private final double standardHours;
+    private final double halfDayHours;
+    private final long overtimeMultiplierBps;
+    private final int graceMinutes;
+
+    CompiledWorkPolicy(double standardHours, double halfDayHours, long overtimeMultiplierBps, int graceMinutes) {
+        this.standardHours = standardHours;
+        this.halfDayHours = halfDayHours;
+        this.overtimeMultiplierBps = overtimeMultiplierBps;
+        this.graceMinutes = graceMinutes;
+    }
+
+    public double getGraceHours() {
+        return graceMinutes / 60.0;
+    }
+
+    // Status for a day's worked hours; the grace period covers a shortfall below either threshold
+    public String status(double workingHours) {
+        double credited = workingHours + getGraceHours();
+        if (credited >= standardHours) {
+            return "PRESENT";
+        } else if (credited >= halfDayHours) {
+            return "HALF_DAY";
+        } else if (workingHours > 0) {
+            return "LATE";
+        }
+        return "ABSENT";
+    }
+}
@@ -0,0 +1,115 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.WorkPolicy;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned set of compiled work policies keyed by department, employmentType
+ * and salaryGrade. Fields left empty on a policy are taken from the catch-all policy.
+ */
+public final class CompiledWorkPolicySet {
+
+    private static final String ANY = "*";
+
+    @Getter
+    private final long version;
+    private final Map<String, CompiledWorkPolicy> policiesByKey;
+
+    private CompiledWorkPolicySet(long version, Map<String, CompiledWorkPolicy> policiesByKey) {
+        this.version = version;
+        this.policiesByKey = policiesByKey;
+    }
+
+    // One policy for everyone, as before policies were configurable
+    public static CompiledWorkPolicySet defaults(double standardHours, double halfDayHours) {
+        CompiledWorkPolicy policy = new CompiledWorkPolicy(standardHours, halfDayHours,
+                PayrollCalculator.OVERTIME_MULTIPLIER_BPS, 0);
+        return new CompiledWorkPolicySet(0L, Map.of(key(null, null, null), policy));
+    }
+
+    public static CompiledWorkPolicySet compile(long version, List<WorkPolicy> policies, CompiledWorkPolicy fallback) {
+        WorkPolicy catchAll = policies.stream()
+                .filter(policy -> policy.getDepartment() == null && policy.getEmploymentType() == null
+                        && policy.getSalaryGrade() == null)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException(
+                        "Policy set must contain a catch-all policy without department, employmentType and salaryGrade"));
+        CompiledWorkPolicy base = compile(catchAll, fallback);
+
+        Map<String, CompiledWorkPolicy> policiesByKey = new HashMap<>();
+        for (WorkPolicy policy : policies) {
+            String key = key(policy.getDepartment(), policy.getEmploymentType(), policy.getSalaryGrade());
+            if (policiesByKey.put(key, compile(policy, base)) != null) {
+                throw new RuntimeException("Duplicate work policy for " + key);
+            }
+        }
+        return new CompiledWorkPolicySet(version, Map.copyOf(policiesByKey));
+    }
+
+    public CompiledWorkPolicy getDefault() {
+        return policiesByKey.get(key(null, null, null));
+    }
+
+    // Department outranks employmentType, which outranks salaryGrade
+    public CompiledWorkPolicy resolve(String department, String employmentType, String salaryGrade) {
+        CompiledWorkPolicy policy = policiesByKey.get(key(department, employmentType, salaryGrade));
+        if (policy == null) policy = policiesByKey.get(key(department, employmentType, null));
+        if (policy == null) policy = policiesByKey.get(key(department, null, salaryGrade));
+        if (policy == null) policy = policiesByKey.get(key(department, null, null));
+        if (policy == null) policy = policiesByKey.get(key(null, employmentType, salaryGrade));
+        if (policy == null) policy = policiesByKey.get(key(null, employmentType, null));
+        if (policy == null) policy = policiesByKey.get(key(null, null, salaryGrade));
+        if (policy == null) policy = policiesByKey.get(key(null, null, null));
+        return policy;
+    }
+
+    private static CompiledWorkPolicy compile(WorkPolicy policy, CompiledWorkPolicy base) {
+        double standardHours = hours(policy.getStandardHours(), base.getStandardHours());
+        double halfDayHours = hours(policy.getHalfDayHours(), base.getHalfDayHours());
+        if (standardHours <= 0 || standardHours > 24) {
+            throw new RuntimeException("Standard hours must be between 0 and 24: " + standardHours);
+        }
+        if (halfDayHours > standardHours) {
+            throw new RuntimeException("Half-day hours cannot exceed standard hours");
+        }
+
+        long overtimeMultiplierBps = base.getOvertimeMultiplierBps();
+        if (policy.getOvertimeMultiplier() != null) {
+            if (policy.getOvertimeMultiplier().signum() < 0) {
+                throw new RuntimeException("Overtime multiplier cannot be negative");
+            }
+            try {
+                overtimeMultiplierBps = policy.getOvertimeMultiplier().movePointRight(4).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new RuntimeException("Overtime multiplier supports at most four decimals: "
+                        + policy.getOvertimeMultiplier());
+            }
+        }
+
+        int graceMinutes = policy.getGraceMinutes() != null ? policy.getGraceMinutes() : base.getGraceMinutes();
+        if (graceMinutes < 0 || graceMinutes > 240) {
+            throw new RuntimeException("Grace minutes must be between 0 and 240: " + graceMinutes);
+        }
+        return new CompiledWorkPolicy(standardHours, halfDayHours, overtimeMultiplierBps, graceMinutes);
+    }
+
+    private static double hours(BigDecimal value, double fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        if (value.signum() < 0) {
+            throw new RuntimeException("Hours cannot be negative: " + value);
+        }
+        return value.doubleValue();
+    }
+
+    private static String key(String department, String employmentType, String salaryGrade) {
+        return (department != null ? department : ANY) + "|" + (employmentType != null ? employmentType : ANY)
+                + "|" + (salaryGrade != null ? salaryGrade : ANY);
+    }
+}
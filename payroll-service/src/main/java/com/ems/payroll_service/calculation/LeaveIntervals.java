@@ -0,0 +1,120 @@
+package com.ems.payroll_service.calculation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One employee's open leaves as date intervals sorted by start, with a running maximum of
+ * the end dates: an overlap check is a binary search for the last leave starting on or
+ * before the requested end, then a walk back only while earlier leaves can still reach the
+ * requested start. Immutable, edits return a new instance.
+ */
+public final class LeaveIntervals {
+
+    public static final LeaveIntervals EMPTY = new LeaveIntervals(new String[0], new long[0], new long[0], new long[0]);
+
+    private final String[] ids;
+    // Epoch days, inclusive on both ends
+    private final long[] starts;
+    private final long[] ends;
+    // maxEnds[i] is the latest end among the first i + 1 intervals
+    private final long[] maxEnds;
+
+    private LeaveIntervals(String[] ids, long[] starts, long[] ends, long[] maxEnds) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = maxEnds;
+    }
+
+    // Replaces the interval of a leave already present
+    public LeaveIntervals with(String id, LocalDate startDate, LocalDate endDate) {
+        LeaveIntervals base = without(id);
+        int size = base.ids.length;
+        long start = startDate.toEpochDay();
+        long end = endDate.toEpochDay();
+
+        int position = base.upperBound(start);
+        String[] ids = new String[size + 1];
+        long[] starts = new long[size + 1];
+        long[] ends = new long[size + 1];
+        System.arraycopy(base.ids, 0, ids, 0, position);
+        System.arraycopy(base.starts, 0, starts, 0, position);
+        System.arraycopy(base.ends, 0, ends, 0, position);
+        ids[position] = id;
+        starts[position] = start;
+        ends[position] = end;
+        System.arraycopy(base.ids, position, ids, position + 1, size - position);
+        System.arraycopy(base.starts, position, starts, position + 1, size - position);
+        System.arraycopy(base.ends, position, ends, position + 1, size - position);
+        return new LeaveIntervals(ids, starts, ends, maxEnds(ends));
+    }
+
+    public LeaveIntervals without(String id) {
+        int position = Arrays.asList(ids).indexOf(id);
+        if (position < 0) {
+            return this;
+        }
+        int size = ids.length - 1;
+        String[] ids = new String[size];
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        System.arraycopy(this.ids, 0, ids, 0, position);
+        System.arraycopy(this.starts, 0, starts, 0, position);
+        System.arraycopy(this.ends, 0, ends, 0, position);
+        System.arraycopy(this.ids, position + 1, ids, position, size - position);
+        System.arraycopy(this.starts, position + 1, starts, position, size - position);
+        System.arraycopy(this.ends, position + 1, ends, position, size - position);
+        return new LeaveIntervals(ids, starts, ends, maxEnds(ends));
+    }
+
+    // Ids of the leaves sharing at least one day with the range
+    public List<String> overlapping(LocalDate startDate, LocalDate endDate) {
+        long start = startDate.toEpochDay();
+        List<String> overlapping = new ArrayList<>();
+        for (int i = upperBound(endDate.toEpochDay()) - 1; i >= 0 && maxEnds[i] >= start; i--) {
+            if (ends[i] >= start) {
+                overlapping.add(ids[i]);
+            }
+        }
+        return overlapping;
+    }
+
+    public boolean contains(String id, LocalDate startDate, LocalDate endDate) {
+        int position = Arrays.asList(ids).indexOf(id);
+        return position >= 0 && starts[position] == startDate.toEpochDay() && ends[position] == endDate.toEpochDay();
+    }
+
+    public List<String> ids() {
+        return List.of(ids);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // First position whose start is after the given day
+    private int upperBound(long day) {
+        int low = 0;
+        int high = starts.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long[] maxEnds(long[] ends) {
+        long[] maxEnds = new long[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+        return maxEnds;
+    }
+}
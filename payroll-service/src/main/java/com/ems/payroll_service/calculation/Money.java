@@ -0,0 +1,76 @@
+package com.ems.payroll_service.calculation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} micro-units (1 unit = 0.000001).
+ *
+ * Six decimals is enough to hold every intermediate the payroll formulas produce exactly
+ * (10% of an amount with five decimals, 12% of a salary with four), so results match
+ * BigDecimal arithmetic digit for digit. Anything finer is rounded HALF_UP.
+ *
+ * Values match, scales do not: the BigDecimal chains carried whatever scale the multiplications
+ * produced ({@code 1000.0000}), while {@link #toBigDecimal} stores at least two decimals with
+ * trailing zeros stripped ({@code 1000.00}). Overtime hours enter as centi-hours
+ * ({@link #toCentiHours}), so a summed double such as 7.250000000001 counts as 7.25 hours where
+ * the old path multiplied by the noise as well.
+ */
+public final class Money {
+
+    public static final int SCALE = 6;
+    public static final long ONE = 1_000_000L;
+    public static final long CENT = 10_000L;
+    public static final long BASIS_POINTS = 10_000L; // 100% expressed in basis points
+
+    private Money() {
+    }
+
+    public static long of(long units) {
+        return Math.multiplyExact(units, ONE);
+    }
+
+    public static long toMicros(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // At least two decimals, no trailing zeros beyond that
+    public static BigDecimal toBigDecimal(long micros) {
+        BigDecimal value = BigDecimal.valueOf(micros, SCALE).stripTrailingZeros();
+        return value.scale() < 2 ? value.setScale(2) : value;
+    }
+
+    public static long applyRate(long micros, long basisPoints) {
+        return divideHalfUp(Math.multiplyExact(micros, basisPoints), BASIS_POINTS);
+    }
+
+    // Same result as BigDecimal.divide(divisor, 2, HALF_UP)
+    public static long divideToCents(long micros, long divisor) {
+        return Math.multiplyExact(divideHalfUp(micros, Math.multiplyExact(divisor, CENT)), CENT);
+    }
+
+    public static long multiplyByCentiHours(long micros, long centiHours) {
+        return divideHalfUp(Math.multiplyExact(micros, centiHours), 100L);
+    }
+
+    // Attendance hours are stored rounded to two decimals; this drops the noise of summing them as doubles
+    public static long toCentiHours(double hours) {
+        return Math.round(hours * 100.0);
+    }
+
+    public static BigDecimal centiHoursToBigDecimal(long centiHours) {
+        return BigDecimal.valueOf(centiHours, 2);
+    }
+
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (Math.abs(remainder) * 2 >= Math.abs(divisor)) {
+            quotient += (dividend ^ divisor) < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ems.payroll_service.calculation;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Payroll formulas on fixed-point longs. Allocation free: everything happens in the
+ * {@link PayrollComputation} passed in.
+ */
+@Component
+public class PayrollCalculator {
+
+    static final long DAYS_PER_MONTH = 30;
+    static final long HOURS_PER_DAY = 8;
+    public static final long OVERTIME_MULTIPLIER_BPS = 15_000; // 1.5x hourly rate
+
+    public void calculate(PayrollComputation c, CompiledPayrollRule rule) {
+        calculate(c, rule, OVERTIME_MULTIPLIER_BPS);
+    }
+
+    public void calculate(PayrollComputation c, CompiledPayrollRule rule, long overtimeMultiplierBps) {
+        // Overtime pay at a multiple of the hourly rate, daily and hourly rates rounded to cents
+        long days = c.getPeriodWorkingDays() > 0 ? c.getPeriodWorkingDays() : DAYS_PER_MONTH;
+        long dailyRate = Money.divideToCents(c.getBaseSalary(), days);
+        long hourlyRate = Money.divideToCents(dailyRate, HOURS_PER_DAY);
+        long overtimeRate = Money.applyRate(hourlyRate, overtimeMultiplierBps);
+        c.setOvertimePay(Money.multiplyByCentiHours(overtimeRate, c.getOvertimeCentiHours()));
+
+        calculateDeductions(c, rule);
+        calculateTotals(c);
+    }
+
+    // Tax, provident fund and insurance from the employee's compiled rule
+    public void calculateDeductions(PayrollComputation c, CompiledPayrollRule rule) {
+        c.setTaxDeduction(rule.tax(grossPay(c)));
+        c.setProvidentFund(rule.providentFund(c.getBaseSalary()));
+        c.setInsurance(rule.getInsurance());
+    }
+
+    public void calculateTotals(PayrollComputation c) {
+        long totalEarnings = grossPay(c);
+        long totalDeductions = c.getTaxDeduction() + c.getProvidentFund() + c.getInsurance()
+                + c.getLoanDeduction() + c.getOtherDeductions();
+
+        c.setTotalEarnings(totalEarnings);
+        c.setTotalDeductions(totalDeductions);
+        c.setNetPay(totalEarnings - totalDeductions);
+    }
+
+    private long grossPay(PayrollComputation c) {
+        return c.getBaseSalary() + c.getOvertimePay() + c.getAllowances() + c.getBonuses() + c.getCommissions();
+    }
+}
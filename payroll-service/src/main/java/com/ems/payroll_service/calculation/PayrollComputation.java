@@ -0,0 +1,97 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.models.Payroll;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable working set for one payroll, all amounts in {@link Money} micro-units.
+ * Converted from and to BigDecimal only at the {@link Payroll} boundary, so a batch can
+ * reuse one instance per thread.
+ */
+@Data
+public class PayrollComputation {
+
+    // Inputs
+    private long baseSalary;
+    private long allowances;
+    private long bonuses;
+    private long commissions;
+    private long loanDeduction;
+    private long otherDeductions;
+    private long overtimeCentiHours;
+    private long periodWorkingDays; // 0 falls back to a 30-day month
+
+    // Outputs
+    private long overtimePay;
+    private long taxDeduction;
+    private long providentFund;
+    private long insurance;
+    private long totalEarnings;
+    private long totalDeductions;
+    private long netPay;
+
+    public void reset() {
+        baseSalary = 0L;
+        allowances = 0L;
+        bonuses = 0L;
+        commissions = 0L;
+        loanDeduction = 0L;
+        otherDeductions = 0L;
+        overtimeCentiHours = 0L;
+        periodWorkingDays = 0L;
+        overtimePay = 0L;
+        taxDeduction = 0L;
+        providentFund = 0L;
+        insurance = 0L;
+        totalEarnings = 0L;
+        totalDeductions = 0L;
+        netPay = 0L;
+    }
+
+    public static PayrollComputation from(Payroll payroll) {
+        PayrollComputation computation = new PayrollComputation();
+        computation.load(payroll);
+        return computation;
+    }
+
+    // Inputs of a freshly generated payroll, straight from the employee record
+    public void loadEmployee(Employee employee) {
+        reset();
+        baseSalary = Money.toMicros(employee.getBaseSalary());
+        allowances = Money.toMicros(employee.getAllowances());
+    }
+
+    public void load(Payroll payroll) {
+        baseSalary = Money.toMicros(payroll.getBaseSalary());
+        allowances = Money.toMicros(payroll.getAllowances());
+        bonuses = Money.toMicros(payroll.getBonuses());
+        commissions = Money.toMicros(payroll.getCommissions());
+        loanDeduction = Money.toMicros(payroll.getLoanDeduction());
+        otherDeductions = Money.toMicros(payroll.getOtherDeductions());
+        overtimePay = Money.toMicros(payroll.getOvertimePay());
+        taxDeduction = Money.toMicros(payroll.getTaxDeduction());
+        providentFund = Money.toMicros(payroll.getProvidentFund());
+        insurance = Money.toMicros(payroll.getInsurance());
+    }
+
+    // Writes back everything the calculator derives; inputs keep their original BigDecimal values
+    public void applyTo(Payroll payroll) {
+        payroll.setOvertimeHours(Money.centiHoursToBigDecimal(overtimeCentiHours));
+        payroll.setOvertimePay(Money.toBigDecimal(overtimePay));
+        payroll.setTaxDeduction(Money.toBigDecimal(taxDeduction));
+        payroll.setProvidentFund(Money.toBigDecimal(providentFund));
+        payroll.setInsurance(Money.toBigDecimal(insurance));
+        if (payroll.getLoanDeduction() == null) payroll.setLoanDeduction(BigDecimal.ZERO);
+        if (payroll.getOtherDeductions() == null) payroll.setOtherDeductions(BigDecimal.ZERO);
+        applyTotalsTo(payroll);
+    }
+
+    public void applyTotalsTo(Payroll payroll) {
+        payroll.setTotalEarnings(Money.toBigDecimal(totalEarnings));
+        payroll.setTotalDeductions(Money.toBigDecimal(totalDeductions));
+        payroll.setNetPay(Money.toBigDecimal(netPay));
+    }
+}
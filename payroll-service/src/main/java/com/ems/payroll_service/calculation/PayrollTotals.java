@@ -0,0 +1,48 @@
+package com.ems.payroll_service.calculation;
+
+import lombok.Getter;
+
+/**
+ * Running sums over computed payrolls in {@link Money} micro-units. Not thread safe:
+ * each worker fills its own instance and the results are merged at the end.
+ */
+@Getter
+public class PayrollTotals {
+
+    private long employees;
+    private long baseSalary;
+    private long allowances;
+    private long overtimePay;
+    private long totalEarnings;
+    private long taxDeduction;
+    private long providentFund;
+    private long insurance;
+    private long totalDeductions;
+    private long netPay;
+
+    public void add(PayrollComputation c) {
+        employees++;
+        baseSalary += c.getBaseSalary();
+        allowances += c.getAllowances();
+        overtimePay += c.getOvertimePay();
+        totalEarnings += c.getTotalEarnings();
+        taxDeduction += c.getTaxDeduction();
+        providentFund += c.getProvidentFund();
+        insurance += c.getInsurance();
+        totalDeductions += c.getTotalDeductions();
+        netPay += c.getNetPay();
+    }
+
+    public void merge(PayrollTotals other) {
+        employees += other.employees;
+        baseSalary += other.baseSalary;
+        allowances += other.allowances;
+        overtimePay += other.overtimePay;
+        totalEarnings += other.totalEarnings;
+        taxDeduction += other.taxDeduction;
+        providentFund += other.providentFund;
+        insurance += other.insurance;
+        totalDeductions += other.totalDeductions;
+        netPay += other.netPay;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ems.payroll_service.calculation;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Working days of one calendar year, precomputed once: a bitset by day of year plus a
+ * prefix sum, so the number of working days in any range of the year is one subtraction.
+ * Immutable, shared by every reader until the calendar is edited.
+ */
+public final class YearCalendar {
+
+    private final int year;
+    private final long[] workingBits;
+    // prefix[d] is the number of working days among the first d days of the year
+    private final int[] prefix;
+
+    private YearCalendar(int year, long[] workingBits, int[] prefix) {
+        this.year = year;
+        this.workingBits = workingBits;
+        this.prefix = prefix;
+    }
+
+    public static YearCalendar build(int year, Set<DayOfWeek> weekendDays, Collection<LocalDate> holidays) {
+        int length = Year.of(year).length();
+        long[] bits = new long[(length + 63) / 64];
+
+        LocalDate date = LocalDate.ofYearDay(year, 1);
+        for (int day = 0; day < length; day++, date = date.plusDays(1)) {
+            if (!weekendDays.contains(date.getDayOfWeek())) {
+                bits[day >> 6] |= 1L << day;
+            }
+        }
+        for (LocalDate holiday : holidays) {
+            if (holiday.getYear() == year) {
+                int day = holiday.getDayOfYear() - 1;
+                bits[day >> 6] &= ~(1L << day);
+            }
+        }
+
+        int[] prefix = new int[length + 1];
+        for (int day = 0; day < length; day++) {
+            prefix[day + 1] = prefix[day] + (int) ((bits[day >> 6] >>> day) & 1L);
+        }
+        return new YearCalendar(year, bits, prefix);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        checkYear(date);
+        int day = date.getDayOfYear() - 1;
+        return ((workingBits[day >> 6] >>> day) & 1L) != 0;
+    }
+
+    // Inclusive on both ends, both dates in this year
+    public int workingDays(LocalDate startDate, LocalDate endDate) {
+        checkYear(startDate);
+        checkYear(endDate);
+        if (endDate.isBefore(startDate)) {
+            return 0;
+        }
+        return prefix[endDate.getDayOfYear()] - prefix[startDate.getDayOfYear() - 1];
+    }
+
+    public int workingDays() {
+        return prefix[prefix.length - 1];
+    }
+
+    private void checkYear(LocalDate date) {
+        if (date.getYear() != year) {
+            throw new IllegalArgumentException(date + " is not in " + year);
+        }
+    }
+}
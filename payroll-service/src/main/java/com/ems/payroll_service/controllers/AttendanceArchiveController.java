@@ -0,0 +1,44 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.services.AttendanceArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/archive")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AttendanceArchiveController {
+
+    private final AttendanceArchiveService attendanceArchiveService;
+
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> listArchive() {
+        try {
+            return ResponseEntity.ok(attendanceArchiveService.listArchive());
+        } catch (RuntimeException e) {
+            log.error("Error listing attendance archive: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Object>> archive(@RequestParam(required = false) String month) {
+        try {
+            if (month != null) {
+                return ResponseEntity.ok(attendanceArchiveService.archiveMonth(YearMonth.parse(month)));
+            }
+            return ResponseEntity.ok(attendanceArchiveService.archive());
+        } catch (RuntimeException e) {
+            log.error("Error archiving attendance: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
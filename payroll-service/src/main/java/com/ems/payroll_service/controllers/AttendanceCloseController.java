@@ -0,0 +1,32 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.services.AttendanceCloseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/close")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AttendanceCloseController {
+
+    private final AttendanceCloseService attendanceCloseService;
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> closeDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(attendanceCloseService.closeDay(date));
+        } catch (RuntimeException e) {
+            log.error("Error closing attendance day: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
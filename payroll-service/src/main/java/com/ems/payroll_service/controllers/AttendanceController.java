@@ -1,15 +1,26 @@
 package com.ems.payroll_service.controllers;
 
 import com.ems.payroll_service.dto.AttendanceDto;
+import com.ems.payroll_service.dto.AttendanceImportResultDto;
+import com.ems.payroll_service.dto.PresenceMemberDto;
+import com.ems.payroll_service.dto.PresenceSummaryDto;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.ems.payroll_service.services.AttendanceImportService;
 import com.ems.payroll_service.services.AttendanceService;
+import com.ems.payroll_service.services.CheckInIngestionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +33,8 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final CheckInIngestionService checkInIngestionService;
+    private final AttendanceImportService attendanceImportService;
 
     @GetMapping
     public ResponseEntity<List<AttendanceDto>> getAllAttendance() {
@@ -70,6 +83,26 @@ public class AttendanceController {
         }
     }
 
+    // The body is the raw export, read incrementally; format defaults from the content type
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<AttendanceImportResultDto> importAttendance(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) String format) {
+        try {
+            AttendanceImportService.Format importFormat = format != null
+                    ? AttendanceImportService.Format.valueOf(format.toUpperCase())
+                    : contentType.contains("ndjson") ? AttendanceImportService.Format.NDJSON
+                    : AttendanceImportService.Format.CSV;
+            AttendanceImportResultDto result = attendanceImportService.importAttendance(
+                    new InputStreamReader(body, StandardCharsets.UTF_8), importFormat);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            log.error("Error importing attendance: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<AttendanceDto> updateAttendance(@PathVariable String id,
                                                          @Valid @RequestBody AttendanceDto attendanceDto) {
@@ -97,8 +130,16 @@ public class AttendanceController {
     public ResponseEntity<AttendanceDto> checkIn(@RequestParam String employeeId,
                                                  @RequestParam(required = false) String location) {
         try {
+            if (checkInIngestionService.isEnabled()) {
+                AttendanceDto attendance = checkInIngestionService.checkIn(employeeId, LocalDateTime.now(), location);
+                return ResponseEntity.status(checkInIngestionService.acknowledgesOnEnqueue()
+                        ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(attendance);
+            }
             AttendanceDto attendance = attendanceService.checkIn(employeeId, LocalDateTime.now(), location);
             return ResponseEntity.status(HttpStatus.CREATED).body(attendance);
+        } catch (IllegalStateException e) {
+            log.warn("Check-in deferred: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").build();
         } catch (RuntimeException e) {
             log.error("Error during check-in: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
@@ -117,6 +158,45 @@ public class AttendanceController {
         }
     }
 
+    @PostMapping("/break/start")
+    public ResponseEntity<AttendanceDto> startBreak(@RequestParam String employeeId) {
+        try {
+            AttendanceDto attendance = attendanceService.startBreak(employeeId, LocalDateTime.now());
+            return ResponseEntity.ok(attendance);
+        } catch (RuntimeException e) {
+            log.error("Error starting break: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/break/end")
+    public ResponseEntity<AttendanceDto> endBreak(@RequestParam String employeeId) {
+        try {
+            AttendanceDto attendance = attendanceService.endBreak(employeeId, LocalDateTime.now());
+            return ResponseEntity.ok(attendance);
+        } catch (RuntimeException e) {
+            log.error("Error ending break: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/presence")
+    public ResponseEntity<PresenceSummaryDto> getPresenceSummary() {
+        return ResponseEntity.ok(attendanceService.getPresenceSummary());
+    }
+
+    @GetMapping("/presence/members")
+    public ResponseEntity<List<PresenceMemberDto>> getPresenceMembers(
+            @RequestParam(defaultValue = "CHECKED_IN") String state,
+            @RequestParam(required = false) String department) {
+        try {
+            return ResponseEntity.ok(attendanceService.getPresenceMembers(state, department));
+        } catch (RuntimeException e) {
+            log.error("Error fetching presence members: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}/approve")
     public ResponseEntity<AttendanceDto> approveAttendance(@PathVariable String id,
                                                           @RequestParam String approvedBy) {
@@ -144,4 +224,12 @@ public class AttendanceController {
         double overtimeHours = attendanceService.getOvertimeHoursForEmployee(employeeId, startDate, endDate);
         return ResponseEntity.ok(overtimeHours);
     }
+
+    @GetMapping("/employee/{employeeId}/summary")
+    public ResponseEntity<AttendanceSummary> getAttendanceSummary(@PathVariable String employeeId,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AttendanceSummary summary = attendanceService.getAttendanceSummaryForEmployee(employeeId, startDate, endDate);
+        return ResponseEntity.ok(summary);
+    }
 }
@@ -0,0 +1,65 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.AttendanceEventDto;
+import com.ems.payroll_service.services.AttendanceEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/events")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AttendanceEventController {
+
+    private final AttendanceEventService attendanceEventService;
+
+    // Accepted once appended; the daily attendance record follows after the next compaction
+    @PostMapping
+    public ResponseEntity<AttendanceEventDto> recordEvent(@Valid @RequestBody AttendanceEventDto eventDto) {
+        try {
+            AttendanceEventDto recordedEvent = attendanceEventService.recordEvent(eventDto);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(recordedEvent);
+        } catch (RuntimeException e) {
+            log.error("Error recording attendance event: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{employeeId}")
+    public ResponseEntity<List<AttendanceEventDto>> getEvents(
+            @PathVariable String employeeId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(attendanceEventService.getEvents(employeeId, date));
+    }
+
+    @PostMapping("/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        try {
+            return ResponseEntity.ok(attendanceEventService.compact());
+        } catch (RuntimeException e) {
+            log.error("Error compacting attendance events: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            return ResponseEntity.ok(attendanceEventService.rebuildDay(date));
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding attendance from events: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
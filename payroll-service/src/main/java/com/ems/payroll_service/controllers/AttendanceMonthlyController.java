@@ -0,0 +1,43 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.AttendanceMonthlyDto;
+import com.ems.payroll_service.services.AttendanceMonthlyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/attendance/monthly")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AttendanceMonthlyController {
+
+    private final AttendanceMonthlyService attendanceMonthlyService;
+
+    @GetMapping("/{employeeId}")
+    public ResponseEntity<AttendanceMonthlyDto> getMonthly(@PathVariable String employeeId,
+                                                           @RequestParam(required = false) String month) {
+        try {
+            YearMonth period = month != null ? YearMonth.parse(month) : YearMonth.now();
+            return ResponseEntity.ok(attendanceMonthlyService.getMonthly(employeeId, period));
+        } catch (RuntimeException e) {
+            log.error("Error fetching monthly attendance: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            return ResponseEntity.ok(attendanceMonthlyService.rebuild());
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding monthly attendance rollups: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
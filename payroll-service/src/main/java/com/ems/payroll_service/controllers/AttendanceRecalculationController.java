@@ -0,0 +1,60 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.AttendanceRecalculationDto;
+import com.ems.payroll_service.services.AttendanceRecalculationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/attendance/recalculations")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class AttendanceRecalculationController {
+
+    private final AttendanceRecalculationService attendanceRecalculationService;
+
+    @GetMapping
+    public ResponseEntity<List<AttendanceRecalculationDto>> getRecalculations() {
+        return ResponseEntity.ok(attendanceRecalculationService.getRecalculations());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<AttendanceRecalculationDto> getRecalculationById(@PathVariable String id) {
+        return attendanceRecalculationService.getRecalculationById(id)
+                .map(recalculation -> ResponseEntity.ok(recalculation))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<AttendanceRecalculationDto> startRecalculation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer maxRowsPerSecond) {
+        try {
+            AttendanceRecalculationDto recalculation =
+                    attendanceRecalculationService.startRecalculation(startDate, endDate, maxRowsPerSecond);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(recalculation);
+        } catch (RuntimeException e) {
+            log.error("Error starting attendance recalculation: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<AttendanceRecalculationDto> cancelRecalculation(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(attendanceRecalculationService.cancelRecalculation(id));
+        } catch (RuntimeException e) {
+            log.error("Error cancelling attendance recalculation: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
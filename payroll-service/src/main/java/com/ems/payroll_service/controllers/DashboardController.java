@@ -1,18 +1,31 @@
 package com.ems.payroll_service.controllers;
 
+import com.ems.payroll_service.dto.AttendanceDto;
+import com.ems.payroll_service.dto.AttendanceReportDto;
+import com.ems.payroll_service.dto.PresenceSummaryDto;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.ems.payroll_service.models.PayrollPeriodSummary;
 import com.ems.payroll_service.services.EmployeeService;
 import com.ems.payroll_service.services.PayrollService;
+import com.ems.payroll_service.services.AttendanceMonthlyService;
 import com.ems.payroll_service.services.AttendanceService;
 import com.ems.payroll_service.services.LeaveService;
+import com.ems.payroll_service.services.PayrollSummaryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/dashboard")
@@ -24,7 +37,10 @@ public class DashboardController {
     private final EmployeeService employeeService;
     private final PayrollService payrollService;
     private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
     private final LeaveService leaveService;
+    private final PayrollSummaryService payrollSummaryService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getDashboardSummary() {
@@ -46,7 +62,10 @@ public class DashboardController {
 
         // Today's attendance summary
         LocalDate today = LocalDate.now();
-        summary.put("todayAttendance", attendanceService.getAttendanceByDate(today).size());
+        PresenceSummaryDto presence = attendanceService.getPresenceSummary();
+        summary.put("todayAttendance", presence.getRecorded());
+        summary.put("checkedInNow", presence.getCheckedIn());
+        summary.put("onBreakNow", presence.getOnBreak());
 
         // Pending leaves count
         summary.put("pendingLeaves", leaveService.getLeavesByStatus("PENDING").size());
@@ -54,7 +73,7 @@ public class DashboardController {
 
         // Current month payrolls
         String currentMonth = today.getYear() + "-" + String.format("%02d", today.getMonthValue());
-        summary.put("currentMonthPayrolls", payrollService.getPayrollsByPeriod(currentMonth).size());
+        summary.put("currentMonthPayrolls", payrollSummaryService.getSummary(currentMonth).getPayrollCount());
 
         return ResponseEntity.ok(summary);
     }
@@ -69,15 +88,13 @@ public class DashboardController {
                 summary.put("employee", employee);
             });
 
-            // This month's attendance
-            LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-            LocalDate endOfMonth = LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth());
+            // This month's attendance, one rollup document
+            AttendanceSummary attendance = attendanceMonthlyService.getSummary(employeeId, YearMonth.now());
 
-            long workingDays = attendanceService.getWorkingDaysForEmployee(employeeId, startOfMonth, endOfMonth);
-            double overtimeHours = attendanceService.getOvertimeHoursForEmployee(employeeId, startOfMonth, endOfMonth);
-
-            summary.put("thisMonthWorkingDays", workingDays);
-            summary.put("thisMonthOvertimeHours", overtimeHours);
+            summary.put("thisMonthWorkingDays", attendance.getPresentDays());
+            summary.put("thisMonthOvertimeHours", attendance.getOvertimeHours());
+            summary.put("thisMonthHoursWorked", attendance.getHoursWorked());
+            summary.put("thisMonthBreakHours", attendance.getBreakHours());
 
             // Leave balances
             summary.put("annualLeaveBalance", leaveService.getLeaveBalance(employeeId, "ANNUAL"));
@@ -98,83 +115,86 @@ public class DashboardController {
     }
 
     @GetMapping("/attendance-report")
-    public ResponseEntity<Map<String, Object>> getAttendanceReport(
+    public ResponseEntity<AttendanceReportDto> getAttendanceReport(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-
-        Map<String, Object> report = new HashMap<>();
-
-        // Get all attendance for the period
-        var attendanceList = attendanceService.getAllAttendance()
-                .stream()
-                .filter(att -> !att.getDate().isBefore(startDate) && !att.getDate().isAfter(endDate))
-                .toList();
-
-        // Calculate statistics
-        long totalPresent = attendanceList.stream()
-                .filter(att -> "PRESENT".equals(att.getStatus()))
-                .count();
-
-        long totalAbsent = attendanceList.stream()
-                .filter(att -> "ABSENT".equals(att.getStatus()))
-                .count();
-
-        long totalLate = attendanceList.stream()
-                .filter(att -> "LATE".equals(att.getStatus()))
-                .count();
-
-        double totalOvertimeHours = attendanceList.stream()
-                .mapToDouble(att -> att.getOvertimeHours() != null ? att.getOvertimeHours() : 0.0)
-                .sum();
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "false") boolean includeRecords,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(attendanceService.getAttendanceReport(startDate, endDate, department, status,
+                    includeRecords, cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error building attendance report: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-        report.put("totalPresent", totalPresent);
-        report.put("totalAbsent", totalAbsent);
-        report.put("totalLate", totalLate);
-        report.put("totalOvertimeHours", totalOvertimeHours);
-        report.put("attendanceData", attendanceList);
+    // One JSON record per line, written as the cursor is read
+    @GetMapping(value = "/attendance-report/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAttendanceReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String status) {
+        Stream<AttendanceDto> rows;
+        try {
+            rows = attendanceService.streamAttendanceReport(startDate, endDate, department, status);
+        } catch (RuntimeException e) {
+            log.error("Error streaming attendance report: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
 
-        return ResponseEntity.ok(report);
+        StreamingResponseBody body = out -> {
+            try (rows) {
+                Iterator<AttendanceDto> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    out.write(objectMapper.writeValueAsBytes(iterator.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/payroll-report")
-    public ResponseEntity<Map<String, Object>> getPayrollReport(@RequestParam String payPeriod) {
+    public ResponseEntity<Map<String, Object>> getPayrollReport(@RequestParam String payPeriod,
+                                                                @RequestParam(defaultValue = "false") boolean includePayrolls) {
         Map<String, Object> report = new HashMap<>();
 
-        var payrolls = payrollService.getPayrollsByPeriod(payPeriod);
-
-        // Calculate totals
-        double totalEarnings = payrolls.stream()
-                .mapToDouble(p -> p.getTotalEarnings() != null ? p.getTotalEarnings().doubleValue() : 0.0)
-                .sum();
-
-        double totalDeductions = payrolls.stream()
-                .mapToDouble(p -> p.getTotalDeductions() != null ? p.getTotalDeductions().doubleValue() : 0.0)
-                .sum();
-
-        double totalNetPay = payrolls.stream()
-                .mapToDouble(p -> p.getNetPay() != null ? p.getNetPay().doubleValue() : 0.0)
-                .sum();
-
-        long approvedPayrolls = payrolls.stream()
-                .filter(p -> "APPROVED".equals(p.getStatus()))
-                .count();
-
-        long draftPayrolls = payrolls.stream()
-                .filter(p -> "DRAFT".equals(p.getStatus()))
-                .count();
+        // Totals are maintained incrementally, one document read per report
+        PayrollPeriodSummary summary = payrollSummaryService.getSummary(payPeriod);
 
         report.put("payPeriod", payPeriod);
-        report.put("totalEmployees", payrolls.size());
-        report.put("totalEarnings", totalEarnings);
-        report.put("totalDeductions", totalDeductions);
-        report.put("totalNetPay", totalNetPay);
-        report.put("approvedPayrolls", approvedPayrolls);
-        report.put("draftPayrolls", draftPayrolls);
-        report.put("payrollData", payrolls);
+        report.put("totalEmployees", summary.getPayrollCount());
+        report.put("totalEarnings", summary.getTotalEarnings());
+        report.put("totalDeductions", summary.getTotalDeductions());
+        report.put("totalNetPay", summary.getTotalNetPay());
+        report.put("approvedPayrolls", summary.getStatusCounts().getOrDefault("APPROVED", 0L));
+        report.put("draftPayrolls", summary.getStatusCounts().getOrDefault("DRAFT", 0L));
+        report.put("statusCounts", summary.getStatusCounts());
+        report.put("summaryUpdatedAt", summary.getUpdatedAt());
+
+        if (includePayrolls) {
+            report.put("payrollData", payrollService.getPayrollsByPeriod(payPeriod));
+        }
 
         return ResponseEntity.ok(report);
     }
 
+    @PostMapping("/payroll-report/rebuild")
+    public ResponseEntity<PayrollPeriodSummary> rebuildPayrollReport(@RequestParam String payPeriod) {
+        try {
+            PayrollPeriodSummary summary = payrollSummaryService.rebuildSummary(payPeriod);
+            return ResponseEntity.ok(summary);
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding payroll summary: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> getServiceHealth() {
         Map<String, String> health = new HashMap<>();
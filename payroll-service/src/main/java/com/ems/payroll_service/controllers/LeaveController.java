@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/leaves")
@@ -126,6 +127,18 @@ public class LeaveController {
         }
     }
 
+    // Compares the in-memory overlap index with the leaves collection
+    @GetMapping("/index/consistency")
+    public ResponseEntity<Map<String, Object>> checkIndexConsistency() {
+        return ResponseEntity.ok(leaveService.checkIndexConsistency(false));
+    }
+
+    // Same comparison, rebuilding the index when it differs
+    @PostMapping("/index/repair")
+    public ResponseEntity<Map<String, Object>> repairIndex() {
+        return ResponseEntity.ok(leaveService.checkIndexConsistency(true));
+    }
+
     @GetMapping("/employee/{employeeId}/balance/{leaveType}")
     public ResponseEntity<Integer> getLeaveBalance(@PathVariable String employeeId,
                                                   @PathVariable String leaveType) {
@@ -1,7 +1,14 @@
 package com.ems.payroll_service.controllers;
 
+import com.ems.payroll_service.dto.PayrollBatchResultDto;
+import com.ems.payroll_service.dto.PayrollBatchTransitionDto;
 import com.ems.payroll_service.dto.PayrollDto;
+import com.ems.payroll_service.dto.PayrollPageDto;
+import com.ems.payroll_service.dto.PayrollRunSummaryDto;
+import com.ems.payroll_service.dto.PayrollSimulationRequestDto;
+import com.ems.payroll_service.dto.PayrollSimulationResultDto;
 import com.ems.payroll_service.services.PayrollService;
+import com.ems.payroll_service.services.PayrollSimulationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -9,7 +16,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/payroll")
@@ -19,11 +25,17 @@ import java.util.List;
 public class PayrollController {
 
     private final PayrollService payrollService;
+    private final PayrollSimulationService payrollSimulationService;
 
     @GetMapping
-    public ResponseEntity<List<PayrollDto>> getAllPayrolls() {
-        List<PayrollDto> payrolls = payrollService.getAllPayrolls();
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<PayrollPageDto> getAllPayrolls(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(payrollService.getPayrolls(cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error fetching payrolls: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -34,15 +46,27 @@ public class PayrollController {
     }
 
     @GetMapping("/employee/{employeeId}")
-    public ResponseEntity<List<PayrollDto>> getPayrollsByEmployeeId(@PathVariable String employeeId) {
-        List<PayrollDto> payrolls = payrollService.getPayrollsByEmployeeId(employeeId);
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<PayrollPageDto> getPayrollsByEmployeeId(@PathVariable String employeeId,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(payrollService.getPayrollsByEmployeeId(employeeId, cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error fetching payrolls for employee: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/period/{payPeriod}")
-    public ResponseEntity<List<PayrollDto>> getPayrollsByPeriod(@PathVariable String payPeriod) {
-        List<PayrollDto> payrolls = payrollService.getPayrollsByPeriod(payPeriod);
-        return ResponseEntity.ok(payrolls);
+    public ResponseEntity<PayrollPageDto> getPayrollsByPeriod(@PathVariable String payPeriod,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(payrollService.getPayrollsByPeriod(payPeriod, cursor, limit));
+        } catch (RuntimeException e) {
+            log.error("Error fetching payrolls for period: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -68,6 +92,51 @@ public class PayrollController {
         }
     }
 
+    @PostMapping("/generate-batch")
+    public ResponseEntity<PayrollRunSummaryDto> generatePayrollBatch(@RequestParam String payPeriod) {
+        try {
+            PayrollRunSummaryDto summary = payrollService.generatePayrollBatch(payPeriod);
+            return ResponseEntity.ok(summary);
+        } catch (RuntimeException e) {
+            log.error("Error generating payroll batch: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/simulate")
+    public ResponseEntity<PayrollSimulationResultDto> simulatePayroll(
+            @Valid @RequestBody PayrollSimulationRequestDto request) {
+        try {
+            PayrollSimulationResultDto result = payrollSimulationService.simulate(request);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            log.error("Error simulating payroll: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/approve-batch")
+    public ResponseEntity<PayrollBatchResultDto> approvePayrolls(@Valid @RequestBody PayrollBatchTransitionDto request) {
+        try {
+            PayrollBatchResultDto result = payrollService.approvePayrolls(request);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            log.error("Error batch approving payrolls: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/pay-batch")
+    public ResponseEntity<PayrollBatchResultDto> markPayrollsPaid(@Valid @RequestBody PayrollBatchTransitionDto request) {
+        try {
+            PayrollBatchResultDto result = payrollService.markPayrollsPaid(request);
+            return ResponseEntity.ok(result);
+        } catch (RuntimeException e) {
+            log.error("Error batch marking payrolls paid: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PayrollDto> updatePayroll(@PathVariable String id,
                                                    @Valid @RequestBody PayrollDto payrollDto) {
@@ -91,6 +160,17 @@ public class PayrollController {
         }
     }
 
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<PayrollDto> cancelPayroll(@PathVariable String id) {
+        try {
+            PayrollDto cancelledPayroll = payrollService.cancelPayroll(id);
+            return ResponseEntity.ok(cancelledPayroll);
+        } catch (RuntimeException e) {
+            log.error("Error cancelling payroll: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}/approve")
     public ResponseEntity<PayrollDto> approvePayroll(@PathVariable String id,
                                                     @RequestParam String approvedBy) {
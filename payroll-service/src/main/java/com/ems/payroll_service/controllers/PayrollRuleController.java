@@ -0,0 +1,57 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.PayrollRuleSetDto;
+import com.ems.payroll_service.services.PayrollRuleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payroll/rules")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class PayrollRuleController {
+
+    private final PayrollRuleService payrollRuleService;
+
+    @GetMapping
+    public ResponseEntity<List<PayrollRuleSetDto>> getAllRuleSets() {
+        List<PayrollRuleSetDto> ruleSets = payrollRuleService.getAllRuleSets();
+        return ResponseEntity.ok(ruleSets);
+    }
+
+    @GetMapping("/active")
+    public ResponseEntity<PayrollRuleSetDto> getActiveRuleSet() {
+        return payrollRuleService.getActiveRuleSet()
+                .map(ruleSet -> ResponseEntity.ok(ruleSet))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<PayrollRuleSetDto> createRuleSet(@Valid @RequestBody PayrollRuleSetDto ruleSetDto) {
+        try {
+            PayrollRuleSetDto createdRuleSet = payrollRuleService.createRuleSet(ruleSetDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdRuleSet);
+        } catch (RuntimeException e) {
+            log.error("Error creating payroll rule set: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{version}/activate")
+    public ResponseEntity<PayrollRuleSetDto> activateVersion(@PathVariable Long version) {
+        try {
+            PayrollRuleSetDto ruleSet = payrollRuleService.activateVersion(version);
+            return ResponseEntity.ok(ruleSet);
+        } catch (RuntimeException e) {
+            log.error("Error activating payroll rule set: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
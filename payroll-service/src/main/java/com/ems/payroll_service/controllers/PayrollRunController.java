@@ -0,0 +1,68 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.PayrollRunDto;
+import com.ems.payroll_service.services.PayrollRunService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/payroll/runs")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class PayrollRunController {
+
+    private final PayrollRunService payrollRunService;
+
+    @GetMapping
+    public ResponseEntity<List<PayrollRunDto>> getRunsByPeriod(@RequestParam String payPeriod) {
+        List<PayrollRunDto> runs = payrollRunService.getRunsByPeriod(payPeriod);
+        return ResponseEntity.ok(runs);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PayrollRunDto> getRunById(@PathVariable String id) {
+        return payrollRunService.getRunById(id)
+                .map(run -> ResponseEntity.ok(run))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<PayrollRunDto> startRun(@RequestParam String payPeriod,
+                                                  @RequestParam(required = false) Integer chunkSize) {
+        try {
+            PayrollRunDto run = payrollRunService.startRun(payPeriod, chunkSize);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (RuntimeException e) {
+            log.error("Error starting payroll run: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<PayrollRunDto> cancelRun(@PathVariable String id) {
+        try {
+            PayrollRunDto run = payrollRunService.cancelRun(id);
+            return ResponseEntity.ok(run);
+        } catch (RuntimeException e) {
+            log.error("Error cancelling payroll run: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{id}/resume")
+    public ResponseEntity<PayrollRunDto> resumeRun(@PathVariable String id) {
+        try {
+            PayrollRunDto run = payrollRunService.resumeRun(id);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(run);
+        } catch (RuntimeException e) {
+            log.error("Error resuming payroll run: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.PayrollYtdDto;
+import com.ems.payroll_service.services.PayrollYtdService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/payroll/ytd")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class PayrollYtdController {
+
+    private final PayrollYtdService payrollYtdService;
+
+    @GetMapping("/{employeeId}")
+    public ResponseEntity<PayrollYtdDto> getYtd(@PathVariable String employeeId,
+                                                @RequestParam(required = false) Integer fiscalYear) {
+        return ResponseEntity.ok(payrollYtdService.getYtd(employeeId, fiscalYear));
+    }
+
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            return ResponseEntity.ok(payrollYtdService.rebuild());
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding YTD payroll accumulators: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.dto.HolidayDto;
+import com.ems.payroll_service.services.WorkCalendarService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/calendar")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class WorkCalendarController {
+
+    private final WorkCalendarService workCalendarService;
+
+    @GetMapping("/holidays")
+    public ResponseEntity<List<HolidayDto>> getHolidays(@RequestParam(required = false) String calendar) {
+        return ResponseEntity.ok(workCalendarService.getHolidays(calendar));
+    }
+
+    @PostMapping("/holidays")
+    public ResponseEntity<HolidayDto> createHoliday(@Valid @RequestBody HolidayDto holidayDto) {
+        try {
+            HolidayDto createdHoliday = workCalendarService.createHoliday(holidayDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdHoliday);
+        } catch (RuntimeException e) {
+            log.error("Error creating holiday: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/holidays/{id}")
+    public ResponseEntity<Void> deleteHoliday(@PathVariable String id) {
+        try {
+            workCalendarService.deleteHoliday(id);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            log.error("Error deleting holiday: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/working-days")
+    public ResponseEntity<Map<String, Object>> getWorkingDays(
+            @RequestParam(required = false) String calendar,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(Map.of(
+                "calendar", calendar != null ? calendar : WorkCalendarService.DEFAULT_CALENDAR,
+                "startDate", startDate,
+                "endDate", endDate,
+                "workingDays", workCalendarService.workingDays(calendar, startDate, endDate)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ems.payroll_service.controllers;
+
+import com.ems.payroll_service.calculation.CompiledWorkPolicy;
+import com.ems.payroll_service.dto.WorkPolicySetDto;
+import com.ems.payroll_service.services.WorkPolicyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/attendance/policies")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class WorkPolicyController {
+
+    private final WorkPolicyService workPolicyService;
+
+    @GetMapping
+    public ResponseEntity<List<WorkPolicySetDto>> getAllPolicySets() {
+        List<WorkPolicySetDto> policySets = workPolicyService.getAllPolicySets();
+        return ResponseEntity.ok(policySets);
+    }
+
+    @GetMapping("/active")
+    public ResponseEntity<WorkPolicySetDto> getActivePolicySet() {
+        return workPolicyService.getActivePolicySet()
+                .map(policySet -> ResponseEntity.ok(policySet))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // The policy currently applied to an employee's check-outs
+    @GetMapping("/resolve/{employeeId}")
+    public ResponseEntity<CompiledWorkPolicy> resolve(@PathVariable String employeeId) {
+        return ResponseEntity.ok(workPolicyService.resolve(employeeId));
+    }
+
+    @PostMapping
+    public ResponseEntity<WorkPolicySetDto> createPolicySet(@Valid @RequestBody WorkPolicySetDto policySetDto) {
+        try {
+            WorkPolicySetDto createdPolicySet = workPolicyService.createPolicySet(policySetDto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdPolicySet);
+        } catch (RuntimeException e) {
+            log.error("Error creating work policy set: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PutMapping("/{version}/activate")
+    public ResponseEntity<WorkPolicySetDto> activateVersion(@PathVariable Long version) {
+        try {
+            WorkPolicySetDto policySet = workPolicyService.activateVersion(version);
+            return ResponseEntity.ok(policySet);
+        } catch (RuntimeException e) {
+            log.error("Error activating work policy set: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import jakarta.validation.constraints.*;
+
+@Data
+public class AttendanceEventDto {
+
+    private String id;
+
+    @NotBlank(message = "Employee ID is required")
+    private String employeeId;
+
+    private LocalDate date;
+
+    @NotBlank(message = "Type is required")
+    @Pattern(regexp = "^(PUNCH_IN|PUNCH_OUT|BREAK_START|BREAK_END)$",
+             message = "Type must be one of: PUNCH_IN, PUNCH_OUT, BREAK_START, BREAK_END")
+    private String type;
+
+    private LocalDateTime timestamp;
+
+    private String deviceId;
+    private String location;
+    private LocalDateTime receivedAt;
+}
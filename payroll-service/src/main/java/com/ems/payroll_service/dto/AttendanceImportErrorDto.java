@@ -0,0 +1,15 @@
+package com.ems.payroll_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceImportErrorDto {
+
+    private long line; // 1-based line of the upload, the CSV header is line 1
+    private String employeeId;
+    private String message;
+}
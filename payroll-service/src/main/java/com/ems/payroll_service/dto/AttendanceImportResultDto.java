@@ -0,0 +1,23 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class AttendanceImportResultDto {
+
+    private String format;
+    private long totalRows;
+    private long imported;
+    private long failed;
+    // Rows replaced by a later row for the same employeeId and date, listed with the errors
+    private long superseded;
+
+    // Only the first errors are listed, failed and superseded have the full counts
+    private List<AttendanceImportErrorDto> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
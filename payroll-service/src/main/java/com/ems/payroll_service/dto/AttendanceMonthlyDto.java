@@ -0,0 +1,24 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+public class AttendanceMonthlyDto {
+
+    private String employeeId;
+    private String month;
+
+    private long presentDays;
+    private long halfDays;
+    private long lateDays;
+    private long absentDays;
+    private long recordCount;
+
+    private double hoursWorked;
+    private double overtimeHours;
+    private double breakHours;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+}
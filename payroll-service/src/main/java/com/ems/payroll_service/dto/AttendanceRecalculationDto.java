@@ -0,0 +1,30 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class AttendanceRecalculationDto {
+
+    private String id;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status;
+    private int maxRowsPerSecond;
+
+    private long totalRows;
+    private long scannedRows;
+    private long changedRows;
+    private long failedRows;
+    private LocalDate lastDate;
+
+    private double progressPercent;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,33 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+public class AttendanceReportDto {
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String department;
+    private String status;
+
+    // Totals always cover the whole filtered range, independent of the page
+    private long totalRecords;
+    private long totalPresent;
+    private long totalAbsent;
+    private long totalLate;
+    private long totalHalfDay;
+    private double totalHoursWorked;
+    private double totalOvertimeHours;
+    private double totalBreakHours;
+    private Map<String, Long> statusCounts = new TreeMap<>();
+
+    // Only filled when records are requested
+    private List<AttendanceDto> attendanceData;
+    private Integer limit;
+    private boolean hasMore;
+    private String nextCursor;
+}
@@ -0,0 +1,24 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import jakarta.validation.constraints.*;
+
+@Data
+public class HolidayDto {
+
+    private String id;
+
+    @Size(max = 100, message = "Calendar cannot exceed 100 characters")
+    private String calendar;
+
+    @NotNull(message = "Date is required")
+    private LocalDate date;
+
+    @NotBlank(message = "Name is required")
+    @Size(max = 200, message = "Name cannot exceed 200 characters")
+    private String name;
+
+    private LocalDateTime updatedAt;
+}
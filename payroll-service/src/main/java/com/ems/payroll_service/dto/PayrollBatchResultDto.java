@@ -0,0 +1,19 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PayrollBatchResultDto {
+
+    private String fromStatus;
+    private String toStatus;
+    private long matched;
+    private long modified;
+
+    // Requested ids that were missing or not in fromStatus
+    private List<String> skippedIds = new ArrayList<>();
+
+    private long elapsedMillis;
+}
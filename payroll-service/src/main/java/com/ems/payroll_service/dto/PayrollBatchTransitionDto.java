@@ -0,0 +1,24 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.List;
+import java.util.Map;
+import jakarta.validation.constraints.*;
+
+@Data
+public class PayrollBatchTransitionDto {
+
+    // Either or both: a period selects all of its payrolls, ids narrow it down
+    @Pattern(regexp = "^\\d{4}-\\d{2}$", message = "Pay period must be in format YYYY-MM")
+    private String payPeriod;
+
+    @Size(max = 50000, message = "At most 50000 ids per request")
+    private List<String> ids;
+
+    // Approval
+    private String approvedBy;
+
+    // Payment: one reference for every payroll, or one per payroll id
+    private String paymentReference;
+    private Map<String, String> paymentReferences;
+}
@@ -0,0 +1,16 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PayrollPageDto {
+
+    private List<PayrollDto> items = new ArrayList<>();
+    private int limit;
+    private boolean hasMore;
+
+    // Opaque token for the next page, null on the last page
+    private String nextCursor;
+}
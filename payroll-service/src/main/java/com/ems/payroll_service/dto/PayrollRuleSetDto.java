@@ -0,0 +1,24 @@
+package com.ems.payroll_service.dto;
+
+import com.ems.payroll_service.models.PayrollRule;
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+import jakarta.validation.constraints.*;
+
+@Data
+public class PayrollRuleSetDto {
+
+    private String id;
+    private Long version;
+    private Boolean active;
+
+    @Size(max = 500, message = "Description cannot exceed 500 characters")
+    private String description;
+
+    private String createdBy;
+    private LocalDateTime createdAt;
+
+    @NotEmpty(message = "At least one rule is required")
+    private List<PayrollRule> rules;
+}
@@ -0,0 +1,31 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class PayrollRunDto {
+
+    private String id;
+    private String payPeriod;
+    private String status;
+    private int chunkSize;
+
+    private long totalEmployees;
+    private long processedEmployees;
+    private long generatedCount;
+    private long skippedCount;
+    private long failedCount;
+    private List<String> failures;
+
+    private String lastEmployeeId;
+    private double progressPercent;
+    private long elapsedMillis;
+    private double employeesPerSecond;
+
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,20 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+public class PayrollRunSummaryDto {
+
+    private String payPeriod;
+    private int totalEmployees;
+    private int generated;
+    private int skipped; // Payroll already existed for the period
+    private int failed;
+
+    // employeeId -> error message
+    private Map<String, String> failures = new LinkedHashMap<>();
+
+    private long elapsedMillis;
+}
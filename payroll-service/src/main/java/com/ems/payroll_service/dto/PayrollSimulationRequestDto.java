@@ -0,0 +1,37 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.List;
+import jakarta.validation.constraints.*;
+
+@Data
+public class PayrollSimulationRequestDto {
+
+    @NotBlank(message = "Pay period is required")
+    @Pattern(regexp = "^\\d{4}-\\d{2}$", message = "Pay period must be in format YYYY-MM")
+    private String payPeriod;
+
+    // Rule set to start from, the active one when not set
+    private Long ruleSetVersion;
+
+    // Overrides, unset values keep the rule set / current behaviour
+    @DecimalMin(value = "0.0", message = "Overtime multiplier must be greater than or equal to 0")
+    private BigDecimal overtimeMultiplier; // e.g. 2.0 for double time
+
+    @DecimalMin(value = "0.0", message = "Tax rate must be greater than or equal to 0")
+    private BigDecimal taxRate; // flat percentage, replaces the tax slabs
+
+    @DecimalMin(value = "0.0", message = "Provident fund rate must be greater than or equal to 0")
+    private BigDecimal providentFundRate; // percentage
+
+    @DecimalMin(value = "0.0", message = "Insurance must be greater than or equal to 0")
+    private BigDecimal insurance;
+
+    private BigDecimal salaryIncrease; // percentage applied to base salaries, may be negative
+
+    // Filters, all employees with status ACTIVE when empty
+    private List<String> departments;
+    private List<String> employmentTypes;
+    private List<String> employeeIds;
+}
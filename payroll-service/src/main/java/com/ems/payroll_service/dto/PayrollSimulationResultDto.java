@@ -0,0 +1,22 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+public class PayrollSimulationResultDto {
+
+    private String payPeriod;
+    private long ruleSetVersion;
+    private int totalEmployees;
+    private int failed;
+
+    // employeeId -> error message, capped
+    private Map<String, String> failures = new TreeMap<>();
+
+    private PayrollSimulationTotalsDto totals;
+    private Map<String, PayrollSimulationTotalsDto> departments = new TreeMap<>();
+
+    private long elapsedMillis;
+}
@@ -0,0 +1,19 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data
+public class PayrollSimulationTotalsDto {
+
+    private long employees;
+    private BigDecimal baseSalary;
+    private BigDecimal allowances;
+    private BigDecimal overtimePay;
+    private BigDecimal totalEarnings;
+    private BigDecimal taxDeduction;
+    private BigDecimal providentFund;
+    private BigDecimal insurance;
+    private BigDecimal totalDeductions;
+    private BigDecimal netPay;
+}
@@ -0,0 +1,25 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+public class PayrollYtdDto {
+
+    private String employeeId;
+    private int fiscalYear;
+    private LocalDate fiscalYearStart;
+    private LocalDate fiscalYearEnd;
+
+    private long payrollCount;
+    private BigDecimal totalEarnings;
+    private BigDecimal taxDeduction;
+    private BigDecimal providentFund;
+    private BigDecimal totalDeductions;
+    private BigDecimal netPay;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+}
@@ -0,0 +1,11 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+
+@Data
+public class PresenceMemberDto {
+
+    private String employeeId;
+    private String fullName;
+    private String department;
+}
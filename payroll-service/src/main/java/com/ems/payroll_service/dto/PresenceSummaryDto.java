@@ -0,0 +1,19 @@
+package com.ems.payroll_service.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+public class PresenceSummaryDto {
+
+    private LocalDate date;
+    private long recorded; // Employees with any attendance record today
+    private long checkedIn; // Checked in and not yet checked out, including those on break
+    private long checkedOut;
+    private long onBreak;
+
+    // department -> state (CHECKED_IN, CHECKED_OUT, ON_BREAK) -> count
+    private Map<String, Map<String, Long>> departments = new TreeMap<>();
+}
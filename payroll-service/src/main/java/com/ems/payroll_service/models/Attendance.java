@@ -2,11 +2,18 @@ package com.ems.payroll_service.models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Document(collection = "attendance")
+@CompoundIndexes({
+        @CompoundIndex(name = "employee_date_unique", def = "{'employeeId': 1, 'date': 1}", unique = true),
+        @CompoundIndex(name = "date_status_idx", def = "{'date': 1, 'status': 1}"),
+        @CompoundIndex(name = "date_employee_idx", def = "{'date': 1, 'employeeId': 1}")
+})
 @Data
 public class Attendance {
 
@@ -0,0 +1,19 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+// Compactor watermark: every event with an id up to lastEventId has been folded into attendance
+@Document(collection = "attendance_compaction_state")
+@Data
+public class AttendanceCompactionState {
+
+    @Id
+    private String id;
+
+    private String lastEventId;
+    private long eventsCompacted;
+    private LocalDateTime lastCompactedAt;
+}
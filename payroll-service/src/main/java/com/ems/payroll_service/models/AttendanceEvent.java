@@ -0,0 +1,36 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Append-only raw punch; never updated. Daily Attendance documents are folded from these by the compactor.
+@Document(collection = "attendance_events")
+@CompoundIndexes({
+        @CompoundIndex(name = "employee_date_time_idx", def = "{'employeeId': 1, 'date': 1, 'timestamp': 1}"),
+        @CompoundIndex(name = "date_employee_idx", def = "{'date': 1, 'employeeId': 1}")
+})
+@Data
+public class AttendanceEvent {
+
+    public static final String PUNCH_IN = "PUNCH_IN";
+    public static final String PUNCH_OUT = "PUNCH_OUT";
+    public static final String BREAK_START = "BREAK_START";
+    public static final String BREAK_END = "BREAK_END";
+
+    @Id
+    private String id; // ObjectId, its order is the compaction watermark order
+
+    private String employeeId;
+    private LocalDate date; // Attendance day the punch belongs to
+    private String type; // PUNCH_IN, PUNCH_OUT, BREAK_START, BREAK_END
+    private LocalDateTime timestamp;
+
+    private String deviceId;
+    private String location;
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,41 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+// Per employee and month attendance totals, maintained with $inc on every attendance write.
+// A record counts once its hours are final: checked out, or entered without a check-in.
+@Document(collection = "attendance_monthly")
+@CompoundIndex(name = "employee_month_unique", def = "{'employeeId': 1, 'month': 1}", unique = true)
+@Data
+public class AttendanceMonthly {
+
+    @Id
+    private String id; // employeeId|YYYY-MM
+
+    private String employeeId;
+
+    @Indexed
+    private String month; // YYYY-MM, same format as the payroll pay period
+
+    private long presentDays;
+    private long halfDays;
+    private long lateDays;
+    private long absentDays;
+    private long recordCount;
+
+    private double hoursWorked;
+    private double overtimeHours;
+    private double breakHours;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+
+    public static String key(String employeeId, String month) {
+        return employeeId + "|" + month;
+    }
+}
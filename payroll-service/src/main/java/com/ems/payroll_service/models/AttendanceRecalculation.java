@@ -0,0 +1,36 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Document(collection = "attendance_recalculations")
+@Data
+public class AttendanceRecalculation {
+
+    @Id
+    private String id;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    private int maxRowsPerSecond; // 0 means unthrottled
+
+    // Progress
+    private long totalRows;
+    private long scannedRows;
+    private long changedRows;
+    private long failedRows;
+    private LocalDate lastDate;
+
+    // Throughput
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
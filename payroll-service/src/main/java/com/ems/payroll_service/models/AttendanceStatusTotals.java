@@ -0,0 +1,14 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+
+// Aggregation result, not a stored document
+@Data
+public class AttendanceStatusTotals {
+
+    private String status;
+    private long count;
+    private double hoursWorked;
+    private double overtimeHours;
+    private double breakHours;
+}
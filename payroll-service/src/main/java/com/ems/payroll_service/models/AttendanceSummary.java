@@ -0,0 +1,14 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+
+// Aggregation result, not a stored document
+@Data
+public class AttendanceSummary {
+
+    private String employeeId;
+    private long presentDays;
+    private double overtimeHours;
+    private double hoursWorked;
+    private double breakHours;
+}
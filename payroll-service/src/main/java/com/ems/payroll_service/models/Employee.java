@@ -2,21 +2,28 @@ package com.ems.payroll_service.models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.math.BigDecimal;
+import java.util.List;
 
 @Document(collection = "employees")
+@CompoundIndex(name = "status_employee_idx", def = "{'status': 1, 'employeeId': 1}")
 @Data
 public class Employee {
 
     @Id
     private String id;
 
+    @Indexed(name = "employee_id_unique", unique = true)
     private String employeeId; // Unique employee identifier
     private String fullName;
+    @Indexed(name = "email_unique", unique = true)
     private String email;
     private String phone;
+    @Indexed
     private String department;
     private String position;
     private LocalDate joinDate;
@@ -40,4 +47,6 @@ public class Employee {
     private Integer annualLeaveBalance;
     private Integer sickLeaveBalance;
     private Integer casualLeaveBalance;
+    // Leaves whose days are taken off the balances above, so a deduction or restore applies once
+    private List<String> deductedLeaveIds;
 }
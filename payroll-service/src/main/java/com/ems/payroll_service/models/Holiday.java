@@ -0,0 +1,22 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Document(collection = "holidays")
+@CompoundIndex(name = "calendar_date_unique", def = "{'calendar': 1, 'date': 1}", unique = true)
+@Data
+public class Holiday {
+
+    @Id
+    private String id;
+
+    private String calendar; // DEFAULT for company-wide holidays, otherwise a department
+    private LocalDate date;
+    private String name;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+// Cluster-wide lease for a job that must run on one instance at a time; the id is the job name
+@Document(collection = "job_leases")
+@Data
+public class JobLease {
+
+    @Id
+    private String id;
+
+    private String owner;
+    private LocalDateTime expiresAt;
+}
@@ -2,11 +2,18 @@ package com.ems.payroll_service.models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Document(collection = "leaves")
+@CompoundIndexes({
+        @CompoundIndex(name = "employee_status_dates_idx",
+                def = "{'employeeId': 1, 'status': 1, 'startDate': 1, 'endDate': 1}"),
+        @CompoundIndex(name = "status_idx", def = "{'status': 1}")
+})
 @Data
 public class Leave {
 
@@ -20,13 +27,15 @@ public class Leave {
     private LocalDate endDate;
     private Integer totalDays;
     private String reason;
-    private String status; // PENDING, APPROVED, REJECTED, CANCELLED
+    private String status; // PENDING, APPROVING, APPROVED, CANCELLING, REJECTED, CANCELLED
 
     // Application details
     private LocalDateTime appliedAt;
     private LocalDateTime approvedAt;
     private String approvedBy;
     private String rejectionReason;
+    // Set while APPROVING or CANCELLING, to find transitions interrupted before the balance step finished
+    private LocalDateTime transitionStartedAt;
 
     // Handover details
     private String handoverTo;
@@ -0,0 +1,16 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+// Bumped by every leave apply or update of the employee (the id), so instances notice leaves they did not write
+@Document(collection = "leave_versions")
+@Data
+public class LeaveVersion {
+
+    @Id
+    private String id;
+
+    private long version;
+}
@@ -2,12 +2,19 @@ package com.ems.payroll_service.models;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
 
 @Document(collection = "payrolls")
+@CompoundIndexes({
+        @CompoundIndex(name = "employee_period_unique", def = "{'employeeId': 1, 'payPeriod': 1}", unique = true),
+        @CompoundIndex(name = "period_status_idx", def = "{'payPeriod': 1, 'status': 1}"),
+        @CompoundIndex(name = "period_employee_id_idx", def = "{'payPeriod': 1, 'employeeId': 1, '_id': 1}")
+})
 @Data
 public class Payroll {
 
@@ -0,0 +1,36 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+// Maintained with $inc by PayrollService; Decimal128 so amounts can be incremented server-side
+@Document(collection = "payroll_period_summary")
+@Data
+public class PayrollPeriodSummary {
+
+    @Id
+    private String payPeriod;
+
+    private long payrollCount;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalEarnings = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalDeductions = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalNetPay = BigDecimal.ZERO;
+
+    private Map<String, Long> statusCounts = new HashMap<>(); // DRAFT, APPROVED, PAID, CANCELLED
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+}
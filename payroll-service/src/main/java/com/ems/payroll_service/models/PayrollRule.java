@@ -0,0 +1,30 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Embedded in PayrollRuleSet
+@Data
+public class PayrollRule {
+
+    private String employmentType; // null matches any
+    private String salaryGrade;    // null matches any
+
+    // Progressive monthly tax on gross pay, slabs in ascending order, last one open-ended
+    private List<TaxSlab> taxSlabs = new ArrayList<>();
+    private BigDecimal taxCap; // null for no cap
+
+    // Percentage of base salary
+    private BigDecimal providentFundRate;
+    private BigDecimal providentFundCap; // null for no cap
+
+    private BigDecimal insurance;
+
+    @Data
+    public static class TaxSlab {
+        private BigDecimal upTo; // inclusive upper bound, null for the top slab
+        private BigDecimal rate; // percentage, e.g. 12.5
+    }
+}
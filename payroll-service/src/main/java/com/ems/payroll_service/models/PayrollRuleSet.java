@@ -0,0 +1,28 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "payroll_rule_sets")
+@Data
+public class PayrollRuleSet {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private Long version;
+
+    private Boolean active;
+    private String description;
+    private String createdBy;
+    private LocalDateTime createdAt;
+
+    // Most specific match wins: employmentType + salaryGrade, then either one, then the catch-all rule
+    private List<PayrollRule> rules = new ArrayList<>();
+}
@@ -0,0 +1,44 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Document(collection = "payroll_runs")
+@Data
+public class PayrollRun {
+
+    @Id
+    private String id;
+
+    private String payPeriod;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED, CANCELLED
+    private int chunkSize;
+
+    // Progress
+    private long totalEmployees;
+    private long processedEmployees;
+    private long generatedCount;
+    private long skippedCount;
+    private long failedCount;
+    private List<String> failures = new ArrayList<>(); // "employeeId: error", capped
+
+    // Checkpoint: employees are processed in employeeId order, everything up to here is done
+    private String lastEmployeeId;
+
+    // Throughput
+    private long elapsedMillis;
+    private double employeesPerSecond;
+
+    // Worker lease
+    private String workerId;
+    private LocalDateTime heartbeatAt;
+
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,47 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Year-to-date totals of approved payrolls, maintained with $inc; the id is derived so reads are a single lookup
+@Document(collection = "payroll_ytd")
+@CompoundIndex(name = "employee_fiscal_year_unique", def = "{'employeeId': 1, 'fiscalYear': 1}", unique = true)
+@Data
+public class PayrollYtd {
+
+    @Id
+    private String id; // employeeId|fiscalYear
+
+    private String employeeId;
+    private int fiscalYear; // Calendar year the fiscal year starts in
+
+    private long payrollCount;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalEarnings = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal taxDeduction = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal providentFund = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal totalDeductions = BigDecimal.ZERO;
+
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal netPay = BigDecimal.ZERO;
+
+    private LocalDateTime updatedAt;
+    private LocalDateTime rebuiltAt;
+
+    public static String key(String employeeId, int fiscalYear) {
+        return employeeId + "|" + fiscalYear;
+    }
+}
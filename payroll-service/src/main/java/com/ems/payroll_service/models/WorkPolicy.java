@@ -0,0 +1,18 @@
+package com.ems.payroll_service.models;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+// Embedded in WorkPolicySet
+@Data
+public class WorkPolicy {
+
+    private String department;     // null matches any
+    private String employmentType; // null matches any
+    private String salaryGrade;    // null matches any
+
+    private BigDecimal standardHours;      // worked hours for a full PRESENT day, overtime starts after
+    private BigDecimal halfDayHours;       // worked hours for HALF_DAY
+    private BigDecimal overtimeMultiplier; // e.g. 1.5 times the hourly rate
+    private Integer graceMinutes;          // shortfall still counted towards PRESENT and HALF_DAY
+}
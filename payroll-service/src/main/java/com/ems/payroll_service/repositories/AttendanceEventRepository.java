@@ -0,0 +1,17 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AttendanceEventRepository extends MongoRepository<AttendanceEvent, String>,
+        AttendanceEventRepositoryCustom {
+
+    List<AttendanceEvent> findByEmployeeIdAndDateOrderByTimestampAsc(String employeeId, LocalDate date);
+
+    List<AttendanceEvent> findByDate(LocalDate date);
+}
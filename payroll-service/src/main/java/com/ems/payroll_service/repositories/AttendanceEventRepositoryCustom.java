@@ -0,0 +1,22 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceCompactionState;
+import com.ems.payroll_service.models.AttendanceEvent;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface AttendanceEventRepositoryCustom {
+
+    // Events after the watermark (exclusive, null for the beginning) created before the cutoff, in id order
+    List<AttendanceEvent> findAfter(String afterEventId, Date createdBefore, int limit);
+
+    // Every event of the given employees on the given days; a superset of the exact pairs
+    List<AttendanceEvent> findForDays(Collection<String> employeeIds, Collection<LocalDate> dates);
+
+    AttendanceCompactionState getCompactionState(String name);
+
+    // Moves the watermark forward only, so a slower concurrent compactor can never move it back
+    void advanceWatermark(String name, String lastEventId, long eventsCompacted);
+}
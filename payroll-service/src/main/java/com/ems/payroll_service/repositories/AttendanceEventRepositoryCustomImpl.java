@@ -0,0 +1,72 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceCompactionState;
+import com.ems.payroll_service.models.AttendanceEvent;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AttendanceEventRepositoryCustomImpl implements AttendanceEventRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<AttendanceEvent> findAfter(String afterEventId, Date createdBefore, int limit) {
+        Criteria criteria = Criteria.where("_id").lt(ObjectId.getSmallestWithDate(createdBefore));
+        if (afterEventId != null) {
+            criteria.gt(new ObjectId(afterEventId));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by("_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, AttendanceEvent.class);
+    }
+
+    @Override
+    public List<AttendanceEvent> findForDays(Collection<String> employeeIds, Collection<LocalDate> dates) {
+        Query query = new Query(Criteria.where("employeeId").in(employeeIds).and("date").in(dates));
+        return mongoTemplate.find(query, AttendanceEvent.class);
+    }
+
+    @Override
+    public AttendanceCompactionState getCompactionState(String name) {
+        AttendanceCompactionState state = mongoTemplate.findById(name, AttendanceCompactionState.class);
+        if (state != null) {
+            return state;
+        }
+
+        AttendanceCompactionState empty = new AttendanceCompactionState();
+        empty.setId(name);
+        return empty;
+    }
+
+    @Override
+    public void advanceWatermark(String name, String lastEventId, long eventsCompacted) {
+        // Ids are fixed-width lower-case hex, so string order is id order
+        Query query = new Query(Criteria.where("_id").is(name).orOperator(
+                Criteria.where("lastEventId").is(null),
+                Criteria.where("lastEventId").lt(lastEventId)));
+        Update update = new Update()
+                .set("lastEventId", lastEventId)
+                .inc("eventsCompacted", eventsCompacted)
+                .set("lastCompactedAt", LocalDateTime.now());
+        try {
+            mongoTemplate.upsert(query, update, AttendanceCompactionState.class);
+        } catch (DuplicateKeyException e) {
+            // Another compactor already moved the watermark past this one
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceMonthly;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AttendanceMonthlyRepository extends MongoRepository<AttendanceMonthly, String>,
+        AttendanceMonthlyRepositoryCustom {
+
+    List<AttendanceMonthly> findByMonth(String month);
+
+    List<AttendanceMonthly> findByMonthAndEmployeeIdIn(String month, Collection<String> employeeIds);
+}
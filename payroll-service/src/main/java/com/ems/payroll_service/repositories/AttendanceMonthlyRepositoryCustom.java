@@ -0,0 +1,17 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceMonthly;
+import java.time.YearMonth;
+import java.util.Collection;
+
+public interface AttendanceMonthlyRepositoryCustom {
+
+    // Each element carries deltas for one rollup; applied as one unordered bulk of upserting $inc
+    void increment(Collection<AttendanceMonthly> deltas);
+
+    // Replaces the whole collection from the attendance records in one aggregation ($out)
+    void rebuildFromAttendance();
+
+    // Recomputes only these employees' rollups for the month range and merges them in place ($merge)
+    void rebuildFromAttendance(Collection<String> employeeIds, YearMonth fromMonth, YearMonth toMonth);
+}
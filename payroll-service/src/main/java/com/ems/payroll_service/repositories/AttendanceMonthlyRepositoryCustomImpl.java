@@ -0,0 +1,139 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceMonthly;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+
+@RequiredArgsConstructor
+public class AttendanceMonthlyRepositoryCustomImpl implements AttendanceMonthlyRepositoryCustom {
+
+    private static final Map<String, String> STATUS_COUNTERS = Map.of(
+            "PRESENT", "presentDays",
+            "HALF_DAY", "halfDays",
+            "LATE", "lateDays",
+            "ABSENT", "absentDays");
+
+    private static final List<String> HOUR_FIELDS = List.of("hoursWorked", "overtimeHours", "breakHours");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Collection<AttendanceMonthly> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AttendanceMonthly.class);
+        for (AttendanceMonthly delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("employeeId", delta.getEmployeeId())
+                    .setOnInsert("month", delta.getMonth())
+                    .inc("presentDays", delta.getPresentDays())
+                    .inc("halfDays", delta.getHalfDays())
+                    .inc("lateDays", delta.getLateDays())
+                    .inc("absentDays", delta.getAbsentDays())
+                    .inc("recordCount", delta.getRecordCount())
+                    .inc("hoursWorked", delta.getHoursWorked())
+                    .inc("overtimeHours", delta.getOvertimeHours())
+                    .inc("breakHours", delta.getBreakHours())
+                    .set("updatedAt", now);
+            bulk.upsert(new Query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void rebuildFromAttendance() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(counted()),
+                group(),
+                project("$$NOW"),
+                Aggregation.out(mongoTemplate.getCollectionName(AttendanceMonthly.class)));
+
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Attendance.class), Document.class);
+    }
+
+    @Override
+    public void rebuildFromAttendance(Collection<String> employeeIds, YearMonth fromMonth, YearMonth toMonth) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+
+        // Tags this run, so rollups it did not rewrite can be told apart afterwards
+        Date rebuiltAt = new Date();
+        String collection = mongoTemplate.getCollectionName(AttendanceMonthly.class);
+
+        AggregationOperation merge = context -> new Document("$merge", new Document("into", collection)
+                .append("on", "_id")
+                .append("whenMatched", "replace")
+                .append("whenNotMatched", "insert"));
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(new Criteria().andOperator(counted(),
+                        Criteria.where("employeeId").in(employeeIds)
+                                .and("date").gte(fromMonth.atDay(1)).lte(toMonth.atEndOfMonth()))),
+                group(),
+                project(rebuiltAt),
+                merge);
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Attendance.class), Document.class);
+
+        // Months left with no counted record have nothing to merge and would otherwise keep old totals
+        mongoTemplate.remove(new Query(Criteria.where("employeeId").in(employeeIds)
+                .and("month").gte(fromMonth.toString()).lte(toMonth.toString())
+                .and("rebuiltAt").ne(rebuiltAt)), AttendanceMonthly.class);
+    }
+
+    // Same rule as AttendanceMonthlyService: open check-ins are not counted until they are closed
+    private Criteria counted() {
+        return new Criteria().orOperator(
+                Criteria.where("checkOutTime").ne(null),
+                Criteria.where("checkInTime").is(null));
+    }
+
+    private AggregationOperation group() {
+        // Dates are stored at midnight in the system time zone, so the month is read in that zone
+        Document month = new Document("$dateToString", new Document("format", "%Y-%m")
+                .append("date", "$date")
+                .append("timezone", ZoneId.systemDefault().getId()));
+
+        Document groupFields = new Document("_id", new Document("employeeId", "$employeeId")
+                .append("month", month))
+                .append("recordCount", new Document("$sum", 1));
+        STATUS_COUNTERS.forEach((status, counter) -> groupFields.append(counter, new Document("$sum",
+                new Document("$cond", List.of(new Document("$eq", List.of("$status", status)), 1, 0)))));
+        HOUR_FIELDS.forEach(field -> groupFields.append(field, new Document("$sum",
+                new Document("$ifNull", List.of("$" + field, 0.0)))));
+        return context -> new Document("$group", groupFields);
+    }
+
+    private AggregationOperation project(Object rebuiltAt) {
+        Document projectFields = new Document("_id", new Document("$concat", List.of(
+                "$_id.employeeId", "|", "$_id.month")))
+                .append("employeeId", "$_id.employeeId")
+                .append("month", "$_id.month")
+                .append("recordCount", 1)
+                .append("updatedAt", rebuiltAt)
+                .append("rebuiltAt", rebuiltAt);
+        STATUS_COUNTERS.values().forEach(counter -> projectFields.append(counter, 1));
+        HOUR_FIELDS.forEach(field -> projectFields.append(field, 1));
+        return context -> new Document("$project", projectFields);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceRecalculation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface AttendanceRecalculationRepository extends MongoRepository<AttendanceRecalculation, String>,
+        AttendanceRecalculationRepositoryCustom {
+
+    List<AttendanceRecalculation> findTop20ByOrderByCreatedAtDesc();
+}
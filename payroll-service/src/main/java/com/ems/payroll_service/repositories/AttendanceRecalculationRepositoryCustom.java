@@ -0,0 +1,16 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceRecalculation;
+
+public interface AttendanceRecalculationRepositoryCustom {
+
+    // PENDING to RUNNING; false when the job was cancelled before it started
+    boolean start(String recalculationId);
+
+    // Writes progress only while the job is RUNNING; false means it was cancelled
+    boolean checkpoint(AttendanceRecalculation recalculation);
+
+    boolean finish(AttendanceRecalculation recalculation, String status);
+
+    boolean cancel(String recalculationId);
+}
@@ -0,0 +1,75 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.AttendanceRecalculation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class AttendanceRecalculationRepositoryCustomImpl implements AttendanceRecalculationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean start(String recalculationId) {
+        Query query = new Query(Criteria.where("_id").is(recalculationId).and("status").is("PENDING"));
+        Update update = new Update()
+                .set("status", "RUNNING")
+                .set("updatedAt", LocalDateTime.now());
+
+        return mongoTemplate.updateFirst(query, update, AttendanceRecalculation.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean checkpoint(AttendanceRecalculation recalculation) {
+        Update update = progress(recalculation)
+                .set("updatedAt", LocalDateTime.now());
+
+        return mongoTemplate.updateFirst(running(recalculation), update, AttendanceRecalculation.class)
+                .getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean finish(AttendanceRecalculation recalculation, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = progress(recalculation)
+                .set("status", status)
+                .set("errorMessage", recalculation.getErrorMessage())
+                .set("updatedAt", now)
+                .set("completedAt", now);
+
+        return mongoTemplate.updateFirst(running(recalculation), update, AttendanceRecalculation.class)
+                .getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean cancel(String recalculationId) {
+        Query query = new Query(Criteria.where("_id").is(recalculationId).and("status").in(List.of("PENDING", "RUNNING")));
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", "CANCELLED")
+                .set("updatedAt", now)
+                .set("completedAt", now);
+
+        return mongoTemplate.updateFirst(query, update, AttendanceRecalculation.class).getMatchedCount() == 1;
+    }
+
+    private Query running(AttendanceRecalculation recalculation) {
+        return new Query(Criteria.where("_id").is(recalculation.getId()).and("status").is("RUNNING"));
+    }
+
+    private Update progress(AttendanceRecalculation recalculation) {
+        return new Update()
+                .set("scannedRows", recalculation.getScannedRows())
+                .set("changedRows", recalculation.getChangedRows())
+                .set("failedRows", recalculation.getFailedRows())
+                .set("lastDate", recalculation.getLastDate())
+                .set("elapsedMillis", recalculation.getElapsedMillis())
+                .set("rowsPerSecond", recalculation.getRowsPerSecond());
+    }
+}
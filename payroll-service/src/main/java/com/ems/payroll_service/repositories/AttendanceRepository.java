@@ -5,23 +5,44 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AttendanceRepository extends MongoRepository<Attendance, String> {
+public interface AttendanceRepository extends MongoRepository<Attendance, String>, AttendanceRepositoryCustom {
 
     List<Attendance> findByEmployeeId(String employeeId);
     List<Attendance> findByDate(LocalDate date);
     Optional<Attendance> findByEmployeeIdAndDate(String employeeId, LocalDate date);
     List<Attendance> findByStatus(String status);
 
+    @Query(value = "{'date': ?0}",
+            fields = "{'employeeId': 1, 'date': 1, 'checkInTime': 1, 'checkOutTime': 1, 'breakStartTime': 1, 'breakEndTime': 1}")
+    List<Attendance> findPresenceByDate(LocalDate date);
+
     @Query("{'employeeId': ?0, 'date': {$gte: ?1, $lte: ?2}}")
     List<Attendance> findByEmployeeIdAndDateBetween(String employeeId, LocalDate startDate, LocalDate endDate);
 
     @Query("{'date': {$gte: ?0, $lte: ?1}}")
     List<Attendance> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
+    // Only the (employeeId, date) key, to tell which archived rows have a newer hot copy
+    @Query(value = "{'date': {$gte: ?0, $lte: ?1}}", fields = "{'employeeId': 1, 'date': 1}")
+    List<Attendance> findKeysByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    @Query(value = "{'date': {$gte: ?0, $lte: ?1}, 'employeeId': {$in: ?2}}", fields = "{'employeeId': 1, 'date': 1}")
+    List<Attendance> findKeysByDateBetweenAndEmployeeIdIn(LocalDate startDate, LocalDate endDate,
+                                                          Collection<String> employeeIds);
+
+    Optional<Attendance> findFirstByOrderByDateAsc();
+
+    @Query(value = "{'date': {$gte: ?0, $lte: ?1}}", count = true)
+    long countByDateRange(LocalDate startDate, LocalDate endDate);
+
+    @Query("{'date': ?0, 'checkInTime': {$ne: null}, 'checkOutTime': null}")
+    List<Attendance> findOpenByDate(LocalDate date);
+
     @Query("{'employeeId': ?0, 'status': ?1}")
     List<Attendance> findByEmployeeIdAndStatus(String employeeId, String status);
 
@@ -0,0 +1,60 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.calculation.CompiledWorkPolicy;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceStatusTotals;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.mongodb.bulk.BulkWriteError;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AttendanceRepositoryCustom {
+
+    // One grouped pass over the range, one summary per employee
+    List<AttendanceSummary> summarizeByEmployee(LocalDate startDate, LocalDate endDate);
+
+    List<AttendanceSummary> summarizeByEmployee(Collection<String> employeeIds, LocalDate startDate, LocalDate endDate);
+
+    // Single $group round trip for one employee; zeros when there are no records
+    AttendanceSummary summarizeEmployee(String employeeId, LocalDate startDate, LocalDate endDate);
+
+    // Upsert with $setOnInsert keyed on employeeId + date; returns the existing record, null when inserted
+    Attendance insertIfAbsent(Attendance attendance);
+
+    // Closes the open record of the day and derives the hours server-side; null when there is no open record
+    Attendance checkOut(String employeeId, LocalDate date, LocalDateTime checkOutTime, String location,
+                        CompiledWorkPolicy policy);
+
+    // Sets breakStartTime on the open record if no break was started yet; null when nothing matched
+    Attendance startBreak(String employeeId, LocalDate date, LocalDateTime breakStartTime);
+
+    // Sets breakEndTime on the open record if a break is in progress; null when nothing matched
+    Attendance endBreak(String employeeId, LocalDate date, LocalDateTime breakEndTime);
+
+    // Report filters: employeeIds and status are optional (null means no filter)
+    List<AttendanceStatusTotals> totalsByStatus(LocalDate startDate, LocalDate endDate,
+                                                Collection<String> employeeIds, String status);
+
+    // Keyset page ordered by (date, employeeId), the after* key is null for the first page
+    List<Attendance> findReportPage(LocalDate startDate, LocalDate endDate, Collection<String> employeeIds,
+                                    String status, LocalDate afterDate, String afterEmployeeId, int limit);
+
+    // Cursor-backed stream in (date, employeeId) order; must be closed by the caller
+    Stream<Attendance> streamReport(LocalDate startDate, LocalDate endDate,
+                                    Collection<String> employeeIds, String status);
+
+    // Unordered bulk of updates that apply only while the record is still open; rejected ones are returned by index
+    List<BulkWriteError> closeOpenUnordered(List<Attendance> closed);
+
+    // Unordered bulk of updates to the derived fields, applied only while the times they were derived from are unchanged
+    List<BulkWriteError> updateDerivedUnordered(List<Attendance> attendance);
+
+    // Unordered bulk insert: every document is attempted, rejected ones are returned by index
+    List<BulkWriteError> insertUnordered(List<Attendance> attendance);
+
+    // Unordered bulk of upserts keyed on employeeId + date; rejected ones are returned by index
+    List<BulkWriteError> upsertUnordered(List<Attendance> attendance);
+}
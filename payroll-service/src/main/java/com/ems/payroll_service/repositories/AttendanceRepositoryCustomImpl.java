@@ -0,0 +1,339 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.calculation.CompiledWorkPolicy;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceStatusTotals;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+
+@RequiredArgsConstructor
+public class AttendanceRepositoryCustomImpl implements AttendanceRepositoryCustom {
+
+    private static final List<String> DERIVED_FIELDS = List.of("hoursWorked", "overtimeHours", "breakHours");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Attendance insertIfAbsent(Attendance attendance) {
+        Document fields = new Document();
+        mongoTemplate.getConverter().write(attendance, fields);
+
+        Update update = new Update();
+        fields.forEach(update::setOnInsert);
+
+        Query query = new Query(Criteria.where("employeeId").is(attendance.getEmployeeId())
+                .and("date").is(attendance.getDate()));
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().upsert(true).returnNew(false), Attendance.class);
+    }
+
+    @Override
+    public Attendance checkOut(String employeeId, LocalDate date, LocalDateTime checkOutTime, String location,
+                               CompiledWorkPolicy policy) {
+        Query query = new Query(openRecord(employeeId, date));
+
+        return mongoTemplate.findAndModify(query, checkOutPipeline(checkOutTime, location, policy),
+                FindAndModifyOptions.options().returnNew(true), Attendance.class);
+    }
+
+    @Override
+    public Attendance startBreak(String employeeId, LocalDate date, LocalDateTime breakStartTime) {
+        Query query = new Query(openRecord(employeeId, date).and("breakStartTime").is(null));
+        return mongoTemplate.findAndModify(query, new Update().set("breakStartTime", breakStartTime),
+                FindAndModifyOptions.options().returnNew(true), Attendance.class);
+    }
+
+    @Override
+    public Attendance endBreak(String employeeId, LocalDate date, LocalDateTime breakEndTime) {
+        Query query = new Query(openRecord(employeeId, date).and("breakStartTime").ne(null).and("breakEndTime").is(null));
+        return mongoTemplate.findAndModify(query, new Update().set("breakEndTime", breakEndTime),
+                FindAndModifyOptions.options().returnNew(true), Attendance.class);
+    }
+
+    private Criteria openRecord(String employeeId, LocalDate date) {
+        return Criteria.where("employeeId").is(employeeId)
+                .and("date").is(date)
+                .and("checkInTime").ne(null)
+                .and("checkOutTime").is(null);
+    }
+
+    // Same arithmetic as AttendanceService.calculateHours and CompiledWorkPolicy.status,
+    // including Math.round as floor(x + 0.5)
+    private AggregationUpdate checkOutPipeline(LocalDateTime checkOutTime, String location,
+                                               CompiledWorkPolicy policy) {
+        // Stored the way the mapping layer stores LocalDateTime: a Date in the system time zone
+        Date checkOut = Date.from(checkOutTime.atZone(ZoneId.systemDefault()).toInstant());
+
+        Document totalHours = new Document("$divide", List.of(
+                minutesBetween("$checkInTime", checkOut), 60.0));
+        Document breakHours = new Document("$cond", List.of(
+                new Document("$and", List.of(present("$breakStartTime"), present("$breakEndTime"))),
+                new Document("$divide", List.of(minutesBetween("$breakStartTime", "$breakEndTime"), 60.0)),
+                0.0));
+
+        AggregationOperation times = context -> new Document("$set", new Document()
+                .append("checkOutTime", checkOut)
+                .append("checkOutLocation", new Document("$literal", location))
+                .append("_totalHours", totalHours)
+                .append("_breakHours", breakHours));
+        AggregationOperation hours = context -> new Document("$set", new Document()
+                .append("breakHours", roundTo("$_breakHours", 10.0))
+                .append("hoursWorked", new Document("$max", List.of(0.0,
+                        roundTo(new Document("$subtract", List.of("$_totalHours", "$_breakHours")), 100.0)))));
+        Document credited = new Document("$add", List.of("$hoursWorked", policy.getGraceHours()));
+        AggregationOperation overtimeAndStatus = context -> new Document("$set", new Document()
+                .append("overtimeHours", roundTo(new Document("$max", List.of(0.0,
+                        new Document("$subtract", List.of("$hoursWorked", policy.getStandardHours())))), 100.0))
+                .append("status", new Document("$switch", new Document()
+                        .append("branches", List.of(
+                                branch(new Document("$gte", List.of(credited, policy.getStandardHours())), "PRESENT"),
+                                branch(new Document("$gte", List.of(credited, policy.getHalfDayHours())), "HALF_DAY"),
+                                branch(new Document("$gt", List.of("$hoursWorked", 0)), "LATE")))
+                        .append("default", "ABSENT"))));
+        AggregationOperation cleanup = context -> new Document("$unset", List.of("_totalHours", "_breakHours"));
+
+        return AggregationUpdate.newUpdate(times, hours, overtimeAndStatus, cleanup);
+    }
+
+    // Whole minutes, truncated toward zero like Duration.toMinutes
+    private Document minutesBetween(Object from, Object to) {
+        return new Document("$trunc", new Document("$divide", List.of(
+                new Document("$subtract", List.of(to, from)), 60_000)));
+    }
+
+    // Missing and null both count as absent
+    private Document present(String field) {
+        return new Document("$ne", Arrays.asList(new Document("$ifNull", Arrays.asList(field, null)), null));
+    }
+
+    private Document roundTo(Object value, double factor) {
+        return new Document("$divide", List.of(new Document("$floor", new Document("$add", List.of(
+                new Document("$multiply", List.of(value, factor)), 0.5))), factor));
+    }
+
+    private Document branch(Document condition, String status) {
+        return new Document("case", condition).append("then", status);
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Attendance> attendance) {
+        if (attendance.isEmpty()) {
+            return List.of();
+        }
+
+        return execute(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class)
+                .insert(attendance));
+    }
+
+    @Override
+    public List<BulkWriteError> closeOpenUnordered(List<Attendance> closed) {
+        if (closed.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        for (Attendance record : closed) {
+            // A check-out that lands before the bulk wins; its record no longer matches
+            bulk.updateOne(new Query(Criteria.where("_id").is(record.getId()).and("checkOutTime").is(null)),
+                    new Update()
+                            .set("checkOutTime", record.getCheckOutTime())
+                            .set("breakEndTime", record.getBreakEndTime())
+                            .set("hoursWorked", record.getHoursWorked())
+                            .set("overtimeHours", record.getOvertimeHours())
+                            .set("breakHours", record.getBreakHours())
+                            .set("status", record.getStatus())
+                            .set("remarks", record.getRemarks()));
+        }
+        return execute(bulk);
+    }
+
+    @Override
+    public List<BulkWriteError> updateDerivedUnordered(List<Attendance> attendance) {
+        if (attendance.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        for (Attendance record : attendance) {
+            // An edit since the read changed the inputs; its own write already derived the fields
+            Query query = new Query(Criteria.where("_id").is(record.getId())
+                    .and("checkInTime").is(record.getCheckInTime())
+                    .and("checkOutTime").is(record.getCheckOutTime())
+                    .and("breakStartTime").is(record.getBreakStartTime())
+                    .and("breakEndTime").is(record.getBreakEndTime()));
+            bulk.updateOne(query, new Update()
+                    .set("hoursWorked", record.getHoursWorked())
+                    .set("overtimeHours", record.getOvertimeHours())
+                    .set("breakHours", record.getBreakHours())
+                    .set("status", record.getStatus()));
+        }
+        return execute(bulk);
+    }
+
+    @Override
+    public List<BulkWriteError> upsertUnordered(List<Attendance> attendance) {
+        if (attendance.isEmpty()) {
+            return List.of();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        for (Attendance record : attendance) {
+            Document fields = new Document();
+            mongoTemplate.getConverter().write(record, fields);
+            fields.remove("_id");
+
+            Update update = new Update();
+            fields.forEach(update::set);
+            // Null values are not written by the converter, but stale derived values must not survive
+            for (String field : DERIVED_FIELDS) {
+                if (!fields.containsKey(field)) {
+                    update.unset(field);
+                }
+            }
+            bulk.upsert(new Query(Criteria.where("employeeId").is(record.getEmployeeId())
+                    .and("date").is(record.getDate())), update);
+        }
+        return execute(bulk);
+    }
+
+    private List<BulkWriteError> execute(BulkOperations bulk) {
+        try {
+            bulk.execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors();
+        } catch (DataAccessException e) {
+            if (e.getCause() instanceof MongoBulkWriteException bulkException
+                    && bulkException.getWriteConcernError() == null) {
+                return bulkException.getWriteErrors();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public List<AttendanceSummary> summarizeByEmployee(LocalDate startDate, LocalDate endDate) {
+        return summarize(Criteria.where("date").gte(startDate).lte(endDate));
+    }
+
+    @Override
+    public List<AttendanceSummary> summarizeByEmployee(Collection<String> employeeIds,
+                                                       LocalDate startDate, LocalDate endDate) {
+        return summarize(Criteria.where("employeeId").in(employeeIds).and("date").gte(startDate).lte(endDate));
+    }
+
+    @Override
+    public AttendanceSummary summarizeEmployee(String employeeId, LocalDate startDate, LocalDate endDate) {
+        List<AttendanceSummary> results = summarize(
+                Criteria.where("employeeId").is(employeeId).and("date").gte(startDate).lte(endDate));
+
+        if (!results.isEmpty()) {
+            return results.get(0);
+        }
+
+        AttendanceSummary empty = new AttendanceSummary();
+        empty.setEmployeeId(employeeId);
+        return empty;
+    }
+
+    @Override
+    public List<AttendanceStatusTotals> totalsByStatus(LocalDate startDate, LocalDate endDate,
+                                                       Collection<String> employeeIds, String status) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(reportCriteria(startDate, endDate, employeeIds, status)),
+                group("status")
+                        .count().as("count")
+                        .sum("hoursWorked").as("hoursWorked")
+                        .sum("overtimeHours").as("overtimeHours")
+                        .sum("breakHours").as("breakHours"),
+                project("count", "hoursWorked", "overtimeHours", "breakHours")
+                        .and("status").previousOperation()
+        );
+
+        return mongoTemplate.aggregate(aggregation, Attendance.class, AttendanceStatusTotals.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<Attendance> findReportPage(LocalDate startDate, LocalDate endDate, Collection<String> employeeIds,
+                                           String status, LocalDate afterDate, String afterEmployeeId, int limit) {
+        Criteria criteria = reportCriteria(startDate, endDate, employeeIds, status);
+        if (afterDate != null) {
+            // (employeeId, date) is unique, so the pair is a complete seek key
+            criteria = new Criteria().andOperator(criteria, new Criteria().orOperator(
+                    Criteria.where("date").gt(afterDate),
+                    Criteria.where("date").is(afterDate).and("employeeId").gt(afterEmployeeId)));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by("date", "employeeId"))
+                .limit(limit);
+        return mongoTemplate.find(query, Attendance.class);
+    }
+
+    @Override
+    public Stream<Attendance> streamReport(LocalDate startDate, LocalDate endDate,
+                                           Collection<String> employeeIds, String status) {
+        Query query = new Query(reportCriteria(startDate, endDate, employeeIds, status))
+                .with(Sort.by("date", "employeeId"));
+        return mongoTemplate.stream(query, Attendance.class);
+    }
+
+    private Criteria reportCriteria(LocalDate startDate, LocalDate endDate,
+                                    Collection<String> employeeIds, String status) {
+        Criteria criteria = Criteria.where("date").gte(startDate).lte(endDate);
+        if (employeeIds != null) {
+            criteria.and("employeeId").in(employeeIds);
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        return criteria;
+    }
+
+    private List<AttendanceSummary> summarize(Criteria criteria) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(criteria),
+                group("employeeId")
+                        .sum(ConditionalOperators.when(Criteria.where("status").is("PRESENT")).then(1).otherwise(0))
+                        .as("presentDays")
+                        .sum("overtimeHours").as("overtimeHours")
+                        .sum("hoursWorked").as("hoursWorked")
+                        .sum("breakHours").as("breakHours"),
+                project("presentDays", "overtimeHours", "hoursWorked", "breakHours")
+                        .and("employeeId").previousOperation()
+        );
+
+        return mongoTemplate.aggregate(aggregation, Attendance.class, AttendanceSummary.class)
+                .getMappedResults();
+    }
+}
@@ -1,6 +1,7 @@
 package com.ems.payroll_service.repositories;
 
 import com.ems.payroll_service.models.Employee;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -8,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends MongoRepository<Employee, String>, EmployeeRepositoryCustom {
 
     Optional<Employee> findByEmployeeId(String employeeId);
     Optional<Employee> findByEmail(String email);
@@ -26,6 +27,22 @@ public interface EmployeeRepository extends MongoRepository<Employee, String> {
     @Query("{'employmentType': ?0}")
     List<Employee> findByEmploymentType(String employmentType);
 
+    // Keyset iteration in employeeId order, used by chunked payroll runs
+    List<Employee> findByStatusAndEmployeeIdGreaterThanOrderByEmployeeIdAsc(String status, String employeeId,
+                                                                         Pageable pageable);
+
+    // Only the fields payroll calculation reads
+    @Query(value = "{'status': ?0}",
+            fields = "{'employeeId': 1, 'department': 1, 'employmentType': 1, 'salaryGrade': 1, 'baseSalary': 1, 'allowances': 1}")
+    List<Employee> findPayrollInputsByStatus(String status);
+
+    @Query(value = "{}", fields = "{'employeeId': 1, 'fullName': 1, 'department': 1, 'status': 1, 'employmentType': 1, 'salaryGrade': 1}")
+    List<Employee> findDirectoryEntries();
+
+    // Only the fields the end-of-day close needs to mark missing attendance
+    @Query(value = "{'status': ?0}", fields = "{'employeeId': 1, 'fullName': 1, 'department': 1, 'joinDate': 1}")
+    List<Employee> findAttendanceRosterByStatus(String status);
+
     long countByStatus(String status);
     long countByDepartment(String department);
 }
@@ -0,0 +1,18 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Employee;
+import java.util.Optional;
+
+public interface EmployeeRepositoryCustom {
+
+    // $inc of -days, only while the balance covers it and the leave was not deducted yet; empty otherwise
+    Optional<Employee> deductLeaveBalance(String employeeId, String balanceField, int days, String leaveId);
+
+    // Gives the days back, only while the leave is still recorded as deducted; empty otherwise
+    Optional<Employee> restoreLeaveBalance(String employeeId, String balanceField, int days, String leaveId);
+
+    boolean isLeaveDeducted(String employeeId, String leaveId);
+
+    // Records a deduction made without tracking; no-op when the leave is already recorded
+    void markLeaveDeducted(String employeeId, String leaveId);
+}
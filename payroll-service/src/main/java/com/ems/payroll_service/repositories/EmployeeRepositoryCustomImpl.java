@@ -0,0 +1,60 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Employee> deductLeaveBalance(String employeeId, String balanceField, int days, String leaveId) {
+        Query query = new Query(Criteria.where("employeeId").is(employeeId)
+                .and(balanceField).gte(days)
+                .and("deductedLeaveIds").ne(leaveId));
+        Update update = new Update()
+                .inc(balanceField, -days)
+                .push("deductedLeaveIds", leaveId);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(balance(query, balanceField), update,
+                FindAndModifyOptions.options().returnNew(true), Employee.class));
+    }
+
+    @Override
+    public Optional<Employee> restoreLeaveBalance(String employeeId, String balanceField, int days, String leaveId) {
+        Query query = new Query(Criteria.where("employeeId").is(employeeId)
+                .and("deductedLeaveIds").is(leaveId));
+        Update update = new Update()
+                .inc(balanceField, days)
+                .pull("deductedLeaveIds", leaveId);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(balance(query, balanceField), update,
+                FindAndModifyOptions.options().returnNew(true), Employee.class));
+    }
+
+    @Override
+    public boolean isLeaveDeducted(String employeeId, String leaveId) {
+        return mongoTemplate.exists(new Query(Criteria.where("employeeId").is(employeeId)
+                .and("deductedLeaveIds").is(leaveId)), Employee.class);
+    }
+
+    @Override
+    public void markLeaveDeducted(String employeeId, String leaveId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("employeeId").is(employeeId)),
+                new Update().addToSet("deductedLeaveIds", leaveId), Employee.class);
+    }
+
+    // Only the changed balance comes back, not the whole employee document
+    private Query balance(Query query, String balanceField) {
+        query.fields().include("employeeId").include(balanceField);
+        return query;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Holiday;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HolidayRepository extends MongoRepository<Holiday, String> {
+
+    @Query("{'calendar': {$in: ?0}, 'date': {$gte: ?1, $lte: ?2}}")
+    List<Holiday> findByCalendarInAndDateBetween(Collection<String> calendars, LocalDate startDate, LocalDate endDate);
+
+    List<Holiday> findByCalendarOrderByDateAsc(String calendar);
+
+    Optional<Holiday> findFirstByOrderByUpdatedAtDesc();
+}
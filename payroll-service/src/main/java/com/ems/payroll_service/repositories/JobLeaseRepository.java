@@ -0,0 +1,9 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.JobLease;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface JobLeaseRepository extends MongoRepository<JobLease, String>, JobLeaseRepositoryCustom {
+}
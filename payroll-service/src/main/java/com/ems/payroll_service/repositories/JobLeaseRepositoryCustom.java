@@ -0,0 +1,12 @@
+package com.ems.payroll_service.repositories;
+
+import java.time.Duration;
+
+public interface JobLeaseRepositoryCustom {
+
+    // Takes or renews the lease when it is free, expired or already held by this owner
+    boolean acquire(String name, String owner, Duration duration);
+
+    // Expires the lease now if this owner still holds it
+    void release(String name, String owner);
+}
@@ -0,0 +1,44 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.JobLease;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@RequiredArgsConstructor
+public class JobLeaseRepositoryCustomImpl implements JobLeaseRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean acquire(String name, String owner, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = new Query(Criteria.where("_id").is(name).orOperator(
+                Criteria.where("expiresAt").lt(now),
+                Criteria.where("owner").is(owner)));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expiresAt", now.plus(duration));
+
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), JobLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            // Held by another owner: the filter missed, and the upsert collided with the existing lease
+            return false;
+        }
+    }
+
+    @Override
+    public void release(String name, String owner) {
+        Query query = new Query(Criteria.where("_id").is(name).and("owner").is(owner));
+        mongoTemplate.updateFirst(query, new Update().set("expiresAt", LocalDateTime.now()), JobLease.class);
+    }
+}
@@ -5,10 +5,11 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface LeaveRepository extends MongoRepository<Leave, String> {
+public interface LeaveRepository extends MongoRepository<Leave, String>, LeaveRepositoryCustom {
 
     List<Leave> findByEmployeeId(String employeeId);
     List<Leave> findByStatus(String status);
@@ -27,13 +28,26 @@ public interface LeaveRepository extends MongoRepository<Leave, String> {
     @Query("{'employeeId': ?0, 'startDate': {$gte: ?1, $lte: ?2}}")
     List<Leave> findByEmployeeIdAndStartDateBetween(String employeeId, LocalDate startDate, LocalDate endDate);
 
-    // Check for overlapping leaves
-    @Query("{'employeeId': ?0, 'status': {$in: ['PENDING', 'APPROVED']}, " +
-           "$or': [" +
-           "{'startDate': {$lte: ?2}, 'endDate': {$gte: ?1}}" +
-           "]}")
+    // Check for overlapping leaves; leaves mid-approval or mid-cancellation still hold their dates
+    @Query("{'employeeId': ?0, 'status': {$in: ['PENDING', 'APPROVING', 'APPROVED', 'CANCELLING']}, " +
+           "'startDate': {$lte: ?2}, 'endDate': {$gte: ?1}}")
     List<Leave> findOverlappingLeaves(String employeeId, LocalDate startDate, LocalDate endDate);
 
+    // Intervals of every leave holding its dates, for the in-memory overlap index
+    @Query(value = "{'status': {$in: ['PENDING', 'APPROVING', 'APPROVED', 'CANCELLING']}}",
+           fields = "{'employeeId': 1, 'startDate': 1, 'endDate': 1, 'status': 1}")
+    List<Leave> findOpenIntervals();
+
+    @Query(value = "{'employeeId': ?0, 'status': {$in: ['PENDING', 'APPROVING', 'APPROVED', 'CANCELLING']}}",
+           fields = "{'employeeId': 1, 'startDate': 1, 'endDate': 1, 'status': 1}")
+    List<Leave> findOpenIntervalsByEmployeeId(String employeeId);
+
+    // Approvals or cancellations whose balance step was interrupted
+    List<Leave> findByStatusInAndTransitionStartedAtBefore(List<String> statuses, LocalDateTime startedBefore);
+
+    @Query("{'status': 'APPROVED', 'startDate': {$lte: ?0}, 'endDate': {$gte: ?0}}")
+    List<Leave> findApprovedCoveringDate(LocalDate date);
+
     // Count queries for leave balance calculations
     @Query(value = "{'employeeId': ?0, 'leaveType': ?1, 'status': 'APPROVED', " +
                   "'startDate': {$gte: ?2, $lte: ?3}}",
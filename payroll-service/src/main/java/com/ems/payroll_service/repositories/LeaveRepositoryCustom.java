@@ -0,0 +1,34 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Leave;
+import java.util.Optional;
+
+// Status changes conditional on the current status; empty when the leave was not in it
+public interface LeaveRepositoryCustom {
+
+    // PENDING to APPROVING, before the balance is deducted
+    Optional<Leave> startApproval(String leaveId, String approvedBy);
+
+    // APPROVING to APPROVED, once the balance is deducted
+    Optional<Leave> completeApproval(String leaveId);
+
+    // APPROVING back to PENDING, when the balance does not cover the leave
+    Optional<Leave> abortApproval(String leaveId);
+
+    // APPROVED to CANCELLING, before the balance is restored
+    Optional<Leave> startCancellation(String leaveId);
+
+    // CANCELLING to CANCELLED, once the balance is restored
+    Optional<Leave> completeCancellation(String leaveId);
+
+    // PENDING to REJECTED
+    Optional<Leave> reject(String leaveId, String rejectedBy, String rejectionReason);
+
+    // Straight to CANCELLED from a status that holds no balance
+    Optional<Leave> cancel(String leaveId, String fromStatus);
+
+    // Saves an edited leave only while it still has the status it was read with
+    Optional<Leave> replace(Leave leave, String expectedStatus);
+
+    boolean delete(String leaveId, String expectedStatus);
+}
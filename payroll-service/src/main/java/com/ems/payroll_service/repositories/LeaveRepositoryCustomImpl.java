@@ -0,0 +1,91 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Leave;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class LeaveRepositoryCustomImpl implements LeaveRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Leave> startApproval(String leaveId, String approvedBy) {
+        return transition(leaveId, "PENDING", new Update()
+                .set("status", "APPROVING")
+                .set("approvedBy", approvedBy)
+                .set("transitionStartedAt", LocalDateTime.now()));
+    }
+
+    @Override
+    public Optional<Leave> completeApproval(String leaveId) {
+        return transition(leaveId, "APPROVING", new Update()
+                .set("status", "APPROVED")
+                .set("approvedAt", LocalDateTime.now())
+                .unset("transitionStartedAt"));
+    }
+
+    @Override
+    public Optional<Leave> abortApproval(String leaveId) {
+        return transition(leaveId, "APPROVING", new Update()
+                .set("status", "PENDING")
+                .unset("approvedBy")
+                .unset("transitionStartedAt"));
+    }
+
+    @Override
+    public Optional<Leave> startCancellation(String leaveId) {
+        return transition(leaveId, "APPROVED", new Update()
+                .set("status", "CANCELLING")
+                .set("transitionStartedAt", LocalDateTime.now()));
+    }
+
+    @Override
+    public Optional<Leave> completeCancellation(String leaveId) {
+        return transition(leaveId, "CANCELLING", new Update()
+                .set("status", "CANCELLED")
+                .unset("transitionStartedAt"));
+    }
+
+    @Override
+    public Optional<Leave> reject(String leaveId, String rejectedBy, String rejectionReason) {
+        return transition(leaveId, "PENDING", new Update()
+                .set("status", "REJECTED")
+                .set("approvedBy", rejectedBy)
+                .set("approvedAt", LocalDateTime.now())
+                .set("rejectionReason", rejectionReason));
+    }
+
+    @Override
+    public Optional<Leave> cancel(String leaveId, String fromStatus) {
+        return transition(leaveId, fromStatus, new Update().set("status", "CANCELLED"));
+    }
+
+    @Override
+    public Optional<Leave> replace(Leave leave, String expectedStatus) {
+        return Optional.ofNullable(mongoTemplate.findAndReplace(current(leave.getId(), expectedStatus), leave,
+                FindAndReplaceOptions.options().returnNew()));
+    }
+
+    @Override
+    public boolean delete(String leaveId, String expectedStatus) {
+        return mongoTemplate.remove(current(leaveId, expectedStatus), Leave.class).getDeletedCount() == 1;
+    }
+
+    private Optional<Leave> transition(String leaveId, String fromStatus, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(current(leaveId, fromStatus), update,
+                FindAndModifyOptions.options().returnNew(true), Leave.class));
+    }
+
+    private Query current(String leaveId, String status) {
+        return new Query(Criteria.where("_id").is(leaveId).and("status").is(status));
+    }
+}
@@ -0,0 +1,9 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.LeaveVersion;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LeaveVersionRepository extends MongoRepository<LeaveVersion, String>, LeaveVersionRepositoryCustom {
+}
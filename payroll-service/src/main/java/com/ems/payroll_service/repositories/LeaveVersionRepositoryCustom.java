@@ -0,0 +1,7 @@
+package com.ems.payroll_service.repositories;
+
+public interface LeaveVersionRepositoryCustom {
+
+    // Upserting $inc; returns the employee's new version
+    long increment(String employeeId);
+}
@@ -0,0 +1,22 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.LeaveVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+@RequiredArgsConstructor
+public class LeaveVersionRepositoryCustomImpl implements LeaveVersionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public long increment(String employeeId) {
+        Query query = new Query(Criteria.where("_id").is(employeeId));
+        return mongoTemplate.findAndModify(query, new Update().inc("version", 1L),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), LeaveVersion.class).getVersion();
+    }
+}
@@ -0,0 +1,10 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollPeriodSummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PayrollPeriodSummaryRepository extends MongoRepository<PayrollPeriodSummary, String>,
+        PayrollPeriodSummaryRepositoryCustom {
+}
@@ -0,0 +1,15 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollPeriodSummary;
+import java.math.BigDecimal;
+import java.util.Map;
+
+public interface PayrollPeriodSummaryRepositoryCustom {
+
+    // Upserts the period document with $inc; zero deltas are left out of the update
+    void increment(String payPeriod, long payrollCount, BigDecimal totalEarnings, BigDecimal totalDeductions,
+                   BigDecimal totalNetPay, Map<String, Long> statusDeltas);
+
+    // Recomputes the summary from the payrolls collection without saving it
+    PayrollPeriodSummary aggregateFromPayrolls(String payPeriod);
+}
@@ -0,0 +1,105 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Payroll;
+import com.ems.payroll_service.models.PayrollPeriodSummary;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+
+@RequiredArgsConstructor
+public class PayrollPeriodSummaryRepositoryCustomImpl implements PayrollPeriodSummaryRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(String payPeriod, long payrollCount, BigDecimal totalEarnings,
+                          BigDecimal totalDeductions, BigDecimal totalNetPay, Map<String, Long> statusDeltas) {
+        Update update = new Update();
+        boolean changed = false;
+
+        if (payrollCount != 0) {
+            update.inc("payrollCount", payrollCount);
+            changed = true;
+        }
+        changed |= incrementAmount(update, "totalEarnings", totalEarnings);
+        changed |= incrementAmount(update, "totalDeductions", totalDeductions);
+        changed |= incrementAmount(update, "totalNetPay", totalNetPay);
+        for (Map.Entry<String, Long> delta : statusDeltas.entrySet()) {
+            if (delta.getKey() != null && delta.getValue() != 0) {
+                update.inc("statusCounts." + delta.getKey(), delta.getValue());
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        update.set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(payPeriod)), update, PayrollPeriodSummary.class);
+    }
+
+    @Override
+    public PayrollPeriodSummary aggregateFromPayrolls(String payPeriod) {
+        // Payroll amounts may be stored as strings, $toDecimal normalises them before summing
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(Criteria.where("payPeriod").is(payPeriod)),
+                group("status")
+                        .count().as("payrollCount")
+                        .sum(ConvertOperators.valueOf("totalEarnings").convertToDecimal()).as("totalEarnings")
+                        .sum(ConvertOperators.valueOf("totalDeductions").convertToDecimal()).as("totalDeductions")
+                        .sum(ConvertOperators.valueOf("netPay").convertToDecimal()).as("totalNetPay")
+        );
+
+        List<StatusTotals> rows = mongoTemplate.aggregate(aggregation, Payroll.class, StatusTotals.class)
+                .getMappedResults();
+
+        PayrollPeriodSummary summary = new PayrollPeriodSummary();
+        summary.setPayPeriod(payPeriod);
+        for (StatusTotals row : rows) {
+            summary.setPayrollCount(summary.getPayrollCount() + row.getPayrollCount());
+            summary.setTotalEarnings(summary.getTotalEarnings().add(nullToZero(row.getTotalEarnings())));
+            summary.setTotalDeductions(summary.getTotalDeductions().add(nullToZero(row.getTotalDeductions())));
+            summary.setTotalNetPay(summary.getTotalNetPay().add(nullToZero(row.getTotalNetPay())));
+            if (row.getId() != null) {
+                summary.getStatusCounts().put(row.getId(), row.getPayrollCount());
+            }
+        }
+        return summary;
+    }
+
+    private boolean incrementAmount(Update update, String field, BigDecimal amount) {
+        if (amount == null || amount.signum() == 0) {
+            return false;
+        }
+        update.inc(field, new Decimal128(amount));
+        return true;
+    }
+
+    private BigDecimal nullToZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    @Data
+    public static class StatusTotals {
+        private String id; // status
+        private long payrollCount;
+        private BigDecimal totalEarnings;
+        private BigDecimal totalDeductions;
+        private BigDecimal totalNetPay;
+    }
+}
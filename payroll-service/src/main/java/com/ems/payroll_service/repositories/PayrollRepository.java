@@ -5,11 +5,12 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PayrollRepository extends MongoRepository<Payroll, String> {
+public interface PayrollRepository extends MongoRepository<Payroll, String>, PayrollRepositoryCustom {
 
     List<Payroll> findByEmployeeId(String employeeId);
     List<Payroll> findByPayPeriod(String payPeriod);
@@ -31,4 +32,10 @@ public interface PayrollRepository extends MongoRepository<Payroll, String> {
     // Aggregation queries for reports
     @Query(value = "{'payPeriod': ?0}", fields = "{'totalEarnings': 1, 'totalDeductions': 1, 'netPay': 1}")
     List<Payroll> findPayrollSummaryByPeriod(String payPeriod);
+
+    @Query(value = "{'payPeriod': ?0}", fields = "{'employeeId': 1}")
+    List<Payroll> findEmployeeIdsByPayPeriod(String payPeriod);
+
+    @Query(value = "{'payPeriod': ?0, 'employeeId': {$in: ?1}}", fields = "{'employeeId': 1}")
+    List<Payroll> findEmployeeIdsByPayPeriodAndEmployeeIdIn(String payPeriod, Collection<String> employeeIds);
 }
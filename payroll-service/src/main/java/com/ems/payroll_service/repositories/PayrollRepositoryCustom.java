@@ -0,0 +1,38 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Payroll;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
+import org.springframework.data.mongodb.core.query.Update;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface PayrollRepositoryCustom {
+
+    // Unmapped field tagging the payrolls a batch transition moved, unique per call
+    String TRANSITION_BATCH_ID = "transitionBatchId";
+
+    // Keyset page in (payPeriod, employeeId, _id) order strictly after the given key; null key for the first page
+    List<Payroll> findPage(String employeeId, String payPeriod, String afterPayPeriod, String afterEmployeeId,
+                           String afterId, int limit);
+
+    // Unordered bulk insert: every document is attempted, rejected ones are returned by index
+    List<BulkWriteError> insertUnordered(List<Payroll> payrolls);
+
+    // Saves an edited payroll only while it still has the status it was read with
+    Optional<Payroll> replace(Payroll payroll, String expectedStatus);
+
+    // Conditional updateMulti: only payrolls currently in fromStatus are touched
+    UpdateResult transitionStatus(String payPeriod, Collection<String> ids, String fromStatus, Update update);
+
+    // One unordered bulk write with a conditional updateOne per id
+    UpdateResult transitionStatusEach(Map<String, Update> updatesById, String fromStatus);
+
+    // Payrolls moved by the batch transition that set this token
+    List<Payroll> findTransitioned(String payPeriod, Collection<String> ids, String batchId);
+
+    // $unset of the token once the batch has read its payrolls back
+    void clearTransitionBatch(Collection<String> ids, String batchId);
+}
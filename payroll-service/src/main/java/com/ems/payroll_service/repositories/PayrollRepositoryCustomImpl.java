@@ -0,0 +1,139 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Payroll;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PayrollRepositoryCustomImpl implements PayrollRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Payroll> findPage(String employeeId, String payPeriod, String afterPayPeriod, String afterEmployeeId,
+                                  String afterId, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (employeeId != null) {
+            filters.add(Criteria.where("employeeId").is(employeeId));
+        }
+        if (payPeriod != null) {
+            filters.add(Criteria.where("payPeriod").is(payPeriod));
+        }
+        if (afterPayPeriod != null) {
+            // Seek past the last key instead of skipping, so every page is one index range scan
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("payPeriod").gt(afterPayPeriod),
+                    Criteria.where("payPeriod").is(afterPayPeriod).and("employeeId").gt(afterEmployeeId),
+                    Criteria.where("payPeriod").is(afterPayPeriod).and("employeeId").is(afterEmployeeId)
+                            .and("_id").gt(afterId)));
+        }
+
+        Query query = new Query(filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters))
+                .with(Sort.by("payPeriod", "employeeId", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Payroll.class);
+    }
+
+    @Override
+    public List<BulkWriteError> insertUnordered(List<Payroll> payrolls) {
+        if (payrolls.isEmpty()) {
+            return List.of();
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payroll.class)
+                    .insert(payrolls)
+                    .execute();
+            return List.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors();
+        } catch (DataAccessException e) {
+            // Depending on the translator a duplicate key surfaces as DuplicateKeyException wrapping the bulk error
+            if (e.getCause() instanceof MongoBulkWriteException bulkException
+                    && bulkException.getWriteConcernError() == null) {
+                return bulkException.getWriteErrors();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Payroll> replace(Payroll payroll, String expectedStatus) {
+        Query query = new Query(Criteria.where("_id").is(payroll.getId()).and("status").is(expectedStatus));
+        return Optional.ofNullable(mongoTemplate.findAndReplace(query, payroll,
+                FindAndReplaceOptions.options().returnNew()));
+    }
+
+    @Override
+    public UpdateResult transitionStatus(String payPeriod, Collection<String> ids, String fromStatus, Update update) {
+        return mongoTemplate.updateMulti(new Query(selection(fromStatus, payPeriod, ids)), update, Payroll.class);
+    }
+
+    @Override
+    public UpdateResult transitionStatusEach(Map<String, Update> updatesById, String fromStatus) {
+        if (updatesById.isEmpty()) {
+            return UpdateResult.acknowledged(0, 0L, null);
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payroll.class);
+        updatesById.forEach((id, update) ->
+                bulk.updateOne(new Query(Criteria.where("_id").is(id).and("status").is(fromStatus)), update));
+
+        BulkWriteResult result = bulk.execute();
+        return UpdateResult.acknowledged(result.getMatchedCount(), (long) result.getModifiedCount(), null);
+    }
+
+    @Override
+    public List<Payroll> findTransitioned(String payPeriod, Collection<String> ids, String batchId) {
+        // No status filter: a single update landing after the batch does not hide the batch's own move
+        Criteria criteria = Criteria.where(TRANSITION_BATCH_ID).is(batchId);
+        if (payPeriod != null) {
+            criteria = criteria.and("payPeriod").is(payPeriod);
+        }
+        if (ids != null && !ids.isEmpty()) {
+            criteria = criteria.and("_id").in(ids);
+        }
+        Query query = new Query(criteria);
+        query.fields().include("employeeId", "payPeriod", "status", "totalEarnings", "totalDeductions", "netPay",
+                "taxDeduction", "providentFund");
+        return mongoTemplate.find(query, Payroll.class);
+    }
+
+    @Override
+    public void clearTransitionBatch(Collection<String> ids, String batchId) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids).and(TRANSITION_BATCH_ID).is(batchId)),
+                new Update().unset(TRANSITION_BATCH_ID), Payroll.class);
+    }
+
+    private Criteria selection(String status, String payPeriod, Collection<String> ids) {
+        Criteria criteria = Criteria.where("status").is(status);
+        if (payPeriod != null) {
+            criteria = criteria.and("payPeriod").is(payPeriod);
+        }
+        if (ids != null && !ids.isEmpty()) {
+            criteria = criteria.and("_id").in(ids);
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollRuleSet;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PayrollRuleSetRepository extends MongoRepository<PayrollRuleSet, String> {
+
+    Optional<PayrollRuleSet> findByVersion(Long version);
+    Optional<PayrollRuleSet> findFirstByActiveTrueOrderByVersionDesc();
+    Optional<PayrollRuleSet> findFirstByOrderByVersionDesc();
+    List<PayrollRuleSet> findByActiveTrue();
+    List<PayrollRuleSet> findAllByOrderByVersionDesc();
+}
@@ -0,0 +1,20 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollRun;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PayrollRunRepository extends MongoRepository<PayrollRun, String>, PayrollRunRepositoryCustom {
+
+    List<PayrollRun> findByPayPeriod(String payPeriod);
+    List<PayrollRun> findByStatus(String status);
+
+    // RUNNING runs whose worker stopped sending heartbeats
+    List<PayrollRun> findByStatusAndHeartbeatAtBefore(String status, LocalDateTime heartbeatBefore);
+
+    // PENDING runs whose queued task was lost with its instance
+    List<PayrollRun> findByStatusAndUpdatedAtBefore(String status, LocalDateTime updatedBefore);
+}
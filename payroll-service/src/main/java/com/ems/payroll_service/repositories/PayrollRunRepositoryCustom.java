@@ -0,0 +1,21 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollRun;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface PayrollRunRepositoryCustom {
+
+    // Takes a PENDING run for this worker, or a RUNNING one whose lease went stale
+    Optional<PayrollRun> claim(String runId, String workerId, LocalDateTime staleBefore);
+
+    // Writes progress only while this worker still owns a RUNNING run; false means cancelled or lost
+    boolean checkpoint(PayrollRun run);
+
+    boolean finish(PayrollRun run, String status);
+
+    boolean cancel(String runId);
+
+    // FAILED or CANCELLED back to PENDING, keeping the checkpoint, so the run can be claimed again
+    boolean reset(String runId);
+}
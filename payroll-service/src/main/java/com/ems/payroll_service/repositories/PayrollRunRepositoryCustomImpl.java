@@ -0,0 +1,103 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollRun;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class PayrollRunRepositoryCustomImpl implements PayrollRunRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<PayrollRun> claim(String runId, String workerId, LocalDateTime staleBefore) {
+        Query query = new Query(Criteria.where("_id").is(runId).orOperator(
+                Criteria.where("status").is("PENDING"),
+                Criteria.where("status").is("RUNNING").and("heartbeatAt").lt(staleBefore)));
+
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", "RUNNING")
+                .set("workerId", workerId)
+                .set("heartbeatAt", now)
+                .set("updatedAt", now)
+                .unset("errorMessage")
+                .unset("completedAt");
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), PayrollRun.class));
+    }
+
+    @Override
+    public boolean checkpoint(PayrollRun run) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = progress(run)
+                .set("heartbeatAt", now)
+                .set("updatedAt", now);
+
+        return mongoTemplate.updateFirst(ownedBy(run), update, PayrollRun.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean finish(PayrollRun run, String status) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = progress(run)
+                .set("status", status)
+                .set("errorMessage", run.getErrorMessage())
+                .set("updatedAt", now)
+                .set("completedAt", now);
+
+        return mongoTemplate.updateFirst(ownedBy(run), update, PayrollRun.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean cancel(String runId) {
+        Query query = new Query(Criteria.where("_id").is(runId).and("status").in(List.of("PENDING", "RUNNING")));
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", "CANCELLED")
+                .set("updatedAt", now)
+                .set("completedAt", now);
+
+        return mongoTemplate.updateFirst(query, update, PayrollRun.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public boolean reset(String runId) {
+        Query query = new Query(Criteria.where("_id").is(runId).and("status").in(List.of("FAILED", "CANCELLED")));
+        Update update = new Update()
+                .set("status", "PENDING")
+                .set("updatedAt", LocalDateTime.now())
+                .unset("errorMessage")
+                .unset("completedAt");
+
+        return mongoTemplate.updateFirst(query, update, PayrollRun.class).getMatchedCount() == 1;
+    }
+
+    private Query ownedBy(PayrollRun run) {
+        return new Query(Criteria.where("_id").is(run.getId())
+                .and("status").is("RUNNING")
+                .and("workerId").is(run.getWorkerId()));
+    }
+
+    private Update progress(PayrollRun run) {
+        return new Update()
+                .set("totalEmployees", run.getTotalEmployees())
+                .set("processedEmployees", run.getProcessedEmployees())
+                .set("generatedCount", run.getGeneratedCount())
+                .set("skippedCount", run.getSkippedCount())
+                .set("failedCount", run.getFailedCount())
+                .set("failures", run.getFailures())
+                .set("lastEmployeeId", run.getLastEmployeeId())
+                .set("elapsedMillis", run.getElapsedMillis())
+                .set("employeesPerSecond", run.getEmployeesPerSecond());
+    }
+}
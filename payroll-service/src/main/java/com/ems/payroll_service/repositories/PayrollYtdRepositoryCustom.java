@@ -0,0 +1,13 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.PayrollYtd;
+import java.util.Collection;
+
+public interface PayrollYtdRepositoryCustom {
+
+    // Each element carries deltas for one accumulator; applied as one unordered bulk of upserting $inc
+    void increment(Collection<PayrollYtd> deltas);
+
+    // Replaces the whole collection from approved and paid payrolls in one aggregation ($out)
+    void rebuildFromPayrolls(int fiscalYearStartMonth);
+}
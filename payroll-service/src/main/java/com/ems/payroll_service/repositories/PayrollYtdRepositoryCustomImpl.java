@@ -0,0 +1,97 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.Payroll;
+import com.ems.payroll_service.models.PayrollYtd;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+
+@RequiredArgsConstructor
+public class PayrollYtdRepositoryCustomImpl implements PayrollYtdRepositoryCustom {
+
+    private static final List<String> AMOUNT_FIELDS =
+            List.of("totalEarnings", "taxDeduction", "providentFund", "totalDeductions", "netPay");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(Collection<PayrollYtd> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PayrollYtd.class);
+        for (PayrollYtd delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("employeeId", delta.getEmployeeId())
+                    .setOnInsert("fiscalYear", delta.getFiscalYear())
+                    .inc("payrollCount", delta.getPayrollCount())
+                    .inc("totalEarnings", decimal(delta.getTotalEarnings()))
+                    .inc("taxDeduction", decimal(delta.getTaxDeduction()))
+                    .inc("providentFund", decimal(delta.getProvidentFund()))
+                    .inc("totalDeductions", decimal(delta.getTotalDeductions()))
+                    .inc("netPay", decimal(delta.getNetPay()))
+                    .set("updatedAt", now);
+            bulk.upsert(new Query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void rebuildFromPayrolls(int fiscalYearStartMonth) {
+        Document year = new Document("$toInt", new Document("$substrBytes", List.of("$payPeriod", 0, 4)));
+        Document month = new Document("$toInt", new Document("$substrBytes", List.of("$payPeriod", 5, 2)));
+        Document fiscalYear = new Document("$cond", List.of(
+                new Document("$gte", List.of(month, fiscalYearStartMonth)),
+                year,
+                new Document("$subtract", List.of(year, 1))));
+
+        // Amounts may be stored as strings, $toDecimal normalises them before summing
+        Document groupFields = new Document("_id", new Document("employeeId", "$employeeId")
+                .append("fiscalYear", fiscalYear))
+                .append("payrollCount", new Document("$sum", 1));
+        for (String field : AMOUNT_FIELDS) {
+            groupFields.append(field, new Document("$sum", new Document("$toDecimal",
+                    new Document("$ifNull", List.of("$" + field, 0)))));
+        }
+
+        Document projectFields = new Document("_id", new Document("$concat", List.of(
+                "$_id.employeeId", "|", new Document("$toString", "$_id.fiscalYear"))))
+                .append("employeeId", "$_id.employeeId")
+                .append("fiscalYear", "$_id.fiscalYear")
+                .append("payrollCount", 1)
+                .append("updatedAt", "$$NOW")
+                .append("rebuiltAt", "$$NOW");
+        AMOUNT_FIELDS.forEach(field -> projectFields.append(field, 1));
+
+        AggregationOperation group = context -> new Document("$group", groupFields);
+        AggregationOperation project = context -> new Document("$project", projectFields);
+
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(Criteria.where("status").in("APPROVED", "PAID")),
+                group,
+                project,
+                Aggregation.out(mongoTemplate.getCollectionName(PayrollYtd.class)));
+
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Payroll.class), Document.class);
+    }
+
+    private Decimal128 decimal(BigDecimal amount) {
+        return new Decimal128(amount != null ? amount : BigDecimal.ZERO);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ems.payroll_service.repositories;
+
+import com.ems.payroll_service.models.WorkPolicySet;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WorkPolicySetRepository extends MongoRepository<WorkPolicySet, String> {
+
+    Optional<WorkPolicySet> findByVersion(Long version);
+    Optional<WorkPolicySet> findFirstByActiveTrueOrderByVersionDesc();
+    Optional<WorkPolicySet> findFirstByOrderByVersionDesc();
+    List<WorkPolicySet> findByActiveTrue();
+    List<WorkPolicySet> findAllByOrderByVersionDesc();
+}
@@ -0,0 +1,198 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.ems.payroll_service.repositories.JobLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Moves closed attendance months out of the hot collection into the columnar archive.
+ * Hot rows are only deleted once the month file is in place and holds every row. Off unless
+ * enabled with an absolute directory on shared storage, and one instance at a time holds the lease.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceArchiveService {
+
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final String LEASE = "attendance-archive";
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceArchiveStore attendanceArchiveStore;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final JobLeaseRepository jobLeaseRepository;
+
+    private final String workerId = UUID.randomUUID().toString();
+
+    // Archiving deletes hot rows, so it only runs when switched on with a shared directory
+    @Value("${attendance.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${attendance.archive.directory:}")
+    private String directory;
+
+    // Held for one month at a time and renewed before the next
+    @Value("${attendance.archive.lease-minutes:30}")
+    private long leaseMinutes;
+
+    // Months still open for corrections are kept hot: the current month plus this many closed ones
+    @Value("${attendance.archive.retain-closed-periods:2}")
+    private int retainClosedPeriods;
+
+    @Scheduled(cron = "${attendance.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("Error archiving attendance: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> archive() {
+        checkArchivable();
+        acquireLease();
+        try {
+            return archiveClosedMonths();
+        } finally {
+            jobLeaseRepository.release(LEASE, workerId);
+        }
+    }
+
+    public Map<String, Object> archiveMonth(YearMonth month) {
+        checkArchivable();
+        acquireLease();
+        try {
+            return archiveLeasedMonth(month);
+        } finally {
+            jobLeaseRepository.release(LEASE, workerId);
+        }
+    }
+
+    private Map<String, Object> archiveClosedMonths() {
+        YearMonth cutoff = YearMonth.now().minusMonths(retainClosedPeriods + 1L);
+        Optional<Attendance> oldest = attendanceRepository.findFirstByOrderByDateAsc();
+
+        List<Map<String, Object>> months = new ArrayList<>();
+        if (oldest.isPresent()) {
+            for (YearMonth month = YearMonth.from(oldest.get().getDate()); !month.isAfter(cutoff); month = month.plusMonths(1)) {
+                acquireLease();
+                Map<String, Object> archived = archiveLeasedMonth(month);
+                if ((long) archived.get("hotRows") > 0) {
+                    months.add(archived);
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("cutoff", cutoff);
+        result.put("months", months);
+        return result;
+    }
+
+    private Map<String, Object> archiveLeasedMonth(YearMonth month) {
+        long startedAt = System.currentTimeMillis();
+        List<Attendance> hot = attendanceRepository.findByDateBetween(month.atDay(1), month.atEndOfMonth());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("month", month);
+        result.put("hotRows", (long) hot.size());
+        if (hot.isEmpty()) {
+            return result;
+        }
+
+        // Late writes into an already archived month replace the archived row with the same key
+        Map<String, Attendance> rows = new LinkedHashMap<>();
+        boolean existing = attendanceArchiveStore.archivedMonths().contains(month);
+        if (existing) {
+            attendanceArchiveStore.find(month, month.atDay(1), month.atEndOfMonth(), null, null)
+                    .forEach(row -> rows.put(key(row), row));
+        }
+        hot.forEach(row -> rows.put(key(row), row));
+
+        attendanceArchiveStore.write(month, new ArrayList<>(rows.values()));
+        int archivedRows = attendanceArchiveStore.open(month).getRowCount();
+        if (archivedRows != rows.size()) {
+            throw new RuntimeException("Attendance archive for " + month + " holds " + archivedRows
+                    + " rows, expected " + rows.size());
+        }
+
+        // Still the only archiver before anything is deleted
+        acquireLease();
+        List<String> ids = hot.stream().map(Attendance::getId).collect(Collectors.toList());
+        for (int i = 0; i < ids.size(); i += DELETE_CHUNK_SIZE) {
+            attendanceRepository.deleteAllById(ids.subList(i, Math.min(i + DELETE_CHUNK_SIZE, ids.size())));
+        }
+
+        // Rollups already count a first archival; a merge may have replaced archived rows they also counted
+        if (existing) {
+            Set<String> employeeIds = hot.stream().map(Attendance::getEmployeeId).collect(Collectors.toSet());
+            attendanceMonthlyService.rebuild(employeeIds, month.atDay(1), month.atEndOfMonth());
+        }
+
+        result.put("archivedRows", (long) archivedRows);
+        result.put("bytes", attendanceArchiveStore.size(month));
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        log.info("Attendance month archived: {}", result);
+        return result;
+    }
+
+    public List<Map<String, Object>> listArchive() {
+        return attendanceArchiveStore.archivedMonths()
+                .stream()
+                .map(month -> {
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("month", month);
+                    entry.put("rows", (long) attendanceArchiveStore.open(month).getRowCount());
+                    entry.put("bytes", attendanceArchiveStore.size(month));
+                    return entry;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Every instance reads the month files, so they must live on one shared, durable directory
+    private void checkArchivable() {
+        if (!enabled) {
+            throw new RuntimeException("Attendance archiving is disabled, set attendance.archive.enabled=true");
+        }
+        Path root = directory.isBlank() ? null : Paths.get(directory);
+        if (root == null || !root.isAbsolute()) {
+            throw new RuntimeException("Attendance archive directory must be an absolute path on shared storage: '"
+                    + directory + "'");
+        }
+        if (!Files.isDirectory(root) || !Files.isWritable(root)) {
+            throw new RuntimeException("Attendance archive directory does not exist or is not writable: " + root);
+        }
+    }
+
+    private void acquireLease() {
+        if (!jobLeaseRepository.acquire(LEASE, workerId, Duration.ofMinutes(leaseMinutes))) {
+            throw new RuntimeException("Attendance archive is running on another instance");
+        }
+    }
+
+    private String key(Attendance attendance) {
+        return attendance.getEmployeeId() + "|" + attendance.getDate();
+    }
+}
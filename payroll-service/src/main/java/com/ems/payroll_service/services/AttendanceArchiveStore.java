@@ -0,0 +1,498 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Attendance;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * One immutable file per archived month, laid out column by column with fixed-width
+ * primitives so reads are plain offset arithmetic over a memory-mapped buffer. Every field of
+ * {@link Attendance} round-trips exactly, times at the millisecond precision Mongo stores.
+ *
+ * Layout (big-endian): header, employee, status and text dictionaries, then the columns id
+ * (12 bytes, ObjectId), employee (int, dictionary index), day (byte), status (byte, -1 for
+ * none), hoursWorked, overtimeHours and breakHours (double, NaN for none), checkIn, checkOut,
+ * breakStart, breakEnd and approvedAt (long, epoch millis read as UTC, Long.MIN_VALUE for none),
+ * employeeName, remarks, checkInLocation, checkOutLocation and approvedBy (int, text dictionary
+ * index, -1 for none) and isApproved (byte, -1 for none). Rows are sorted by day, then employeeId.
+ */
+@Component
+@Slf4j
+public class AttendanceArchiveStore {
+
+    private static final int MAGIC = 0x454D5341; // "EMSA"
+    private static final int VERSION = 2;
+    private static final String FILE_PREFIX = "attendance-";
+    private static final String FILE_SUFFIX = ".col";
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int TEXT_COLUMNS = 5;
+
+    private static final Comparator<Attendance> ROW_ORDER = Comparator
+            .comparing(Attendance::getDate)
+            .thenComparing(Attendance::getEmployeeId);
+
+    private final Map<YearMonth, ArchivedMonth> openMonths = new ConcurrentHashMap<>();
+
+    // Absolute path on storage every instance shares; blank means nothing is archived
+    @Value("${attendance.archive.directory:}")
+    private String directory;
+
+    public interface RowVisitor {
+        void visit(ArchivedMonth month, int row);
+    }
+
+    private interface ColumnWriter {
+        void write(Attendance row) throws IOException;
+    }
+
+    public Set<YearMonth> archivedMonths() {
+        Set<YearMonth> months = new TreeSet<>();
+        if (directory.isBlank()) {
+            return months;
+        }
+        Path root = Paths.get(directory);
+        if (!Files.isDirectory(root)) {
+            return months;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                months.add(YearMonth.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error listing attendance archive: " + e.getMessage());
+        }
+        return months;
+    }
+
+    // Archived months overlapping the range, oldest first
+    public List<YearMonth> archivedMonths(LocalDate startDate, LocalDate endDate) {
+        YearMonth first = YearMonth.from(startDate);
+        YearMonth last = YearMonth.from(endDate);
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month : archivedMonths()) {
+            if (!month.isBefore(first) && !month.isAfter(last)) {
+                months.add(month);
+            }
+        }
+        return months;
+    }
+
+    public ArchivedMonth open(YearMonth month) {
+        return openMonths.computeIfAbsent(month, this::map);
+    }
+
+    // Rows within the range, optionally restricted to some employees and one status
+    public List<Attendance> find(YearMonth month, LocalDate startDate, LocalDate endDate,
+                                 Set<String> employeeIds, String status) {
+        List<Attendance> rows = new ArrayList<>();
+        open(month).scan(startDate, endDate, employeeIds, status, (archived, row) -> rows.add(archived.toAttendance(row)));
+        return rows;
+    }
+
+    // Written to a temporary file and moved into place, so readers never see a partial month
+    public void write(YearMonth month, List<Attendance> attendance) {
+        List<Attendance> rows = new ArrayList<>(attendance);
+        rows.sort(ROW_ORDER);
+
+        TreeSet<String> employeeSet = new TreeSet<>();
+        TreeSet<String> statusSet = new TreeSet<>();
+        TreeSet<String> textSet = new TreeSet<>();
+        for (Attendance row : rows) {
+            if (!month.equals(YearMonth.from(row.getDate()))) {
+                throw new RuntimeException("Attendance " + row.getId() + " is not in " + month);
+            }
+            if (row.getId() == null || !ObjectId.isValid(row.getId())) {
+                throw new RuntimeException("Attendance " + row.getId() + " has no ObjectId and cannot be archived");
+            }
+            employeeSet.add(row.getEmployeeId());
+            if (row.getStatus() != null) {
+                statusSet.add(row.getStatus());
+            }
+            for (String text : texts(row)) {
+                if (text != null) {
+                    textSet.add(text);
+                }
+            }
+        }
+        String[] employees = employeeSet.toArray(new String[0]);
+        String[] statuses = statusSet.toArray(new String[0]);
+        String[] texts = textSet.toArray(new String[0]);
+        if (statuses.length > Byte.MAX_VALUE) {
+            throw new RuntimeException("Too many distinct statuses in " + month);
+        }
+
+        Path target = file(month);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), FILE_PREFIX, ".tmp");
+            try {
+                try (OutputStream file = Files.newOutputStream(temp);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(month.getYear() * 100 + month.getMonthValue());
+                    out.writeInt(rows.size());
+                    writeDictionary(out, employees);
+                    writeDictionary(out, statuses);
+                    writeDictionary(out, texts);
+
+                    writeColumn(rows, row -> out.write(new ObjectId(row.getId()).toByteArray()));
+                    writeColumn(rows, row -> out.writeInt(Arrays.binarySearch(employees, row.getEmployeeId())));
+                    writeColumn(rows, row -> out.writeByte(row.getDate().getDayOfMonth()));
+                    writeColumn(rows, row -> out.writeByte(row.getStatus() != null
+                            ? Arrays.binarySearch(statuses, row.getStatus()) : -1));
+                    writeColumn(rows, row -> out.writeDouble(hours(row.getHoursWorked())));
+                    writeColumn(rows, row -> out.writeDouble(hours(row.getOvertimeHours())));
+                    writeColumn(rows, row -> out.writeDouble(hours(row.getBreakHours())));
+                    writeColumn(rows, row -> out.writeLong(millis(row.getCheckInTime())));
+                    writeColumn(rows, row -> out.writeLong(millis(row.getCheckOutTime())));
+                    writeColumn(rows, row -> out.writeLong(millis(row.getBreakStartTime())));
+                    writeColumn(rows, row -> out.writeLong(millis(row.getBreakEndTime())));
+                    writeColumn(rows, row -> out.writeLong(millis(row.getApprovedAt())));
+                    for (int column = 0; column < TEXT_COLUMNS; column++) {
+                        int index = column;
+                        writeColumn(rows, row -> {
+                            String text = texts(row)[index];
+                            out.writeInt(text != null ? Arrays.binarySearch(texts, text) : -1);
+                        });
+                    }
+                    writeColumn(rows, row -> out.writeByte(row.getIsApproved() != null
+                            ? (row.getIsApproved() ? 1 : 0) : -1));
+                }
+
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error writing attendance archive for " + month + ": " + e.getMessage());
+        }
+
+        // Existing mappings keep reading the replaced file until they are dropped here
+        openMonths.remove(month);
+        log.info("Archived {} attendance rows for {} into {}", rows.size(), month, target);
+    }
+
+    public long size(YearMonth month) {
+        try {
+            return Files.size(file(month));
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading attendance archive for " + month + ": " + e.getMessage());
+        }
+    }
+
+    private Path file(YearMonth month) {
+        return Paths.get(directory, FILE_PREFIX + month + FILE_SUFFIX);
+    }
+
+    private ArchivedMonth map(YearMonth month) {
+        try (FileChannel channel = FileChannel.open(file(month), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ArchivedMonth(month, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening attendance archive for " + month + ": " + e.getMessage());
+        }
+    }
+
+    private void writeColumn(List<Attendance> rows, ColumnWriter writer) throws IOException {
+        for (Attendance row : rows) {
+            writer.write(row);
+        }
+    }
+
+    private void writeDictionary(DataOutputStream out, String[] values) throws IOException {
+        out.writeInt(values.length);
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("value of " + bytes.length + " bytes exceeds the archive's string limit");
+            }
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    // Text columns in file order
+    private static String[] texts(Attendance row) {
+        return new String[]{row.getEmployeeName(), row.getRemarks(), row.getCheckInLocation(),
+                row.getCheckOutLocation(), row.getApprovedBy()};
+    }
+
+    private static double hours(Double hours) {
+        return hours != null ? hours : Double.NaN;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+
+    public static final class ArchivedMonth {
+
+        private final YearMonth month;
+        private final MappedByteBuffer buffer;
+        private final int rowCount;
+        private final String[] employeeIds;
+        private final String[] statuses;
+        private final String[] texts;
+
+        private final int idOffset;
+        private final int employeeOffset;
+        private final int dayOffset;
+        private final int statusOffset;
+        private final int hoursOffset;
+        private final int overtimeOffset;
+        private final int breakOffset;
+        private final int checkInOffset;
+        private final int checkOutOffset;
+        private final int breakStartOffset;
+        private final int breakEndOffset;
+        private final int approvedAtOffset;
+        private final int textOffset;
+        private final int approvedOffset;
+
+        ArchivedMonth(YearMonth month, MappedByteBuffer buffer) {
+            this.month = month;
+            this.buffer = buffer;
+
+            ByteBuffer header = buffer.duplicate();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new RuntimeException("Not an attendance archive file for " + month);
+            }
+            if (header.getInt() != month.getYear() * 100 + month.getMonthValue()) {
+                throw new RuntimeException("Attendance archive file does not hold " + month);
+            }
+            rowCount = header.getInt();
+            employeeIds = readDictionary(header);
+            statuses = readDictionary(header);
+            texts = readDictionary(header);
+
+            idOffset = header.position();
+            employeeOffset = idOffset + 12 * rowCount;
+            dayOffset = employeeOffset + 4 * rowCount;
+            statusOffset = dayOffset + rowCount;
+            hoursOffset = statusOffset + rowCount;
+            overtimeOffset = hoursOffset + 8 * rowCount;
+            breakOffset = overtimeOffset + 8 * rowCount;
+            checkInOffset = breakOffset + 8 * rowCount;
+            checkOutOffset = checkInOffset + 8 * rowCount;
+            breakStartOffset = checkOutOffset + 8 * rowCount;
+            breakEndOffset = breakStartOffset + 8 * rowCount;
+            approvedAtOffset = breakEndOffset + 8 * rowCount;
+            textOffset = approvedAtOffset + 8 * rowCount;
+            approvedOffset = textOffset + TEXT_COLUMNS * 4 * rowCount;
+            if (approvedOffset + rowCount != buffer.capacity()) {
+                throw new RuntimeException("Truncated attendance archive file for " + month);
+            }
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        // Rows are sorted by day, so the range is located by binary search and only the columns filtered on are read
+        public void scan(LocalDate startDate, LocalDate endDate, Set<String> employeeIds, String status,
+                         RowVisitor visitor) {
+            PrimitiveIterator.OfInt rows = rows(startDate, endDate, employeeIds, status);
+            while (rows.hasNext()) {
+                visitor.visit(this, rows.nextInt());
+            }
+        }
+
+        // Matching rows in (date, employeeId) order, located lazily for callers merging with another stream
+        public PrimitiveIterator.OfInt rows(LocalDate startDate, LocalDate endDate, Set<String> employeeIds,
+                                            String status) {
+            int firstDay = startDate.isAfter(month.atDay(1)) ? startDate.getDayOfMonth() : 1;
+            int lastDay = endDate.isBefore(month.atEndOfMonth()) ? endDate.getDayOfMonth() : month.lengthOfMonth();
+            int statusCode = status != null ? Arrays.binarySearch(statuses, status) : -1;
+            if (firstDay > lastDay || (status != null && statusCode < 0)) {
+                return IntStream.empty().iterator();
+            }
+
+            boolean[] employeeMatch = employeeIds != null ? new boolean[this.employeeIds.length] : null;
+            if (employeeIds != null) {
+                for (String employeeId : employeeIds) {
+                    int index = Arrays.binarySearch(this.employeeIds, employeeId);
+                    if (index >= 0) {
+                        employeeMatch[index] = true;
+                    }
+                }
+            }
+
+            return new PrimitiveIterator.OfInt() {
+                private int next = advance(firstRow(firstDay));
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int row = next;
+                    next = advance(row + 1);
+                    return row;
+                }
+
+                private int advance(int row) {
+                    for (; row < rowCount && day(row) <= lastDay; row++) {
+                        if (employeeMatch != null && !employeeMatch[buffer.getInt(employeeOffset + 4 * row)]) {
+                            continue;
+                        }
+                        if (statusCode >= 0 && buffer.get(statusOffset + row) != statusCode) {
+                            continue;
+                        }
+                        return row;
+                    }
+                    return -1;
+                }
+            };
+        }
+
+        public String employeeId(int row) {
+            return employeeIds[buffer.getInt(employeeOffset + 4 * row)];
+        }
+
+        public LocalDate date(int row) {
+            return month.atDay(day(row));
+        }
+
+        public String status(int row) {
+            byte code = buffer.get(statusOffset + row);
+            return code >= 0 ? statuses[code] : null;
+        }
+
+        public boolean hasCheckIn(int row) {
+            return buffer.getLong(checkInOffset + 8 * row) != NO_TIME;
+        }
+
+        public boolean hasCheckOut(int row) {
+            return buffer.getLong(checkOutOffset + 8 * row) != NO_TIME;
+        }
+
+        public Double hoursWorked(int row) {
+            return hours(buffer.getDouble(hoursOffset + 8 * row));
+        }
+
+        public Double overtimeHours(int row) {
+            return hours(buffer.getDouble(overtimeOffset + 8 * row));
+        }
+
+        public Double breakHours(int row) {
+            return hours(buffer.getDouble(breakOffset + 8 * row));
+        }
+
+        public Attendance toAttendance(int row) {
+            Attendance attendance = new Attendance();
+            byte[] id = new byte[12];
+            buffer.get(idOffset + 12 * row, id);
+            attendance.setId(new ObjectId(id).toHexString());
+            attendance.setEmployeeId(employeeId(row));
+            attendance.setDate(date(row));
+            attendance.setStatus(status(row));
+            attendance.setHoursWorked(hoursWorked(row));
+            attendance.setOvertimeHours(overtimeHours(row));
+            attendance.setBreakHours(breakHours(row));
+            attendance.setCheckInTime(time(checkInOffset, row));
+            attendance.setCheckOutTime(time(checkOutOffset, row));
+            attendance.setBreakStartTime(time(breakStartOffset, row));
+            attendance.setBreakEndTime(time(breakEndOffset, row));
+            attendance.setApprovedAt(time(approvedAtOffset, row));
+            attendance.setEmployeeName(text(0, row));
+            attendance.setRemarks(text(1, row));
+            attendance.setCheckInLocation(text(2, row));
+            attendance.setCheckOutLocation(text(3, row));
+            attendance.setApprovedBy(text(4, row));
+            byte approved = buffer.get(approvedOffset + row);
+            attendance.setIsApproved(approved >= 0 ? approved == 1 : null);
+            return attendance;
+        }
+
+        private LocalDateTime time(int offset, int row) {
+            long millis = buffer.getLong(offset + 8 * row);
+            return millis != NO_TIME ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+        }
+
+        private String text(int column, int row) {
+            int index = buffer.getInt(textOffset + (column * rowCount + row) * 4);
+            return index >= 0 ? texts[index] : null;
+        }
+
+        private int day(int row) {
+            return buffer.get(dayOffset + row);
+        }
+
+        private int firstRow(int day) {
+            int low = 0;
+            int high = rowCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (day(mid) < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static Double hours(double hours) {
+            return Double.isNaN(hours) ? null : hours;
+        }
+
+        private static String[] readDictionary(ByteBuffer header) {
+            String[] values = new String[header.getInt()];
+            for (int i = 0; i < values.length; i++) {
+                byte[] bytes = new byte[header.getShort() & 0xFFFF];
+                header.get(bytes);
+                values[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return values;
+        }
+    }
+}
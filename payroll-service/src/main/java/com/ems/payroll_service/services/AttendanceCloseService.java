@@ -0,0 +1,227 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.models.Leave;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.ems.payroll_service.repositories.EmployeeRepository;
+import com.ems.payroll_service.repositories.LeaveRepository;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * End-of-day close of a past day: open check-ins are closed by the auto-checkout policy and
+ * every active employee without a record gets an ABSENT or LEAVE row. Both steps write in
+ * unordered bulks and skip what is already there, so a day can be closed again safely.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceCloseService {
+
+    // SHIFT_END closes at the configured shift end, STANDARD_DAY at check-in plus the standard hours
+    public enum AutoCheckoutPolicy { SHIFT_END, STANDARD_DAY }
+
+    private final AttendanceRepository attendanceRepository;
+    private final EmployeeRepository employeeRepository;
+    private final LeaveRepository leaveRepository;
+    private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final WorkCalendarService workCalendarService;
+    private final WorkPolicyService workPolicyService;
+    private final AttendanceArchiveStore attendanceArchiveStore;
+
+    @Value("${attendance.close.auto-checkout-policy:SHIFT_END}")
+    private AutoCheckoutPolicy autoCheckoutPolicy;
+
+    // ISO local time, e.g. 18:00
+    @Value("${attendance.close.shift-end:18:00}")
+    private String shiftEnd;
+
+    @Value("${attendance.close.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${attendance.close.mark-non-working-days:false}")
+    private boolean markNonWorkingDays;
+
+    @Scheduled(cron = "${attendance.close.cron:0 15 0 * * *}")
+    public void scheduledClose() {
+        try {
+            closeDay(LocalDate.now().minusDays(1));
+        } catch (RuntimeException e) {
+            log.error("Error closing attendance day: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> closeDay(LocalDate date) {
+        if (!date.isBefore(LocalDate.now())) {
+            throw new RuntimeException("Only past days can be closed: " + date);
+        }
+        // Missing rows are looked up in Mongo only, and hot rows would shadow the archived ones
+        if (!attendanceArchiveStore.archivedMonths(date, date).isEmpty()) {
+            throw new RuntimeException("Days of archived months cannot be closed: " + date);
+        }
+        log.info("Closing attendance for {}", date);
+        long startedAt = System.currentTimeMillis();
+
+        long autoCheckedOut = autoCheckOut(date);
+        Map<String, Long> marked = markMissing(date);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("date", date);
+        result.put("autoCheckedOut", autoCheckedOut);
+        result.put("markedAbsent", marked.getOrDefault("ABSENT", 0L));
+        result.put("markedLeave", marked.getOrDefault("LEAVE", 0L));
+        result.put("failed", marked.getOrDefault("FAILED", 0L));
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        log.info("Attendance day closed: {}", result);
+        return result;
+    }
+
+    private long autoCheckOut(LocalDate date) {
+        List<Attendance> open = attendanceRepository.findOpenByDate(date);
+        long closedCount = 0;
+
+        for (int i = 0; i < open.size(); i += batchSize) {
+            List<Attendance> batch = open.subList(i, Math.min(i + batchSize, open.size()));
+            List<Attendance> closed = batch.stream().map(this::close).collect(Collectors.toList());
+
+            attendanceRepository.closeOpenUnordered(closed).forEach(error -> log.error(
+                    "Error auto checking out {} on {}: {}", closed.get(error.getIndex()).getEmployeeId(), date,
+                    error.getMessage()));
+
+            // Records checked out by hand meanwhile were counted by their own check-out
+            Map<String, Attendance> expected = closed.stream()
+                    .collect(Collectors.toMap(Attendance::getId, attendance -> attendance));
+            List<Attendance> applied = new ArrayList<>();
+            for (Attendance stored : attendanceRepository.findAllById(expected.keySet())) {
+                if (stored.getCheckOutTime() != null
+                        && stored.getCheckOutTime().equals(expected.get(stored.getId()).getCheckOutTime())) {
+                    applied.add(stored);
+                }
+            }
+            attendanceMonthlyService.recordCreated(applied);
+            closedCount += applied.size();
+        }
+        return closedCount;
+    }
+
+    private Attendance close(Attendance open) {
+        Attendance attendance = new Attendance();
+        attendance.setId(open.getId());
+        attendance.setEmployeeId(open.getEmployeeId());
+        attendance.setDate(open.getDate());
+        attendance.setCheckInTime(open.getCheckInTime());
+        attendance.setBreakStartTime(open.getBreakStartTime());
+        attendance.setBreakEndTime(open.getBreakEndTime());
+
+        LocalDateTime checkOut = autoCheckOutTime(open);
+        // A break left open has no known length, it is closed where it started
+        if (attendance.getBreakStartTime() != null && attendance.getBreakEndTime() == null) {
+            attendance.setBreakEndTime(attendance.getBreakStartTime());
+        }
+        if (attendance.getBreakEndTime() != null && attendance.getBreakEndTime().isAfter(checkOut)) {
+            checkOut = attendance.getBreakEndTime();
+        }
+        attendance.setCheckOutTime(checkOut);
+        attendanceService.calculateHours(attendance);
+
+        String note = "Auto checkout (" + autoCheckoutPolicy + ")";
+        attendance.setRemarks(open.getRemarks() != null && !open.getRemarks().isBlank()
+                ? open.getRemarks() + "; " + note : note);
+        return attendance;
+    }
+
+    private LocalDateTime autoCheckOutTime(Attendance open) {
+        LocalDateTime checkIn = open.getCheckInTime();
+        LocalDateTime endOfDay = open.getDate().atTime(LocalTime.of(23, 59));
+
+        LocalDateTime checkOut = open.getDate().atTime(LocalTime.parse(shiftEnd));
+        // Check-ins after the shift end fall back to the employee's standard day from the check-in
+        if (autoCheckoutPolicy == AutoCheckoutPolicy.STANDARD_DAY || !checkOut.isAfter(checkIn)) {
+            double standardHours = workPolicyService.resolve(open.getEmployeeId()).getStandardHours();
+            checkOut = checkIn.plusMinutes(Math.round(standardHours * 60));
+        }
+        if (checkOut.isAfter(endOfDay)) {
+            checkOut = endOfDay.isAfter(checkIn) ? endOfDay : checkIn;
+        }
+        return checkOut;
+    }
+
+    private Map<String, Long> markMissing(LocalDate date) {
+        Map<String, Long> counts = new HashMap<>();
+
+        Set<String> recorded = attendanceRepository.findKeysByDateBetween(date, date)
+                .stream()
+                .map(Attendance::getEmployeeId)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<String, Leave> leaves = new HashMap<>();
+        leaveRepository.findApprovedCoveringDate(date).forEach(leave -> leaves.putIfAbsent(leave.getEmployeeId(), leave));
+
+        List<Attendance> missing = new ArrayList<>();
+        for (Employee employee : employeeRepository.findAttendanceRosterByStatus("ACTIVE")) {
+            if (recorded.contains(employee.getEmployeeId())
+                    || (employee.getJoinDate() != null && employee.getJoinDate().isAfter(date))) {
+                continue;
+            }
+            Leave leave = leaves.get(employee.getEmployeeId());
+            // Weekends and holidays of the employee's calendar only record approved leave
+            if (leave == null && !markNonWorkingDays
+                    && !workCalendarService.isWorkingDay(employee.getDepartment(), date)) {
+                continue;
+            }
+
+            Attendance attendance = new Attendance();
+            attendance.setEmployeeId(employee.getEmployeeId());
+            attendance.setEmployeeName(employee.getFullName());
+            attendance.setDate(date);
+            attendance.setHoursWorked(0.0);
+            attendance.setOvertimeHours(0.0);
+            attendance.setBreakHours(0.0);
+            attendance.setStatus(leave != null ? "LEAVE" : "ABSENT");
+            attendance.setRemarks(leave != null ? leave.getLeaveType() + " leave" : "No attendance recorded");
+            missing.add(attendance);
+        }
+
+        for (int i = 0; i < missing.size(); i += batchSize) {
+            List<Attendance> batch = missing.subList(i, Math.min(i + batchSize, missing.size()));
+
+            // A record created meanwhile is rejected by the unique (employeeId, date) index and left as it is
+            Set<Integer> rejected = new HashSet<>();
+            for (BulkWriteError error : attendanceRepository.insertUnordered(batch)) {
+                rejected.add(error.getIndex());
+                if (error.getCode() != 11000) {
+                    log.error("Error marking attendance for {} on {}: {}", batch.get(error.getIndex()).getEmployeeId(),
+                            date, error.getMessage());
+                    counts.merge("FAILED", 1L, Long::sum);
+                }
+            }
+
+            List<Attendance> inserted = new ArrayList<>(batch.size());
+            for (int j = 0; j < batch.size(); j++) {
+                if (!rejected.contains(j)) {
+                    inserted.add(batch.get(j));
+                    counts.merge(batch.get(j).getStatus(), 1L, Long::sum);
+                }
+            }
+            attendanceMonthlyService.recordCreated(inserted);
+        }
+        return counts;
+    }
+}
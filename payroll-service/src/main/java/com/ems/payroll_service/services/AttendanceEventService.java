@@ -0,0 +1,257 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.AttendanceEventDto;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceEvent;
+import com.ems.payroll_service.repositories.AttendanceEventRepository;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only punch events and their compaction into daily Attendance documents. A day is
+ * always refolded from all of its events, so compaction is idempotent and any day can be
+ * rebuilt from the log alone.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceEventService {
+
+    private static final String COMPACTOR = "attendance-events";
+
+    // Deterministic fold order: punch time, then arrival order for identical timestamps
+    private static final Comparator<AttendanceEvent> EVENT_ORDER = Comparator
+            .comparing(AttendanceEvent::getTimestamp)
+            .thenComparing(AttendanceEvent::getId);
+
+    private final AttendanceEventRepository attendanceEventRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final EmployeeDirectory employeeDirectory;
+    private final PresenceIndex presenceIndex;
+
+    @Value("${attendance.events.compaction-batch-size:5000}")
+    private int batchSize;
+
+    // Events younger than this are left for the next run, so slower concurrent inserts with lower ids are not skipped
+    @Value("${attendance.events.compaction-lag-ms:5000}")
+    private long lagMillis;
+
+    public AttendanceEventDto recordEvent(AttendanceEventDto eventDto) {
+        employeeDirectory.find(eventDto.getEmployeeId())
+                .orElseThrow(() -> new RuntimeException("Employee not found: " + eventDto.getEmployeeId()));
+
+        AttendanceEvent event = new AttendanceEvent();
+        BeanUtils.copyProperties(eventDto, event, "id", "receivedAt");
+        if (event.getTimestamp() == null) {
+            event.setTimestamp(LocalDateTime.now());
+        }
+        if (event.getDate() == null) {
+            event.setDate(event.getTimestamp().toLocalDate());
+        }
+        event.setReceivedAt(LocalDateTime.now());
+
+        // Plain insert into an append-only collection, no document is shared with other punches
+        return convertToDto(attendanceEventRepository.insert(event));
+    }
+
+    public List<AttendanceEventDto> getEvents(String employeeId, LocalDate date) {
+        log.info("Fetching attendance events for employee: {} on date: {}", employeeId, date);
+        return attendanceEventRepository.findByEmployeeIdAndDateOrderByTimestampAsc(employeeId, date)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.events.compaction-interval-ms:2000}")
+    public void scheduledCompact() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            log.error("Error compacting attendance events: {}", e.getMessage());
+        }
+    }
+
+    // Folds everything past the watermark, one batch at a time, and advances it after each batch
+    public Map<String, Object> compact() {
+        long startedAt = System.currentTimeMillis();
+        Date cutoff = new Date(startedAt - lagMillis);
+        long events = 0;
+        long days = 0;
+
+        String watermark = attendanceEventRepository.getCompactionState(COMPACTOR).getLastEventId();
+        while (true) {
+            List<AttendanceEvent> batch = attendanceEventRepository.findAfter(watermark, cutoff, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Set<String> employeeIds = new HashSet<>();
+            Set<LocalDate> dates = new HashSet<>();
+            batch.forEach(event -> {
+                employeeIds.add(event.getEmployeeId());
+                dates.add(event.getDate());
+            });
+            Set<String> dayKeys = batch.stream().map(this::dayKey).collect(Collectors.toSet());
+
+            // A retried batch refolds the same days to the same result
+            if (!foldDays(employeeIds, dates, dayKeys)) {
+                break;
+            }
+
+            watermark = batch.get(batch.size() - 1).getId();
+            attendanceEventRepository.advanceWatermark(COMPACTOR, watermark, batch.size());
+            events += batch.size();
+            days += dayKeys.size();
+
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("eventsCompacted", events);
+        result.put("daysFolded", days);
+        result.put("watermark", watermark);
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        if (events > 0) {
+            log.info("Attendance events compacted: {}", result);
+        }
+        return result;
+    }
+
+    // Refolds every employee's day from the full event log, independent of the watermark
+    public Map<String, Object> rebuildDay(LocalDate date) {
+        log.info("Rebuilding attendance for {} from events", date);
+        long startedAt = System.currentTimeMillis();
+
+        List<AttendanceEvent> events = attendanceEventRepository.findByDate(date);
+        Set<String> employeeIds = events.stream().map(AttendanceEvent::getEmployeeId).collect(Collectors.toSet());
+        Set<String> dayKeys = events.stream().map(this::dayKey).collect(Collectors.toSet());
+        boolean written = employeeIds.isEmpty() || foldDays(employeeIds, Set.of(date), dayKeys);
+        if (!written) {
+            throw new RuntimeException("Some attendance records could not be written, see the log");
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("date", date);
+        result.put("events", events.size());
+        result.put("employees", employeeIds.size());
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    // Returns false when any record was rejected, so the caller does not move past these events
+    private boolean foldDays(Set<String> employeeIds, Set<LocalDate> dates, Set<String> dayKeys) {
+        Map<String, List<AttendanceEvent>> eventsByDay = new TreeMap<>();
+        for (AttendanceEvent event : attendanceEventRepository.findForDays(employeeIds, dates)) {
+            String key = dayKey(event);
+            if (dayKeys.contains(key)) {
+                eventsByDay.computeIfAbsent(key, k -> new ArrayList<>()).add(event);
+            }
+        }
+
+        List<Attendance> folded = new ArrayList<>(eventsByDay.size());
+        for (List<AttendanceEvent> dayEvents : eventsByDay.values()) {
+            dayEvents.sort(EVENT_ORDER);
+            folded.add(fold(dayEvents));
+        }
+
+        List<BulkWriteError> errors = attendanceRepository.upsertUnordered(folded);
+        errors.forEach(error -> log.error("Error writing folded attendance for {} on {}: {}",
+                folded.get(error.getIndex()).getEmployeeId(), folded.get(error.getIndex()).getDate(),
+                error.getMessage()));
+
+        // Records were replaced without reading them, so the touched rollups are recomputed
+        LocalDate minDate = dates.stream().min(LocalDate::compareTo).orElseThrow();
+        LocalDate maxDate = dates.stream().max(LocalDate::compareTo).orElseThrow();
+        try {
+            attendanceMonthlyService.rebuild(employeeIds, minDate, maxDate);
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding monthly rollups after compaction, full rebuild required: {}", e.getMessage());
+        }
+
+        LocalDate today = LocalDate.now();
+        folded.stream()
+                .filter(attendance -> today.equals(attendance.getDate()))
+                .forEach(presenceIndex::record);
+        return errors.isEmpty();
+    }
+
+    // Events are authoritative for the fields they cover; remarks and approval are left as they are
+    Attendance fold(List<AttendanceEvent> events) {
+        AttendanceEvent first = events.get(0);
+        Attendance attendance = new Attendance();
+        attendance.setEmployeeId(first.getEmployeeId());
+        attendance.setDate(first.getDate());
+        employeeDirectory.find(first.getEmployeeId())
+                .ifPresent(employee -> attendance.setEmployeeName(employee.getFullName()));
+
+        for (AttendanceEvent event : events) {
+            switch (event.getType()) {
+                case AttendanceEvent.PUNCH_IN -> {
+                    // First punch in of the day wins
+                    if (attendance.getCheckInTime() == null) {
+                        attendance.setCheckInTime(event.getTimestamp());
+                        attendance.setCheckInLocation(event.getLocation());
+                    }
+                }
+                case AttendanceEvent.PUNCH_OUT -> {
+                    // Last punch out after the check-in wins
+                    if (attendance.getCheckInTime() != null) {
+                        attendance.setCheckOutTime(event.getTimestamp());
+                        attendance.setCheckOutLocation(event.getLocation());
+                    }
+                }
+                case AttendanceEvent.BREAK_START -> {
+                    if (attendance.getBreakStartTime() == null) {
+                        attendance.setBreakStartTime(event.getTimestamp());
+                    }
+                }
+                case AttendanceEvent.BREAK_END -> {
+                    if (attendance.getBreakStartTime() != null && attendance.getBreakEndTime() == null) {
+                        attendance.setBreakEndTime(event.getTimestamp());
+                    }
+                }
+                default -> log.warn("Ignoring attendance event {} of unknown type {}", event.getId(), event.getType());
+            }
+        }
+
+        if (attendance.getCheckInTime() != null && attendance.getCheckOutTime() != null) {
+            attendanceService.calculateHours(attendance);
+        } else if (attendance.getCheckInTime() != null) {
+            attendance.setStatus("PRESENT");
+        }
+        return attendance;
+    }
+
+    private String dayKey(AttendanceEvent event) {
+        return event.getEmployeeId() + "|" + event.getDate();
+    }
+
+    private AttendanceEventDto convertToDto(AttendanceEvent event) {
+        AttendanceEventDto dto = new AttendanceEventDto();
+        BeanUtils.copyProperties(event, dto);
+        return dto;
+    }
+}
@@ -0,0 +1,345 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.AttendanceDto;
+import com.ems.payroll_service.dto.AttendanceImportErrorDto;
+import com.ems.payroll_service.dto.AttendanceImportResultDto;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import of device punch exports. The upload is read line by line and written in
+ * unordered bulk upserts while the next chunk is parsed, so memory is bounded by the
+ * chunk size rather than the file size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> CSV_COLUMNS = List.of("employeeId", "date", "checkInTime", "checkOutTime",
+            "breakStartTime", "breakEndTime", "status", "remarks", "checkInLocation", "checkOutLocation");
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final EmployeeDirectory employeeDirectory;
+    private final PresenceIndex presenceIndex;
+    private final ObjectMapper objectMapper;
+
+    @Value("${attendance.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${attendance.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final ExecutorService writeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @PreDestroy
+    void stopExecutor() {
+        writeExecutor.shutdownNow();
+    }
+
+    public AttendanceImportResultDto importAttendance(Reader source, Format format) {
+        log.info("Importing attendance from {} upload", format);
+        long startedAt = System.nanoTime();
+
+        // Picks up employees created since the last scheduled refresh, so rows never fall back to the database
+        employeeDirectory.refresh();
+
+        AttendanceImportResultDto result = new AttendanceImportResultDto();
+        result.setFormat(format.name());
+        Set<String> employeeIds = new HashSet<>();
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+
+        List<Attendance> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        Map<String, Integer> chunkKeys = new HashMap<>();
+        Future<ChunkResult> pending = null;
+
+        try (BufferedReader reader = new BufferedReader(source)) {
+            Map<String, Integer> columns = format == Format.CSV ? readHeader(reader.readLine()) : null;
+            long lineNumber = format == Format.CSV ? 1 : 0;
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                result.setTotalRows(result.getTotalRows() + 1);
+
+                AttendanceDto row = null;
+                try {
+                    row = format == Format.CSV ? parseCsvRow(line, columns) : objectMapper.readValue(line, AttendanceDto.class);
+                    Attendance attendance = toAttendance(row);
+                    // Two upserts of one key in an unordered bulk race each other, so the later row replaces the earlier
+                    Integer previous = chunkKeys.putIfAbsent(attendance.getEmployeeId() + "|" + attendance.getDate(),
+                            chunk.size());
+                    if (previous != null) {
+                        reportSuperseded(result, chunkLines.get(previous), attendance.getEmployeeId(), lineNumber);
+                        chunk.set(previous, attendance);
+                        chunkLines.set(previous, lineNumber);
+                    } else {
+                        chunk.add(attendance);
+                        chunkLines.add(lineNumber);
+                    }
+                    employeeIds.add(attendance.getEmployeeId());
+                    minDate = minDate == null || attendance.getDate().isBefore(minDate) ? attendance.getDate() : minDate;
+                    maxDate = maxDate == null || attendance.getDate().isAfter(maxDate) ? attendance.getDate() : maxDate;
+                } catch (IOException | RuntimeException e) {
+                    reportError(result, new AttendanceImportErrorDto(lineNumber,
+                            row != null ? row.getEmployeeId() : null, String.valueOf(e.getMessage())));
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    // At most one chunk is written while the next one is parsed
+                    collect(result, pending);
+                    pending = submit(chunk, chunkLines);
+                    chunk = new ArrayList<>(chunkSize);
+                    chunkLines = new ArrayList<>(chunkSize);
+                    chunkKeys.clear();
+                }
+            }
+
+            collect(result, pending);
+            pending = null;
+            if (!chunk.isEmpty()) {
+                collect(result, submit(chunk, chunkLines));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading attendance upload: " + e.getMessage());
+        } finally {
+            if (pending != null) {
+                pending.cancel(true);
+            }
+            // Upserts replaced records without reading them, so the touched rollups are recomputed
+            if (minDate != null) {
+                refreshDerivedViews(employeeIds, minDate, maxDate);
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.setRowsPerSecond(elapsedNanos > 0 ? result.getTotalRows() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0);
+
+        log.info("Attendance import finished: {} rows, {} imported, {} failed, {} superseded in {} ms ({} rows/s)",
+                result.getTotalRows(), result.getImported(), result.getFailed(), result.getSuperseded(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    private void refreshDerivedViews(Set<String> employeeIds, LocalDate minDate, LocalDate maxDate) {
+        try {
+            attendanceMonthlyService.rebuild(employeeIds, minDate, maxDate);
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding monthly rollups after import, full rebuild required: {}", e.getMessage());
+        }
+
+        LocalDate today = LocalDate.now();
+        if (!today.isBefore(minDate) && !today.isAfter(maxDate)) {
+            presenceIndex.rebuild();
+        }
+    }
+
+    private Future<ChunkResult> submit(List<Attendance> chunk, List<Long> lines) {
+        return writeExecutor.submit(() -> {
+            ChunkResult chunkResult = new ChunkResult(chunk.size());
+            try {
+                for (BulkWriteError error : attendanceRepository.upsertUnordered(chunk)) {
+                    chunkResult.errors.add(new AttendanceImportErrorDto(lines.get(error.getIndex()),
+                            chunk.get(error.getIndex()).getEmployeeId(), error.getMessage()));
+                }
+            } catch (RuntimeException e) {
+                log.error("Error writing attendance import chunk: {}", e.getMessage());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkResult.errors.add(new AttendanceImportErrorDto(lines.get(i), chunk.get(i).getEmployeeId(),
+                            String.valueOf(e.getMessage())));
+                }
+            }
+            return chunkResult;
+        });
+    }
+
+    private void collect(AttendanceImportResultDto result, Future<ChunkResult> pending) {
+        if (pending == null) {
+            return;
+        }
+
+        ChunkResult chunkResult;
+        try {
+            chunkResult = pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Attendance import interrupted");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error writing attendance import chunk: " + e.getCause().getMessage());
+        }
+
+        chunkResult.errors.forEach(error -> reportError(result, error));
+        result.setImported(result.getImported() + chunkResult.rows - chunkResult.errors.size());
+    }
+
+    private void reportError(AttendanceImportResultDto result, AttendanceImportErrorDto error) {
+        result.setFailed(result.getFailed() + 1);
+        listError(result, error);
+    }
+
+    private void reportSuperseded(AttendanceImportResultDto result, long line, String employeeId, long supersededBy) {
+        result.setSuperseded(result.getSuperseded() + 1);
+        listError(result, new AttendanceImportErrorDto(line, employeeId,
+                "Superseded by line " + supersededBy + " with the same employeeId and date"));
+    }
+
+    private void listError(AttendanceImportResultDto result, AttendanceImportErrorDto error) {
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(error);
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private Attendance toAttendance(AttendanceDto row) {
+        if (row.getEmployeeId() == null || row.getEmployeeId().isBlank()) {
+            throw new RuntimeException("Employee ID is required");
+        }
+        if (row.getDate() == null) {
+            throw new RuntimeException("Date is required");
+        }
+        if (row.getCheckInTime() != null && row.getCheckOutTime() != null
+                && row.getCheckOutTime().isBefore(row.getCheckInTime())) {
+            throw new RuntimeException("Check-out time is before check-in time");
+        }
+
+        EmployeeDirectory.Entry employee = employeeDirectory.findLoaded(row.getEmployeeId())
+                .orElseThrow(() -> new RuntimeException("Employee not found: " + row.getEmployeeId()));
+
+        Attendance attendance = new Attendance();
+        BeanUtils.copyProperties(row, attendance, "id", "employeeName");
+        attendance.setEmployeeName(employee.getFullName());
+        attendanceService.calculateHours(attendance);
+        return attendance;
+    }
+
+    private Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new RuntimeException("CSV upload is empty");
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new RuntimeException("Unknown CSV column: " + name);
+            }
+            columns.put(name, i);
+        }
+        if (!columns.containsKey("employeeId") || !columns.containsKey("date")) {
+            throw new RuntimeException("CSV header must contain employeeId and date");
+        }
+        return columns;
+    }
+
+    private AttendanceDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = splitCsv(line);
+        AttendanceDto row = new AttendanceDto();
+        row.setEmployeeId(value(values, columns, "employeeId"));
+
+        String date = value(values, columns, "date");
+        row.setDate(date != null ? LocalDate.parse(date) : null);
+        row.setCheckInTime(dateTime(value(values, columns, "checkInTime")));
+        row.setCheckOutTime(dateTime(value(values, columns, "checkOutTime")));
+        row.setBreakStartTime(dateTime(value(values, columns, "breakStartTime")));
+        row.setBreakEndTime(dateTime(value(values, columns, "breakEndTime")));
+        row.setStatus(value(values, columns, "status"));
+        row.setRemarks(value(values, columns, "remarks"));
+        row.setCheckInLocation(value(values, columns, "checkInLocation"));
+        row.setCheckOutLocation(value(values, columns, "checkOutLocation"));
+        return row;
+    }
+
+    private String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Device exports use either ISO-8601 or a space between date and time
+    private LocalDateTime dateTime(String value) {
+        return value != null ? LocalDateTime.parse(value.replace(' ', 'T')) : null;
+    }
+
+    // RFC 4180 fields within one line: quoted fields may contain commas and doubled quotes
+    private List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new RuntimeException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Written by the writer thread, read only after the future completes
+    private static class ChunkResult {
+
+        private final int rows;
+        private final List<AttendanceImportErrorDto> errors = new ArrayList<>();
+
+        ChunkResult(int rows) {
+            this.rows = rows;
+        }
+    }
+}
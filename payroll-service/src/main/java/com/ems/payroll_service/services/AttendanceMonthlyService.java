@@ -0,0 +1,215 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.AttendanceMonthlyDto;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceMonthly;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.ems.payroll_service.repositories.AttendanceMonthlyRepository;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceMonthlyService {
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final AttendanceMonthlyRepository attendanceMonthlyRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceArchiveStore attendanceArchiveStore;
+
+    public AttendanceMonthlyDto getMonthly(String employeeId, YearMonth month) {
+        log.info("Fetching monthly attendance for employee: {} month: {}", employeeId, month);
+        return convertToDto(find(employeeId, month));
+    }
+
+    // One document read instead of an aggregation over the month's attendance
+    public AttendanceSummary getSummary(String employeeId, YearMonth month) {
+        return toSummary(find(employeeId, month));
+    }
+
+    public Map<String, AttendanceSummary> getSummaries(YearMonth month) {
+        return toSummaries(attendanceMonthlyRepository.findByMonth(month.toString()));
+    }
+
+    public Map<String, AttendanceSummary> getSummaries(Collection<String> employeeIds, YearMonth month) {
+        return toSummaries(attendanceMonthlyRepository.findByMonthAndEmployeeIdIn(month.toString(), employeeIds));
+    }
+
+    public Map<String, Object> rebuild() {
+        log.info("Rebuilding monthly attendance rollups");
+        long startedAt = System.currentTimeMillis();
+
+        attendanceMonthlyRepository.rebuildFromAttendance();
+        for (YearMonth month : attendanceArchiveStore.archivedMonths()) {
+            addArchived(month, null);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rollups", attendanceMonthlyRepository.count());
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        log.info("Monthly attendance rollups rebuilt: {}", result);
+        return result;
+    }
+
+    // For bulk writes that replaced records without knowing their previous values
+    public void rebuild(Collection<String> employeeIds, LocalDate fromDate, LocalDate toDate) {
+        log.info("Rebuilding monthly attendance rollups for {} employees between {} and {}",
+                employeeIds.size(), fromDate, toDate);
+        List<String> ids = new ArrayList<>(employeeIds);
+        for (int from = 0; from < ids.size(); from += REBUILD_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + REBUILD_CHUNK_SIZE, ids.size()));
+            attendanceMonthlyRepository.rebuildFromAttendance(chunk, YearMonth.from(fromDate), YearMonth.from(toDate));
+            for (YearMonth month : attendanceArchiveStore.archivedMonths(fromDate, toDate)) {
+                addArchived(month, new HashSet<>(chunk));
+            }
+        }
+    }
+
+    // Rebuilds only see the hot collection; archived rows without a newer hot copy are added back
+    private void addArchived(YearMonth month, Set<String> employeeIds) {
+        Set<String> hotKeys = attendanceRepository.findKeysByDateBetween(month.atDay(1), month.atEndOfMonth())
+                .stream()
+                .map(attendance -> attendance.getEmployeeId() + "|" + attendance.getDate())
+                .collect(Collectors.toSet());
+
+        Map<String, AttendanceMonthly> deltas = new LinkedHashMap<>();
+        attendanceArchiveStore.open(month).scan(month.atDay(1), month.atEndOfMonth(), employeeIds, null,
+                (archived, row) -> {
+                    if (!hotKeys.contains(archived.employeeId(row) + "|" + archived.date(row))) {
+                        add(deltas, archived.toAttendance(row), 1);
+                    }
+                });
+        attendanceMonthlyRepository.increment(deltas.values());
+    }
+
+    public void recordCreated(Attendance attendance) {
+        record(null, attendance);
+    }
+
+    public void recordDeleted(Attendance attendance) {
+        record(attendance, null);
+    }
+
+    // Reverses the previous contribution and adds the new one; either side may be null
+    public void record(Attendance previous, Attendance current) {
+        Map<String, AttendanceMonthly> deltas = new LinkedHashMap<>();
+        if (previous != null) {
+            add(deltas, previous, -1);
+        }
+        if (current != null) {
+            add(deltas, current, 1);
+        }
+        apply(deltas);
+    }
+
+    public void recordCreated(Collection<Attendance> attendance) {
+        Map<String, AttendanceMonthly> deltas = new LinkedHashMap<>();
+        attendance.forEach(record -> add(deltas, record, 1));
+        apply(deltas);
+    }
+
+    // Open check-ins have no final hours yet; they are counted by the check-out that closes them
+    static boolean counted(Attendance attendance) {
+        return attendance.getDate() != null
+                && (attendance.getCheckOutTime() != null || attendance.getCheckInTime() == null);
+    }
+
+    private void add(Map<String, AttendanceMonthly> deltas, Attendance attendance, int sign) {
+        if (!counted(attendance)) {
+            return;
+        }
+
+        String month = YearMonth.from(attendance.getDate()).toString();
+        AttendanceMonthly delta = deltas.computeIfAbsent(AttendanceMonthly.key(attendance.getEmployeeId(), month),
+                key -> {
+                    AttendanceMonthly monthly = new AttendanceMonthly();
+                    monthly.setId(key);
+                    monthly.setEmployeeId(attendance.getEmployeeId());
+                    monthly.setMonth(month);
+                    return monthly;
+                });
+
+        delta.setRecordCount(delta.getRecordCount() + sign);
+        String status = attendance.getStatus() != null ? attendance.getStatus() : "";
+        switch (status) {
+            case "PRESENT" -> delta.setPresentDays(delta.getPresentDays() + sign);
+            case "HALF_DAY" -> delta.setHalfDays(delta.getHalfDays() + sign);
+            case "LATE" -> delta.setLateDays(delta.getLateDays() + sign);
+            case "ABSENT" -> delta.setAbsentDays(delta.getAbsentDays() + sign);
+            default -> { }
+        }
+        delta.setHoursWorked(delta.getHoursWorked() + sign * hours(attendance.getHoursWorked()));
+        delta.setOvertimeHours(delta.getOvertimeHours() + sign * hours(attendance.getOvertimeHours()));
+        delta.setBreakHours(delta.getBreakHours() + sign * hours(attendance.getBreakHours()));
+    }
+
+    // A failed rollup update must never fail the attendance write; rebuild reconciles it
+    private void apply(Map<String, AttendanceMonthly> deltas) {
+        try {
+            attendanceMonthlyRepository.increment(deltas.values());
+        } catch (RuntimeException e) {
+            log.error("Error updating monthly attendance rollups, rebuild required: {}", e.getMessage());
+        }
+    }
+
+    private AttendanceMonthly find(String employeeId, YearMonth month) {
+        return attendanceMonthlyRepository.findById(AttendanceMonthly.key(employeeId, month.toString()))
+                .orElseGet(() -> {
+                    AttendanceMonthly empty = new AttendanceMonthly();
+                    empty.setEmployeeId(employeeId);
+                    empty.setMonth(month.toString());
+                    return empty;
+                });
+    }
+
+    private Map<String, AttendanceSummary> toSummaries(List<AttendanceMonthly> rollups) {
+        return rollups.stream()
+                .map(this::toSummary)
+                .collect(Collectors.toMap(AttendanceSummary::getEmployeeId, Function.identity()));
+    }
+
+    private AttendanceSummary toSummary(AttendanceMonthly monthly) {
+        AttendanceSummary summary = new AttendanceSummary();
+        summary.setEmployeeId(monthly.getEmployeeId());
+        summary.setPresentDays(monthly.getPresentDays());
+        summary.setHoursWorked(round(monthly.getHoursWorked()));
+        summary.setOvertimeHours(round(monthly.getOvertimeHours()));
+        summary.setBreakHours(round(monthly.getBreakHours()));
+        return summary;
+    }
+
+    private double hours(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    // Repeated $inc of doubles drifts in the last bits; stored hours have at most two decimals
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private AttendanceMonthlyDto convertToDto(AttendanceMonthly monthly) {
+        AttendanceMonthlyDto dto = new AttendanceMonthlyDto();
+        BeanUtils.copyProperties(monthly, dto);
+        dto.setHoursWorked(round(monthly.getHoursWorked()));
+        dto.setOvertimeHours(round(monthly.getOvertimeHours()));
+        dto.setBreakHours(round(monthly.getBreakHours()));
+        return dto;
+    }
+}
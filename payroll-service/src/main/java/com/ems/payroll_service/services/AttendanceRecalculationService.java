@@ -0,0 +1,261 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.AttendanceRecalculationDto;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceRecalculation;
+import com.ems.payroll_service.repositories.AttendanceRecalculationRepository;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes hoursWorked, overtimeHours, breakHours and status for a date range after the
+ * attendance policy changed. Rows are read off one cursor, recomputed and written on virtual
+ * threads, and only rows whose derived fields actually differ are sent back in bulk.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceRecalculationService {
+
+    private final AttendanceRecalculationRepository attendanceRecalculationRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+
+    // One job at a time, so concurrent recalculations cannot add up against live traffic
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-recalculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService batchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${attendance.recalculation.batch-size:1000}")
+    private int batchSize;
+
+    // Batches recomputed and written concurrently while the cursor reads ahead
+    @Value("${attendance.recalculation.max-in-flight-batches:4}")
+    private int maxInFlightBatches;
+
+    @Value("${attendance.recalculation.default-max-rows-per-second:5000}")
+    private int defaultMaxRowsPerSecond;
+
+    @PreDestroy
+    void stopExecutors() {
+        jobExecutor.shutdownNow();
+        batchExecutor.shutdownNow();
+    }
+
+    public List<AttendanceRecalculationDto> getRecalculations() {
+        return attendanceRecalculationRepository.findTop20ByOrderByCreatedAtDesc()
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<AttendanceRecalculationDto> getRecalculationById(String id) {
+        return attendanceRecalculationRepository.findById(id)
+                .map(this::convertToDto);
+    }
+
+    public AttendanceRecalculationDto startRecalculation(LocalDate startDate, LocalDate endDate,
+                                                         Integer maxRowsPerSecond) {
+        log.info("Starting attendance recalculation between {} and {}", startDate, endDate);
+
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date cannot be before start date");
+        }
+        if (maxRowsPerSecond != null && maxRowsPerSecond < 0) {
+            throw new RuntimeException("Max rows per second cannot be negative");
+        }
+
+        AttendanceRecalculation recalculation = new AttendanceRecalculation();
+        recalculation.setStartDate(startDate);
+        recalculation.setEndDate(endDate);
+        recalculation.setStatus("PENDING");
+        recalculation.setMaxRowsPerSecond(maxRowsPerSecond != null ? maxRowsPerSecond : defaultMaxRowsPerSecond);
+        recalculation.setTotalRows(attendanceRepository.countByDateRange(startDate, endDate));
+        recalculation.setCreatedAt(LocalDateTime.now());
+        recalculation.setUpdatedAt(recalculation.getCreatedAt());
+
+        AttendanceRecalculation savedRecalculation = attendanceRecalculationRepository.save(recalculation);
+        jobExecutor.submit(() -> process(savedRecalculation));
+
+        log.info("Attendance recalculation created with ID: {}", savedRecalculation.getId());
+        return convertToDto(savedRecalculation);
+    }
+
+    public AttendanceRecalculationDto cancelRecalculation(String id) {
+        log.info("Cancelling attendance recalculation: {}", id);
+
+        if (!attendanceRecalculationRepository.cancel(id)) {
+            throw new RuntimeException("Only pending or running recalculations can be cancelled");
+        }
+
+        return getRecalculationById(id)
+                .orElseThrow(() -> new RuntimeException("Attendance recalculation not found with ID: " + id));
+    }
+
+    private void process(AttendanceRecalculation recalculation) {
+        if (!attendanceRecalculationRepository.start(recalculation.getId())) {
+            log.info("Attendance recalculation {} was cancelled before it started", recalculation.getId());
+            return;
+        }
+        recalculation.setStatus("RUNNING");
+
+        long startedAt = System.nanoTime();
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        AtomicLong changed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        Set<String> touchedEmployeeIds = ConcurrentHashMap.newKeySet();
+        boolean cancelled = false;
+
+        try (Stream<Attendance> rows = attendanceRepository.streamReport(
+                recalculation.getStartDate(), recalculation.getEndDate(), null, null)) {
+            Iterator<Attendance> cursor = rows.iterator();
+            List<Attendance> batch = new ArrayList<>(batchSize);
+
+            while (cursor.hasNext() && !cancelled) {
+                batch.add(cursor.next());
+                if (batch.size() < batchSize && cursor.hasNext()) {
+                    continue;
+                }
+
+                inFlight.acquire();
+                List<Attendance> submitted = batch;
+                batchExecutor.submit(() -> {
+                    try {
+                        recalculateBatch(submitted, changed, failed, touchedEmployeeIds);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+
+                recalculation.setScannedRows(recalculation.getScannedRows() + submitted.size());
+                recalculation.setLastDate(submitted.get(submitted.size() - 1).getDate());
+                batch = new ArrayList<>(batchSize);
+
+                progress(recalculation, startedAt, changed, failed);
+                cancelled = !attendanceRecalculationRepository.checkpoint(recalculation);
+                throttle(recalculation, startedAt);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recalculation.setErrorMessage("Recalculation interrupted");
+        } catch (RuntimeException e) {
+            log.error("Attendance recalculation {} failed: {}", recalculation.getId(), e.getMessage());
+            recalculation.setErrorMessage(e.getMessage());
+        }
+
+        // Every submitted batch is written before the rollups are rebuilt
+        inFlight.acquireUninterruptibly(maxInFlightBatches);
+
+        // Derived fields feed the monthly rollups, so the touched ones are recomputed
+        if (!touchedEmployeeIds.isEmpty()) {
+            try {
+                attendanceMonthlyService.rebuild(touchedEmployeeIds, recalculation.getStartDate(),
+                        recalculation.getEndDate());
+            } catch (RuntimeException e) {
+                log.error("Error rebuilding monthly rollups after recalculation, full rebuild required: {}",
+                        e.getMessage());
+            }
+        }
+
+        progress(recalculation, startedAt, changed, failed);
+        if (cancelled) {
+            log.info("Attendance recalculation {} was cancelled after {} rows", recalculation.getId(),
+                    recalculation.getScannedRows());
+            return;
+        }
+        attendanceRecalculationRepository.finish(recalculation,
+                recalculation.getErrorMessage() != null ? "FAILED" : "COMPLETED");
+        log.info("Attendance recalculation {} finished: {} scanned, {} changed, {} failed at {} rows/sec",
+                recalculation.getId(), recalculation.getScannedRows(), recalculation.getChangedRows(),
+                recalculation.getFailedRows(), String.format("%.1f", recalculation.getRowsPerSecond()));
+    }
+
+    private void recalculateBatch(List<Attendance> batch, AtomicLong changed, AtomicLong failed,
+                                  Set<String> touchedEmployeeIds) {
+        List<Attendance> updates = new ArrayList<>();
+        for (Attendance attendance : batch) {
+            Attendance recalculated = new Attendance();
+            BeanUtils.copyProperties(attendance, recalculated);
+            attendanceService.calculateHours(recalculated);
+
+            if (!Objects.equals(attendance.getHoursWorked(), recalculated.getHoursWorked())
+                    || !Objects.equals(attendance.getOvertimeHours(), recalculated.getOvertimeHours())
+                    || !Objects.equals(attendance.getBreakHours(), recalculated.getBreakHours())
+                    || !Objects.equals(attendance.getStatus(), recalculated.getStatus())) {
+                updates.add(recalculated);
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<BulkWriteError> errors = attendanceRepository.updateDerivedUnordered(updates);
+            errors.forEach(error -> log.error("Error recalculating attendance {}: {}",
+                    updates.get(error.getIndex()).getId(), error.getMessage()));
+            changed.addAndGet(updates.size() - errors.size());
+            failed.addAndGet(errors.size());
+        } catch (RuntimeException e) {
+            log.error("Error writing recalculated attendance batch: {}", e.getMessage());
+            failed.addAndGet(updates.size());
+        }
+        updates.forEach(attendance -> touchedEmployeeIds.add(attendance.getEmployeeId()));
+    }
+
+    // Sleeps whenever the job is ahead of its rows-per-second budget
+    private void throttle(AttendanceRecalculation recalculation, long startedAt) throws InterruptedException {
+        if (recalculation.getMaxRowsPerSecond() <= 0) {
+            return;
+        }
+        long dueNanos = recalculation.getScannedRows() * TimeUnit.SECONDS.toNanos(1) / recalculation.getMaxRowsPerSecond();
+        long aheadNanos = dueNanos - (System.nanoTime() - startedAt);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    private void progress(AttendanceRecalculation recalculation, long startedAt, AtomicLong changed, AtomicLong failed) {
+        recalculation.setChangedRows(changed.get());
+        recalculation.setFailedRows(failed.get());
+        recalculation.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        if (recalculation.getElapsedMillis() > 0) {
+            recalculation.setRowsPerSecond(recalculation.getScannedRows() * 1000.0 / recalculation.getElapsedMillis());
+        }
+    }
+
+    private AttendanceRecalculationDto convertToDto(AttendanceRecalculation recalculation) {
+        AttendanceRecalculationDto dto = new AttendanceRecalculationDto();
+        BeanUtils.copyProperties(recalculation, dto);
+        if (recalculation.getTotalRows() > 0) {
+            dto.setProgressPercent(Math.min(100.0, recalculation.getScannedRows() * 100.0 / recalculation.getTotalRows()));
+        }
+        return dto;
+    }
+}
@@ -1,29 +1,64 @@
 package com.ems.payroll_service.services;
 
+import com.ems.payroll_service.calculation.CompiledWorkPolicy;
 import com.ems.payroll_service.dto.AttendanceDto;
+import com.ems.payroll_service.dto.AttendanceReportDto;
+import com.ems.payroll_service.dto.PresenceMemberDto;
+import com.ems.payroll_service.dto.PresenceSummaryDto;
 import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.models.AttendanceStatusTotals;
+import com.ems.payroll_service.models.AttendanceSummary;
 import com.ems.payroll_service.models.Employee;
 import com.ems.payroll_service.repositories.AttendanceRepository;
 import com.ems.payroll_service.repositories.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AttendanceService {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String CURSOR_SEPARATOR = "\n";
+
     private final AttendanceRepository attendanceRepository;
     private final EmployeeRepository employeeRepository;
+    private final EmployeeDirectory employeeDirectory;
+    private final PresenceIndex presenceIndex;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final AttendanceArchiveStore attendanceArchiveStore;
+    private final WorkPolicyService workPolicyService;
 
     public List<AttendanceDto> getAllAttendance() {
         log.info("Fetching all attendance records");
@@ -59,7 +94,8 @@ public class AttendanceService {
                                                                   LocalDate startDate,
                                                                   LocalDate endDate) {
         log.info("Fetching attendance for employee: {} between {} and {}", employeeId, startDate, endDate);
-        return attendanceRepository.findByEmployeeIdAndDateBetween(employeeId, startDate, endDate)
+        List<Attendance> hot = attendanceRepository.findByEmployeeIdAndDateBetween(employeeId, startDate, endDate);
+        return withArchived(hot, startDate, endDate, Set.of(employeeId), null)
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
@@ -73,15 +109,6 @@ public class AttendanceService {
         Employee employee = employeeRepository.findByEmployeeId(attendanceDto.getEmployeeId())
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + attendanceDto.getEmployeeId()));
 
-        // Check if attendance already exists for this employee and date
-        Optional<Attendance> existingAttendance = attendanceRepository
-                .findByEmployeeIdAndDate(attendanceDto.getEmployeeId(), attendanceDto.getDate());
-
-        if (existingAttendance.isPresent()) {
-            throw new RuntimeException("Attendance already exists for employee " +
-                    attendanceDto.getEmployeeId() + " on date " + attendanceDto.getDate());
-        }
-
         Attendance attendance = convertToEntity(attendanceDto);
         attendance.setEmployeeName(employee.getFullName());
 
@@ -90,7 +117,16 @@ public class AttendanceService {
             calculateHours(attendance);
         }
 
-        Attendance savedAttendance = attendanceRepository.save(attendance);
+        // The unique (employeeId, date) index rejects a second record for the same day
+        Attendance savedAttendance;
+        try {
+            savedAttendance = attendanceRepository.insert(attendance);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Attendance already exists for employee " +
+                    attendanceDto.getEmployeeId() + " on date " + attendanceDto.getDate());
+        }
+        presenceIndex.record(savedAttendance);
+        attendanceMonthlyService.recordCreated(savedAttendance);
         log.info("Attendance created successfully with ID: {}", savedAttendance.getId());
 
         return convertToDto(savedAttendance);
@@ -102,6 +138,9 @@ public class AttendanceService {
         Attendance existingAttendance = attendanceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Attendance not found with ID: " + id));
 
+        // Kept so the monthly rollup can reverse exactly what this record contributed before
+        Attendance previous = new Attendance();
+        BeanUtils.copyProperties(existingAttendance, previous);
         BeanUtils.copyProperties(attendanceDto, existingAttendance, "id", "employeeName");
 
         // Recalculate hours if times are updated
@@ -110,6 +149,9 @@ public class AttendanceService {
         }
 
         Attendance updatedAttendance = attendanceRepository.save(existingAttendance);
+        presenceIndex.remove(previous.getEmployeeId(), previous.getDate());
+        presenceIndex.record(updatedAttendance);
+        attendanceMonthlyService.record(previous, updatedAttendance);
         log.info("Attendance updated successfully: {}", updatedAttendance.getId());
 
         return convertToDto(updatedAttendance);
@@ -118,40 +160,48 @@ public class AttendanceService {
     public void deleteAttendance(String id) {
         log.info("Deleting attendance with ID: {}", id);
 
-        if (!attendanceRepository.existsById(id)) {
-            throw new RuntimeException("Attendance not found with ID: " + id);
-        }
+        Attendance attendance = attendanceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Attendance not found with ID: " + id));
 
         attendanceRepository.deleteById(id);
+        presenceIndex.remove(attendance.getEmployeeId(), attendance.getDate());
+        attendanceMonthlyService.recordDeleted(attendance);
         log.info("Attendance deleted successfully: {}", id);
     }
 
     public AttendanceDto checkIn(String employeeId, LocalDateTime checkInTime, String location) {
         log.info("Check-in for employee: {} at: {}", employeeId, checkInTime);
 
-        Employee employee = employeeRepository.findByEmployeeId(employeeId)
+        EmployeeDirectory.Entry employee = employeeDirectory.find(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
 
-        LocalDate today = checkInTime.toLocalDate();
+        Attendance attendance = newCheckIn(employeeId, employee.getFullName(), checkInTime, location);
+        attendance.setId(new ObjectId().toHexString());
 
-        // Check if attendance already exists for today
-        Optional<Attendance> existingAttendance = attendanceRepository
-                .findByEmployeeIdAndDate(employeeId, today);
-
-        if (existingAttendance.isPresent()) {
+        // One findAndModify: inserts only when the day has no record yet, otherwise returns the existing one
+        Attendance existing;
+        try {
+            existing = attendanceRepository.insertIfAbsent(attendance);
+        } catch (DuplicateKeyException e) {
+            existing = attendance;
+        }
+        if (existing != null) {
             throw new RuntimeException("Employee has already checked in today");
         }
 
+        presenceIndex.record(attendance);
+        return convertToDto(attendance);
+    }
+
+    Attendance newCheckIn(String employeeId, String employeeName, LocalDateTime checkInTime, String location) {
         Attendance attendance = new Attendance();
         attendance.setEmployeeId(employeeId);
-        attendance.setEmployeeName(employee.getFullName());
-        attendance.setDate(today);
+        attendance.setEmployeeName(employeeName);
+        attendance.setDate(checkInTime.toLocalDate());
         attendance.setCheckInTime(checkInTime);
         attendance.setCheckInLocation(location);
         attendance.setStatus("PRESENT");
-
-        Attendance savedAttendance = attendanceRepository.save(attendance);
-        return convertToDto(savedAttendance);
+        return attendance;
     }
 
     public AttendanceDto checkOut(String employeeId, LocalDateTime checkOutTime, String location) {
@@ -159,21 +209,48 @@ public class AttendanceService {
 
         LocalDate today = checkOutTime.toLocalDate();
 
+        // Conditional on an open record, hours are derived in the same update
+        Attendance updatedAttendance = attendanceRepository.checkOut(employeeId, today, checkOutTime, location,
+                workPolicyService.resolve(employeeId));
+        if (updatedAttendance != null) {
+            // The record was open until now, so it had not contributed to the monthly rollup yet
+            presenceIndex.record(updatedAttendance);
+            attendanceMonthlyService.recordCreated(updatedAttendance);
+            return convertToDto(updatedAttendance);
+        }
+
+        // Only the failure path pays for a second read, to say why
         Attendance attendance = attendanceRepository
                 .findByEmployeeIdAndDate(employeeId, today)
                 .orElseThrow(() -> new RuntimeException("No check-in record found for today"));
-
         if (attendance.getCheckOutTime() != null) {
             throw new RuntimeException("Employee has already checked out today");
         }
+        throw new RuntimeException("No check-in time recorded for today");
+    }
 
-        attendance.setCheckOutTime(checkOutTime);
-        attendance.setCheckOutLocation(location);
+    public AttendanceDto startBreak(String employeeId, LocalDateTime breakStartTime) {
+        log.info("Break start for employee: {} at: {}", employeeId, breakStartTime);
 
-        calculateHours(attendance);
+        Attendance attendance = attendanceRepository.startBreak(employeeId, breakStartTime.toLocalDate(), breakStartTime);
+        if (attendance == null) {
+            throw new RuntimeException("No open check-in without a break found for today");
+        }
 
-        Attendance updatedAttendance = attendanceRepository.save(attendance);
-        return convertToDto(updatedAttendance);
+        presenceIndex.record(attendance);
+        return convertToDto(attendance);
+    }
+
+    public AttendanceDto endBreak(String employeeId, LocalDateTime breakEndTime) {
+        log.info("Break end for employee: {} at: {}", employeeId, breakEndTime);
+
+        Attendance attendance = attendanceRepository.endBreak(employeeId, breakEndTime.toLocalDate(), breakEndTime);
+        if (attendance == null) {
+            throw new RuntimeException("No break in progress found for today");
+        }
+
+        presenceIndex.record(attendance);
+        return convertToDto(attendance);
     }
 
     public AttendanceDto approveAttendance(String id, String approvedBy) {
@@ -190,20 +267,209 @@ public class AttendanceService {
         return convertToDto(approvedAttendance);
     }
 
+    // Served from the in-memory presence index, no database access
+    public PresenceSummaryDto getPresenceSummary() {
+        PresenceSummaryDto summary = new PresenceSummaryDto();
+        summary.setDate(presenceIndex.getDate());
+        summary.setRecorded(presenceIndex.count(PresenceIndex.State.RECORDED));
+        summary.setCheckedIn(presenceIndex.count(PresenceIndex.State.CHECKED_IN));
+        summary.setCheckedOut(presenceIndex.count(PresenceIndex.State.CHECKED_OUT));
+        summary.setOnBreak(presenceIndex.count(PresenceIndex.State.ON_BREAK));
+        presenceIndex.countByDepartment().forEach((department, counts) -> {
+            Map<String, Long> byState = new TreeMap<>();
+            counts.forEach((state, count) -> byState.put(state.name(), count));
+            summary.getDepartments().put(department, byState);
+        });
+        return summary;
+    }
+
+    public List<PresenceMemberDto> getPresenceMembers(String state, String department) {
+        PresenceIndex.State presenceState;
+        try {
+            presenceState = PresenceIndex.State.valueOf(state);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown presence state: " + state);
+        }
+
+        return presenceIndex.members(presenceState, department)
+                .stream()
+                .map(employee -> {
+                    PresenceMemberDto member = new PresenceMemberDto();
+                    member.setEmployeeId(employee.getEmployeeId());
+                    member.setFullName(employee.getFullName());
+                    member.setDepartment(employee.getDepartment());
+                    return member;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Totals come from one $group over the filtered range; rows are optional and paged by key
+    public AttendanceReportDto getAttendanceReport(LocalDate startDate, LocalDate endDate, String department,
+                                                   String status, boolean includeRecords,
+                                                   String cursor, Integer limit) {
+        log.info("Building attendance report between {} and {} department: {} status: {}",
+                startDate, endDate, department, status);
+        checkReportRange(startDate, endDate);
+
+        AttendanceReportDto report = new AttendanceReportDto();
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+        report.setDepartment(department);
+        report.setStatus(status);
+
+        Set<String> employeeIds = department != null ? employeeDirectory.employeeIdsInDepartment(department) : null;
+        if (employeeIds != null && employeeIds.isEmpty()) {
+            if (includeRecords) {
+                report.setAttendanceData(List.of());
+            }
+            return report;
+        }
+
+        for (AttendanceStatusTotals totals : attendanceRepository.totalsByStatus(startDate, endDate, employeeIds, status)) {
+            String key = totals.getStatus() != null ? totals.getStatus() : "UNKNOWN";
+            report.getStatusCounts().merge(key, totals.getCount(), Long::sum);
+            report.setTotalRecords(report.getTotalRecords() + totals.getCount());
+            report.setTotalHoursWorked(report.getTotalHoursWorked() + totals.getHoursWorked());
+            report.setTotalOvertimeHours(report.getTotalOvertimeHours() + totals.getOvertimeHours());
+            report.setTotalBreakHours(report.getTotalBreakHours() + totals.getBreakHours());
+        }
+        // Archived months are totalled straight off the mapped columns, without building records
+        for (YearMonth month : attendanceArchiveStore.archivedMonths(startDate, endDate)) {
+            Set<String> hotKeys = hotKeys(month, startDate, endDate, employeeIds);
+            attendanceArchiveStore.open(month).scan(startDate, endDate, employeeIds, status, (archived, row) -> {
+                if (hotKeys.contains(archived.employeeId(row) + "|" + archived.date(row))) {
+                    return;
+                }
+                String key = archived.status(row) != null ? archived.status(row) : "UNKNOWN";
+                report.getStatusCounts().merge(key, 1L, Long::sum);
+                report.setTotalRecords(report.getTotalRecords() + 1);
+                report.setTotalHoursWorked(report.getTotalHoursWorked() + hours(archived.hoursWorked(row)));
+                report.setTotalOvertimeHours(report.getTotalOvertimeHours() + hours(archived.overtimeHours(row)));
+                report.setTotalBreakHours(report.getTotalBreakHours() + hours(archived.breakHours(row)));
+            });
+        }
+        report.setTotalPresent(report.getStatusCounts().getOrDefault("PRESENT", 0L));
+        report.setTotalAbsent(report.getStatusCounts().getOrDefault("ABSENT", 0L));
+        report.setTotalLate(report.getStatusCounts().getOrDefault("LATE", 0L));
+        report.setTotalHalfDay(report.getStatusCounts().getOrDefault("HALF_DAY", 0L));
+        report.setTotalHoursWorked(round(report.getTotalHoursWorked()));
+        report.setTotalOvertimeHours(round(report.getTotalOvertimeHours()));
+        report.setTotalBreakHours(round(report.getTotalBreakHours()));
+
+        if (includeRecords) {
+            int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+            if (pageSize <= 0) {
+                throw new RuntimeException("Limit must be positive");
+            }
+            String[] after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+
+            // Pages cover the hot collection; archived months are read through the stream
+            // One extra row tells whether another page exists without a count query
+            List<Attendance> rows = attendanceRepository.findReportPage(startDate, endDate, employeeIds, status,
+                    after != null ? LocalDate.parse(after[0]) : null, after != null ? after[1] : null,
+                    pageSize + 1);
+            report.setLimit(pageSize);
+            report.setHasMore(rows.size() > pageSize);
+            List<Attendance> items = report.isHasMore() ? rows.subList(0, pageSize) : rows;
+            report.setAttendanceData(items.stream().map(this::convertToDto).collect(Collectors.toList()));
+            if (report.isHasMore()) {
+                report.setNextCursor(encodeCursor(items.get(items.size() - 1)));
+            }
+        }
+        return report;
+    }
+
+    // Rows straight off a database cursor in (date, employeeId) order; the caller must close the stream
+    public Stream<AttendanceDto> streamAttendanceReport(LocalDate startDate, LocalDate endDate,
+                                                        String department, String status) {
+        log.info("Streaming attendance report between {} and {} department: {} status: {}",
+                startDate, endDate, department, status);
+        checkReportRange(startDate, endDate);
+
+        Set<String> employeeIds = department != null ? employeeDirectory.employeeIdsInDepartment(department) : null;
+        if (employeeIds != null && employeeIds.isEmpty()) {
+            return Stream.empty();
+        }
+
+        // Archived months are emitted in place, merged with any newer hot copies, so the (date, employeeId) order holds
+        List<Supplier<Stream<Attendance>>> segments = new ArrayList<>();
+        LocalDate next = startDate;
+        for (YearMonth month : attendanceArchiveStore.archivedMonths(startDate, endDate)) {
+            LocalDate monthStart = month.atDay(1).isAfter(startDate) ? month.atDay(1) : startDate;
+            LocalDate monthEnd = month.atEndOfMonth().isBefore(endDate) ? month.atEndOfMonth() : endDate;
+            if (next.isBefore(monthStart)) {
+                LocalDate hotStart = next;
+                segments.add(() -> attendanceRepository.streamReport(hotStart, monthStart.minusDays(1), employeeIds, status));
+            }
+            segments.add(() -> streamArchivedMonth(month, monthStart, monthEnd, employeeIds, status));
+            next = monthEnd.plusDays(1);
+        }
+        if (!next.isAfter(endDate)) {
+            LocalDate hotStart = next;
+            segments.add(() -> attendanceRepository.streamReport(hotStart, endDate, employeeIds, status));
+        }
+
+        return segments.stream()
+                .flatMap(Supplier::get)
+                .map(this::convertToDto);
+    }
+
     public long getWorkingDaysForEmployee(String employeeId, LocalDate startDate, LocalDate endDate) {
-        return attendanceRepository.countPresentDaysByEmployeeIdAndDateBetween(employeeId, startDate, endDate);
+        if (attendanceArchiveStore.archivedMonths(startDate, endDate).isEmpty()) {
+            return attendanceRepository.countPresentDaysByEmployeeIdAndDateBetween(employeeId, startDate, endDate);
+        }
+        return getAttendanceSummaryForEmployee(employeeId, startDate, endDate).getPresentDays();
     }
 
     public double getOvertimeHoursForEmployee(String employeeId, LocalDate startDate, LocalDate endDate) {
-        List<Attendance> attendanceList = attendanceRepository
-                .findByEmployeeIdAndDateBetween(employeeId, startDate, endDate);
+        return getAttendanceSummaryForEmployee(employeeId, startDate, endDate).getOvertimeHours();
+    }
+
+    public AttendanceSummary getAttendanceSummaryForEmployee(String employeeId, LocalDate startDate, LocalDate endDate) {
+        AttendanceSummary summary = attendanceRepository.summarizeEmployee(employeeId, startDate, endDate);
 
-        return attendanceList.stream()
-                .mapToDouble(attendance -> attendance.getOvertimeHours() != null ? attendance.getOvertimeHours() : 0.0)
-                .sum();
+        List<YearMonth> archivedMonths = attendanceArchiveStore.archivedMonths(startDate, endDate);
+        if (archivedMonths.isEmpty()) {
+            return summary;
+        }
+        Set<String> hotKeys = attendanceRepository.findByEmployeeIdAndDateBetween(employeeId, startDate, endDate)
+                .stream()
+                .map(this::key)
+                .collect(Collectors.toSet());
+        for (YearMonth month : archivedMonths) {
+            attendanceArchiveStore.open(month).scan(startDate, endDate, Set.of(employeeId), null, (archived, row) -> {
+                if (hotKeys.contains(archived.employeeId(row) + "|" + archived.date(row))) {
+                    return;
+                }
+                if ("PRESENT".equals(archived.status(row))) {
+                    summary.setPresentDays(summary.getPresentDays() + 1);
+                }
+                summary.setHoursWorked(summary.getHoursWorked() + hours(archived.hoursWorked(row)));
+                summary.setOvertimeHours(summary.getOvertimeHours() + hours(archived.overtimeHours(row)));
+                summary.setBreakHours(summary.getBreakHours() + hours(archived.breakHours(row)));
+            });
+        }
+        summary.setHoursWorked(round(summary.getHoursWorked()));
+        summary.setOvertimeHours(round(summary.getOvertimeHours()));
+        summary.setBreakHours(round(summary.getBreakHours()));
+        return summary;
+    }
+
+    public Map<String, AttendanceSummary> getAttendanceSummariesByEmployee(LocalDate startDate, LocalDate endDate) {
+        return attendanceRepository.summarizeByEmployee(startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(AttendanceSummary::getEmployeeId, Function.identity()));
+    }
+
+    public Map<String, AttendanceSummary> getAttendanceSummariesByEmployee(Collection<String> employeeIds,
+                                                                          LocalDate startDate, LocalDate endDate) {
+        return attendanceRepository.summarizeByEmployee(employeeIds, startDate, endDate)
+                .stream()
+                .collect(Collectors.toMap(AttendanceSummary::getEmployeeId, Function.identity()));
     }
 
-    private void calculateHours(Attendance attendance) {
+    // Mirrored by the check-out update pipeline in AttendanceRepositoryCustomImpl
+    void calculateHours(Attendance attendance) {
         if (attendance.getCheckInTime() == null || attendance.getCheckOutTime() == null) {
             return;
         }
@@ -221,27 +487,142 @@ public class AttendanceService {
         // Ensure non-null
         attendance.setBreakHours(Math.round(breakHours * 10.0) / 10.0);
 
-    // Calculate actual working hours
-    double workingHours = totalHours - breakHours;
-    // Round to 2 decimals for better precision
-    workingHours = Math.max(0.0, Math.round(workingHours * 100.0) / 100.0);
-    attendance.setHoursWorked(workingHours);
+        // Calculate actual working hours
+        double workingHours = totalHours - breakHours;
+        // Round to 2 decimals for better precision
+        workingHours = Math.max(0.0, Math.round(workingHours * 100.0) / 100.0);
+        attendance.setHoursWorked(workingHours);
 
-    // Calculate overtime (assuming 8 hours is standard working day)
-    double overtimeHours = Math.max(0, workingHours - 8);
-    overtimeHours = Math.round(overtimeHours * 100.0) / 100.0;
+        // Calculate overtime beyond the standard working day of the employee's policy
+        CompiledWorkPolicy policy = workPolicyService.resolve(attendance.getEmployeeId());
+        double overtimeHours = Math.max(0, workingHours - policy.getStandardHours());
+        overtimeHours = Math.round(overtimeHours * 100.0) / 100.0;
         attendance.setOvertimeHours(overtimeHours);
 
         // Determine status based on working hours
-        if (workingHours >= 8) {
-            attendance.setStatus("PRESENT");
-        } else if (workingHours >= 4) {
-            attendance.setStatus("HALF_DAY");
-        } else if (workingHours > 0) {
-            attendance.setStatus("LATE");
-        } else {
-            attendance.setStatus("ABSENT");
+        attendance.setStatus(policy.status(workingHours));
+    }
+
+    // Hot records win over archived rows with the same (employeeId, date) key
+    private List<Attendance> withArchived(List<Attendance> hot, LocalDate startDate, LocalDate endDate,
+                                          Set<String> employeeIds, String status) {
+        List<YearMonth> archivedMonths = attendanceArchiveStore.archivedMonths(startDate, endDate);
+        if (archivedMonths.isEmpty()) {
+            return hot;
+        }
+
+        List<Attendance> merged = new ArrayList<>(hot);
+        for (YearMonth month : archivedMonths) {
+            Set<String> hotKeys = hotKeys(month, startDate, endDate, employeeIds);
+            attendanceArchiveStore.find(month, startDate, endDate, employeeIds, status)
+                    .stream()
+                    .filter(archived -> !hotKeys.contains(key(archived)))
+                    .forEach(merged::add);
+        }
+        merged.sort(Comparator.comparing(Attendance::getDate).thenComparing(Attendance::getEmployeeId));
+        return merged;
+    }
+
+    // One month's hot cursor and archived rows merged in (date, employeeId) order, neither side materialized
+    private Stream<Attendance> streamArchivedMonth(YearMonth month, LocalDate startDate, LocalDate endDate,
+                                                   Set<String> employeeIds, String status) {
+        Set<String> hotKeys = hotKeys(month, startDate, endDate, employeeIds);
+        AttendanceArchiveStore.ArchivedMonth archived = attendanceArchiveStore.open(month);
+        PrimitiveIterator.OfInt archivedRows = archived.rows(startDate, endDate, employeeIds, status);
+        Stream<Attendance> hot = attendanceRepository.streamReport(startDate, endDate, employeeIds, status);
+        Iterator<Attendance> hotRows = hot.iterator();
+
+        Iterator<Attendance> merged = new Iterator<>() {
+            private Attendance nextHot;
+            private int nextArchived = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (nextHot == null && hotRows.hasNext()) {
+                    nextHot = hotRows.next();
+                }
+                while (nextArchived < 0 && archivedRows.hasNext()) {
+                    int row = archivedRows.nextInt();
+                    if (!hotKeys.contains(archived.employeeId(row) + "|" + archived.date(row))) {
+                        nextArchived = row;
+                    }
+                }
+                return nextHot != null || nextArchived >= 0;
+            }
+
+            @Override
+            public Attendance next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (nextArchived < 0 || (nextHot != null && hotComesFirst())) {
+                    Attendance row = nextHot;
+                    nextHot = null;
+                    return row;
+                }
+                Attendance row = archived.toAttendance(nextArchived);
+                nextArchived = -1;
+                return row;
+            }
+
+            // Keys never tie: archived rows with a hot copy were skipped
+            private boolean hotComesFirst() {
+                int order = nextHot.getDate().compareTo(archived.date(nextArchived));
+                return order != 0 ? order < 0 : nextHot.getEmployeeId().compareTo(archived.employeeId(nextArchived)) < 0;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(hot::close);
+    }
+
+    // Filtered by employee only: a hot copy hides the archived row even when its status no longer matches
+    private Set<String> hotKeys(YearMonth month, LocalDate startDate, LocalDate endDate, Set<String> employeeIds) {
+        LocalDate from = month.atDay(1).isAfter(startDate) ? month.atDay(1) : startDate;
+        LocalDate to = month.atEndOfMonth().isBefore(endDate) ? month.atEndOfMonth() : endDate;
+        List<Attendance> keys = employeeIds != null
+                ? attendanceRepository.findKeysByDateBetweenAndEmployeeIdIn(from, to, employeeIds)
+                : attendanceRepository.findKeysByDateBetween(from, to);
+        return keys.stream()
+                .map(this::key)
+                .collect(Collectors.toSet());
+    }
+
+    private String key(Attendance attendance) {
+        return attendance.getEmployeeId() + "|" + attendance.getDate();
+    }
+
+    private double hours(Double value) {
+        return value != null ? value : 0.0;
+    }
+
+    private void checkReportRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    // Last key of the page: date and employeeId, opaque to clients
+    private String encodeCursor(Attendance attendance) {
+        String key = attendance.getDate() + CURSOR_SEPARATOR + attendance.getEmployeeId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(CURSOR_SEPARATOR, -1);
+            if (parts.length == 2) {
+                LocalDate.parse(parts[0]);
+                return parts;
+            }
+        } catch (RuntimeException e) {
+            // Falls through to the error below
         }
+        throw new RuntimeException("Invalid cursor: " + cursor);
     }
 
     private AttendanceDto convertToDto(Attendance attendance) {
@@ -0,0 +1,305 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.AttendanceDto;
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional write-behind path for check-ins. Requests are validated against the
+ * {@link EmployeeDirectory}, buffered in a bounded queue and written by one flusher
+ * thread as unordered bulk inserts, either every {@code batch-size} check-ins or every
+ * {@code flush-interval-ms}, whichever comes first.
+ *
+ * With ack mode AFTER_FLUSH the caller waits until its document is written; with
+ * ON_ENQUEUE it is answered once buffered, and check-ins still in the buffer are lost if
+ * the process dies. A full buffer rejects new check-ins instead of blocking.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckInIngestionService {
+
+    public enum AckMode { AFTER_FLUSH, ON_ENQUEUE }
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceService attendanceService;
+    private final EmployeeDirectory employeeDirectory;
+    private final PresenceIndex presenceIndex;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${attendance.checkin.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${attendance.checkin.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${attendance.checkin.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${attendance.checkin.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMillis;
+
+    @Value("${attendance.checkin.write-behind.ack-mode:AFTER_FLUSH}")
+    private AckMode ackMode;
+
+    @Value("${attendance.checkin.write-behind.ack-timeout-ms:5000}")
+    private long ackTimeoutMillis;
+
+    private BlockingQueue<PendingCheckIn> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    // employeeId|date of check-ins accepted by this instance, rejects repeats before they reach the buffer
+    private final Set<String> acceptedToday = ConcurrentHashMap.newKeySet();
+    private volatile LocalDate acceptedDate = LocalDate.now();
+
+    private Timer flushLatency;
+    private DistributionSummary flushSize;
+    private Counter acceptedCounter;
+    private Counter bufferFullCounter;
+    private Counter duplicateCounter;
+    private Counter failedCounter;
+
+    private static class PendingCheckIn {
+        private final Attendance attendance;
+        private final CompletableFuture<Attendance> written = new CompletableFuture<>();
+
+        PendingCheckIn(Attendance attendance) {
+            this.attendance = attendance;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("attendance.checkin.queue.depth", queue, BlockingQueue::size)
+                .description("Check-ins waiting to be written")
+                .register(meterRegistry);
+        flushLatency = Timer.builder("attendance.checkin.flush.latency")
+                .description("Time to write one batch of check-ins")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        flushSize = DistributionSummary.builder("attendance.checkin.flush.size")
+                .description("Check-ins per bulk write")
+                .register(meterRegistry);
+        acceptedCounter = meterRegistry.counter("attendance.checkin.accepted");
+        bufferFullCounter = meterRegistry.counter("attendance.checkin.rejected", "reason", "buffer_full");
+        duplicateCounter = meterRegistry.counter("attendance.checkin.rejected", "reason", "duplicate");
+        failedCounter = meterRegistry.counter("attendance.checkin.rejected", "reason", "write_failed");
+
+        running = true;
+        flusher = new Thread(this::flushLoop, "checkin-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Check-in write-behind enabled: capacity {}, batch size {}, flush interval {} ms, ack {}",
+                capacity, batchSize, flushIntervalMillis, ackMode);
+    }
+
+    // Stops accepting and writes whatever is still buffered
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<PendingCheckIn> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean acknowledgesOnEnqueue() {
+        return ackMode == AckMode.ON_ENQUEUE;
+    }
+
+    public AttendanceDto checkIn(String employeeId, LocalDateTime checkInTime, String location) {
+        EmployeeDirectory.Entry employee = employeeDirectory.find(employeeId)
+                .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
+        if (!employee.isActive()) {
+            throw new RuntimeException("Employee is not active: " + employeeId);
+        }
+
+        LocalDate date = checkInTime.toLocalDate();
+        if (!date.equals(acceptedDate)) {
+            acceptedDate = date;
+            acceptedToday.clear();
+        }
+        String key = key(employeeId, date);
+        if (!acceptedToday.add(key)) {
+            duplicateCounter.increment();
+            throw new RuntimeException("Employee has already checked in today");
+        }
+
+        Attendance attendance = attendanceService.newCheckIn(employeeId, employee.getFullName(), checkInTime, location);
+        // Assigned up front because bulk inserts do not write generated ids back
+        attendance.setId(new ObjectId().toHexString());
+
+        PendingCheckIn pending = new PendingCheckIn(attendance);
+        if (!running || !queue.offer(pending)) {
+            acceptedToday.remove(key);
+            bufferFullCounter.increment();
+            throw new IllegalStateException("Check-in buffer is full, retry shortly");
+        }
+        acceptedCounter.increment();
+
+        if (ackMode == AckMode.ON_ENQUEUE) {
+            return convertToDto(attendance);
+        }
+
+        try {
+            return convertToDto(pending.written.get(ackTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            // Still buffered and will be written; the caller only stops waiting
+            throw new IllegalStateException("Check-in accepted but not yet written, retry to confirm");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for check-in to be written");
+        }
+    }
+
+    private void flushLoop() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        List<PendingCheckIn> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                PendingCheckIn first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Fill up to batch-size, but never hold the first check-in longer than the flush interval
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingCheckIn next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in check-in flusher: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingCheckIn> batch) {
+        List<Attendance> documents = new ArrayList<>(batch.size());
+        batch.forEach(pending -> documents.add(pending.attendance));
+
+        Map<Integer, RuntimeException> rejected = new HashMap<>();
+        Set<Integer> duplicates = new HashSet<>();
+        long startedAt = System.nanoTime();
+        try {
+            for (BulkWriteError error : attendanceRepository.insertUnordered(documents)) {
+                boolean duplicate = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY;
+                if (duplicate) {
+                    duplicates.add(error.getIndex());
+                }
+                rejected.put(error.getIndex(), new RuntimeException(duplicate
+                        ? "Employee has already checked in today"
+                        : "Check-in could not be written: " + error.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Error writing {} buffered check-ins: {}", batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                rejected.put(i, new RuntimeException("Check-in could not be written: " + e.getMessage()));
+            }
+        }
+        flushLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        flushSize.record(batch.size());
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCheckIn pending = batch.get(i);
+            RuntimeException error = rejected.get(i);
+            if (error == null) {
+                presenceIndex.record(pending.attendance);
+                pending.written.complete(pending.attendance);
+                continue;
+            }
+
+            if (duplicates.contains(i)) {
+                duplicateCounter.increment();
+            } else {
+                // Let the employee retry a check-in that never reached the database
+                failedCounter.increment();
+                acceptedToday.remove(key(pending.attendance.getEmployeeId(), pending.attendance.getDate()));
+            }
+            if (ackMode == AckMode.ON_ENQUEUE) {
+                // Nobody is waiting for the result any more
+                log.warn("Buffered check-in for employee {} dropped: {}",
+                        pending.attendance.getEmployeeId(), error.getMessage());
+            }
+            pending.written.completeExceptionally(error);
+        }
+    }
+
+    private String key(String employeeId, LocalDate date) {
+        return employeeId + "|" + date;
+    }
+
+    private AttendanceDto convertToDto(Attendance attendance) {
+        AttendanceDto dto = new AttendanceDto();
+        BeanUtils.copyProperties(attendance, dto);
+        return dto;
+    }
+}
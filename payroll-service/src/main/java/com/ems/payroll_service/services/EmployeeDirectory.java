@@ -0,0 +1,125 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.repositories.EmployeeRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the employee fields the hot attendance paths need. Every employeeId is
+ * interned to a dense int index that stays stable for the life of the process, so other
+ * in-memory structures can key arrays and bitsets by it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmployeeDirectory {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final Map<String, Entry> entriesByEmployeeId = new ConcurrentHashMap<>();
+    private volatile Entry[] entriesByIndex = new Entry[0];
+    private volatile int nextIndex;
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Entry {
+        private final int index;
+        private final String employeeId;
+        private final String fullName;
+        private final String department;
+        private final String status;
+        private final String employmentType;
+        private final String salaryGrade;
+
+        public boolean isActive() {
+            return "ACTIVE".equals(status);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void load() {
+        refresh();
+    }
+
+    // Catches changes made by other instances
+    @Scheduled(fixedDelayString = "${employee.directory.refresh-interval-ms:60000}",
+            initialDelayString = "${employee.directory.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            employeeRepository.findDirectoryEntries().forEach(this::put);
+            log.info("Employee directory loaded {} employees in {} ms",
+                    entriesByEmployeeId.size(), System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.error("Error refreshing employee directory: {}", e.getMessage());
+        }
+    }
+
+    // Falls back to the database for employees created since the last refresh
+    public Optional<Entry> find(String employeeId) {
+        Entry entry = entriesByEmployeeId.get(employeeId);
+        if (entry != null) {
+            return Optional.of(entry);
+        }
+        return employeeRepository.findByEmployeeId(employeeId).map(this::put);
+    }
+
+    // No database fallback, for bulk paths that refreshed the directory up front
+    public Optional<Entry> findLoaded(String employeeId) {
+        return Optional.ofNullable(entriesByEmployeeId.get(employeeId));
+    }
+
+    public Entry get(int index) {
+        Entry[] entries = entriesByIndex;
+        return index < entries.length ? entries[index] : null;
+    }
+
+    public Set<String> employeeIdsInDepartment(String department) {
+        Set<String> employeeIds = new HashSet<>();
+        for (Entry entry : entriesByEmployeeId.values()) {
+            if (department.equals(entry.getDepartment())) {
+                employeeIds.add(entry.getEmployeeId());
+            }
+        }
+        return employeeIds;
+    }
+
+    // Upper bound (exclusive) of the indexes handed out so far
+    public int size() {
+        return nextIndex;
+    }
+
+    public synchronized Entry put(Employee employee) {
+        Entry existing = entriesByEmployeeId.get(employee.getEmployeeId());
+        int index = existing != null ? existing.getIndex() : nextIndex++;
+        Entry entry = new Entry(index, employee.getEmployeeId(), employee.getFullName(),
+                employee.getDepartment(), employee.getStatus(), employee.getEmploymentType(), employee.getSalaryGrade());
+
+        // Entries are immutable, so replacing a slot in place is safe for concurrent readers
+        Entry[] entries = entriesByIndex;
+        if (index >= entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(1024, entries.length * 2));
+        }
+        entries[index] = entry;
+
+        entriesByIndex = entries;
+        entriesByEmployeeId.put(entry.getEmployeeId(), entry);
+        return entry;
+    }
+}
@@ -6,6 +6,7 @@ import com.ems.payroll_service.repositories.EmployeeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,7 @@ import java.util.stream.Collectors;
 public class EmployeeService {
 
     private final EmployeeRepository employeeRepository;
+    private final EmployeeDirectory employeeDirectory;
 
     public List<EmployeeDto> getAllEmployees() {
         log.info("Fetching all employees");
@@ -46,22 +48,22 @@ public class EmployeeService {
     public EmployeeDto createEmployee(EmployeeDto employeeDto) {
         log.info("Creating new employee: {}", employeeDto.getFullName());
 
-        // Check if employee ID already exists
-        if (employeeRepository.findByEmployeeId(employeeDto.getEmployeeId()).isPresent()) {
-            throw new RuntimeException("Employee ID already exists: " + employeeDto.getEmployeeId());
-        }
-
-        // Check if email already exists
-        if (employeeRepository.findByEmail(employeeDto.getEmail()).isPresent()) {
-            throw new RuntimeException("Email already exists: " + employeeDto.getEmail());
-        }
-
         Employee employee = convertToEntity(employeeDto);
         if (employee.getJoinDate() == null) {
             employee.setJoinDate(LocalDate.now());
         }
 
-        Employee savedEmployee = employeeRepository.save(employee);
+        // Uniqueness of employee ID and email is enforced by their unique indexes
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.insert(employee);
+        } catch (DuplicateKeyException e) {
+            if (String.valueOf(e.getMessage()).contains("email_unique")) {
+                throw new RuntimeException("Email already exists: " + employeeDto.getEmail());
+            }
+            throw new RuntimeException("Employee ID already exists: " + employeeDto.getEmployeeId());
+        }
+        employeeDirectory.put(savedEmployee);
         log.info("Employee created successfully with ID: {}", savedEmployee.getId());
 
         return convertToDto(savedEmployee);
@@ -84,6 +86,7 @@ public class EmployeeService {
         BeanUtils.copyProperties(employeeDto, existingEmployee, "id", "joinDate");
 
         Employee updatedEmployee = employeeRepository.save(existingEmployee);
+        employeeDirectory.put(updatedEmployee);
         log.info("Employee updated successfully: {}", updatedEmployee.getId());
 
         return convertToDto(updatedEmployee);
@@ -98,6 +101,7 @@ public class EmployeeService {
         // Instead of hard delete, mark as TERMINATED
         employee.setStatus("TERMINATED");
         employeeRepository.save(employee);
+        employeeDirectory.put(employee);
 
         log.info("Employee marked as terminated: {}", id);
     }
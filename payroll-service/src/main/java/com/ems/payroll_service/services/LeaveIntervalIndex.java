@@ -0,0 +1,202 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.calculation.LeaveIntervals;
+import com.ems.payroll_service.models.Leave;
+import com.ems.payroll_service.models.LeaveVersion;
+import com.ems.payroll_service.repositories.LeaveRepository;
+import com.ems.payroll_service.repositories.LeaveVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Pending and approved leaves per employee as {@link LeaveIntervals}, including leaves
+ * mid-approval or mid-cancellation, so overlap checks on apply and update run in memory.
+ * The leaves collection stays the source of truth: the index is rebuilt from it at startup
+ * and periodically, and kept current by every leave write in between. Applies and updates
+ * also bump the employee's {@link LeaveVersion}; a check first reads that version by id and
+ * reloads the employee's leaves when it differs from the cached one, so leaves written by
+ * other instances are never missed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LeaveIntervalIndex {
+
+    // Statuses that still hold the leave's dates, matching LeaveRepository.findOpenIntervals
+    private static final Set<String> OPEN_STATUSES = Set.of("PENDING", "APPROVING", "APPROVED", "CANCELLING");
+
+    private final LeaveRepository leaveRepository;
+    private final LeaveVersionRepository leaveVersionRepository;
+
+    private volatile Map<String, EmployeeLeaves> leavesByEmployee = new ConcurrentHashMap<>();
+
+    // Open leaves as of the employee's version; kept when empty so the version is remembered
+    private record EmployeeLeaves(long version, LeaveIntervals intervals) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    // Backstop for leaves closed by other instances, which stay until a check confirms them
+    @Scheduled(fixedDelayString = "${leave.index.refresh-interval-ms:300000}",
+            initialDelayString = "${leave.index.refresh-interval-ms:300000}")
+    public void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            int count;
+
+            // Writers wait for the reload so no update lands between the query and the swap
+            synchronized (this) {
+                // Versions first: a write landing in between only causes one extra reload
+                Map<String, Long> versions = leaveVersionRepository.findAll().stream()
+                        .collect(Collectors.toMap(LeaveVersion::getId, LeaveVersion::getVersion));
+                List<Leave> leaves = leaveRepository.findOpenIntervals();
+                Map<String, EmployeeLeaves> rebuilt = new ConcurrentHashMap<>();
+                versions.forEach((employeeId, version) ->
+                        rebuilt.put(employeeId, new EmployeeLeaves(version, LeaveIntervals.EMPTY)));
+                leaves.stream().filter(this::isOpen).forEach(leave -> add(rebuilt, leave));
+                leavesByEmployee = rebuilt;
+                count = leaves.size();
+            }
+            log.info("Leave interval index rebuilt with {} leaves in {} ms",
+                    count, System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding leave interval index: {}", e.getMessage());
+        }
+    }
+
+    // Ids of the employee's open leaves sharing a day with the range
+    public List<String> findOverlapping(String employeeId, LocalDate startDate, LocalDate endDate) {
+        long version = leaveVersionRepository.findById(employeeId).map(LeaveVersion::getVersion).orElse(0L);
+        EmployeeLeaves cached = leavesByEmployee.get(employeeId);
+        if ((cached != null ? cached.version() : 0L) != version) {
+            cached = reload(employeeId, version);
+        }
+        return (cached != null ? cached.intervals() : LeaveIntervals.EMPTY).overlapping(startDate, endDate);
+    }
+
+    // Called after a leave is applied or its dates updated, once the leave is saved
+    public void recordWrite(Leave leave) {
+        long version = leaveVersionRepository.increment(leave.getEmployeeId());
+        synchronized (this) {
+            EmployeeLeaves cached = leavesByEmployee.get(leave.getEmployeeId());
+            long cachedVersion = cached != null ? cached.version() : 0L;
+            if (cachedVersion == version - 1) {
+                record(leave);
+                leavesByEmployee.computeIfPresent(leave.getEmployeeId(),
+                        (employeeId, current) -> new EmployeeLeaves(version, current.intervals()));
+            } else if (cachedVersion < version) {
+                // Another instance wrote in between; the next check reloads
+                leavesByEmployee.remove(leave.getEmployeeId());
+            }
+        }
+    }
+
+    // Called after every other leave write; rejected and cancelled leaves drop out
+    public synchronized void record(Leave leave) {
+        if (isOpen(leave)) {
+            add(leavesByEmployee, leave);
+        } else {
+            remove(leave);
+        }
+    }
+
+    public void remove(Leave leave) {
+        remove(leave.getEmployeeId(), leave.getId());
+    }
+
+    public synchronized void remove(String employeeId, String leaveId) {
+        leavesByEmployee.computeIfPresent(employeeId, (key, current) ->
+                new EmployeeLeaves(current.version(), current.intervals().without(leaveId)));
+    }
+
+    // Compares the index with the collection; with repair the index is rebuilt afterwards
+    public Map<String, Object> checkConsistency(boolean repair) {
+        long startedAt = System.currentTimeMillis();
+        List<Leave> leaves = leaveRepository.findOpenIntervals().stream().filter(this::isOpen).toList();
+        Map<String, LeaveIntervals> snapshot = leavesByEmployee.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().intervals()));
+
+        List<String> missing = new ArrayList<>();
+        Set<String> expected = new HashSet<>();
+        for (Leave leave : leaves) {
+            expected.add(leave.getId());
+            LeaveIntervals intervals = snapshot.get(leave.getEmployeeId());
+            if (intervals == null || !intervals.contains(leave.getId(), leave.getStartDate(), leave.getEndDate())) {
+                missing.add(leave.getId());
+            }
+        }
+
+        List<String> stale = new ArrayList<>();
+        int indexed = 0;
+        for (LeaveIntervals intervals : snapshot.values()) {
+            indexed += intervals.size();
+            intervals.ids().stream().filter(id -> !expected.contains(id)).forEach(stale::add);
+        }
+
+        boolean consistent = missing.isEmpty() && stale.isEmpty();
+        if (!consistent) {
+            log.warn("Leave interval index differs from the leaves collection: {} missing or changed, {} stale",
+                    missing.size(), stale.size());
+        }
+        if (repair && !consistent) {
+            rebuild();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("consistent", consistent);
+        result.put("openLeaves", leaves.size());
+        result.put("indexedLeaves", indexed);
+        result.put("missingOrChanged", missing);
+        result.put("stale", stale);
+        result.put("repaired", repair && !consistent);
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+
+    // Queried under the version read before, so a concurrent write shows up as a newer version
+    private synchronized EmployeeLeaves reload(String employeeId, long version) {
+        EmployeeLeaves current = leavesByEmployee.get(employeeId);
+        if (current != null && current.version() >= version) {
+            return current;
+        }
+        LeaveIntervals intervals = LeaveIntervals.EMPTY;
+        for (Leave leave : leaveRepository.findOpenIntervalsByEmployeeId(employeeId)) {
+            if (isOpen(leave)) {
+                intervals = intervals.with(leave.getId(), leave.getStartDate(), leave.getEndDate());
+            }
+        }
+        EmployeeLeaves reloaded = new EmployeeLeaves(version, intervals);
+        leavesByEmployee.put(employeeId, reloaded);
+        return reloaded;
+    }
+
+    private void add(Map<String, EmployeeLeaves> leaves, Leave leave) {
+        leaves.compute(leave.getEmployeeId(), (employeeId, current) -> current != null
+                ? new EmployeeLeaves(current.version(),
+                        current.intervals().with(leave.getId(), leave.getStartDate(), leave.getEndDate()))
+                : new EmployeeLeaves(0L,
+                        LeaveIntervals.EMPTY.with(leave.getId(), leave.getStartDate(), leave.getEndDate())));
+    }
+
+    private boolean isOpen(Leave leave) {
+        return OPEN_STATUSES.contains(leave.getStatus())
+                && leave.getStartDate() != null && leave.getEndDate() != null;
+    }
+}
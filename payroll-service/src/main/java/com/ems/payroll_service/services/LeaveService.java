@@ -8,13 +8,16 @@ import com.ems.payroll_service.repositories.LeaveRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,8 +25,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class LeaveService {
 
+    // Intermediate statuses of the two-step approval and cancellation
+    private static final Set<String> IN_TRANSITION = Set.of("APPROVING", "CANCELLING");
+
     private final LeaveRepository leaveRepository;
     private final EmployeeRepository employeeRepository;
+    private final WorkCalendarService workCalendarService;
+    private final LeaveIntervalIndex leaveIntervalIndex;
+
+    // A transition older than this is taken over by the recovery job
+    @Value("${leave.transition.timeout-seconds:120}")
+    private long transitionTimeoutSeconds;
 
     public List<LeaveDto> getAllLeaves() {
         log.info("Fetching all leave records");
@@ -78,17 +90,12 @@ public class LeaveService {
             throw new RuntimeException("End date cannot be before start date");
         }
 
-        // Calculate total days
-        int totalDays = (int) ChronoUnit.DAYS.between(leaveDto.getStartDate(), leaveDto.getEndDate()) + 1;
+        // Only working days of the employee's calendar count against the balance
+        int totalDays = countLeaveDays(employee, leaveDto);
         leaveDto.setTotalDays(totalDays);
 
         // Check for overlapping leaves
-        List<Leave> overlappingLeaves = leaveRepository.findOverlappingLeaves(
-                leaveDto.getEmployeeId(), leaveDto.getStartDate(), leaveDto.getEndDate());
-
-        if (!overlappingLeaves.isEmpty()) {
-            throw new RuntimeException("Leave dates overlap with existing leave application");
-        }
+        checkOverlap(leaveDto.getEmployeeId(), leaveDto.getStartDate(), leaveDto.getEndDate(), null);
 
         // Check leave balance
         if (!checkLeaveBalance(employee, leaveDto.getLeaveType(), totalDays)) {
@@ -101,6 +108,7 @@ public class LeaveService {
         leave.setStatus("PENDING");
 
         Leave savedLeave = leaveRepository.save(leave);
+        leaveIntervalIndex.recordWrite(savedLeave);
         log.info("Leave application created successfully with ID: {}", savedLeave.getId());
 
         return convertToDto(savedLeave);
@@ -116,29 +124,37 @@ public class LeaveService {
         if ("APPROVED".equals(existingLeave.getStatus())) {
             throw new RuntimeException("Cannot update approved leave");
         }
+        if (IN_TRANSITION.contains(existingLeave.getStatus())) {
+            throw new RuntimeException("Cannot update leave while it is " + existingLeave.getStatus());
+        }
+        // Approval and cancellation change the status together with the balance
+        String previousStatus = existingLeave.getStatus();
+        if (leaveDto.getStatus() != null && !"PENDING".equals(leaveDto.getStatus())
+                && !leaveDto.getStatus().equals(previousStatus)) {
+            throw new RuntimeException("Leave status can only be changed by approving, rejecting or cancelling");
+        }
 
         // Recalculate total days if dates are changed
         if (!leaveDto.getStartDate().equals(existingLeave.getStartDate()) ||
             !leaveDto.getEndDate().equals(existingLeave.getEndDate())) {
 
-            int totalDays = (int) ChronoUnit.DAYS.between(leaveDto.getStartDate(), leaveDto.getEndDate()) + 1;
-            leaveDto.setTotalDays(totalDays);
+            Employee employee = employeeRepository.findByEmployeeId(existingLeave.getEmployeeId())
+                    .orElseThrow(() -> new RuntimeException("Employee not found: " + existingLeave.getEmployeeId()));
+            leaveDto.setTotalDays(countLeaveDays(employee, leaveDto));
 
             // Check for overlapping leaves (excluding current leave)
-            List<Leave> overlappingLeaves = leaveRepository.findOverlappingLeaves(
-                    leaveDto.getEmployeeId(), leaveDto.getStartDate(), leaveDto.getEndDate())
-                    .stream()
-                    .filter(leave -> !leave.getId().equals(id))
-                    .collect(Collectors.toList());
-
-            if (!overlappingLeaves.isEmpty()) {
-                throw new RuntimeException("Leave dates overlap with existing leave application");
-            }
+            checkOverlap(existingLeave.getEmployeeId(), leaveDto.getStartDate(), leaveDto.getEndDate(), id);
         }
 
+        String previousEmployeeId = existingLeave.getEmployeeId();
         BeanUtils.copyProperties(leaveDto, existingLeave, "id", "employeeName", "appliedAt");
 
-        Leave updatedLeave = leaveRepository.save(existingLeave);
+        Leave updatedLeave = leaveRepository.replace(existingLeave, previousStatus)
+                .orElseThrow(() -> new RuntimeException("Leave was changed concurrently, please retry: " + id));
+        if (!updatedLeave.getEmployeeId().equals(previousEmployeeId)) {
+            leaveIntervalIndex.remove(previousEmployeeId, id);
+        }
+        leaveIntervalIndex.recordWrite(updatedLeave);
         log.info("Leave updated successfully: {}", updatedLeave.getId());
 
         return convertToDto(updatedLeave);
@@ -153,33 +169,36 @@ public class LeaveService {
         if ("APPROVED".equals(leave.getStatus())) {
             throw new RuntimeException("Cannot delete approved leave");
         }
+        if (IN_TRANSITION.contains(leave.getStatus())) {
+            throw new RuntimeException("Cannot delete leave while it is " + leave.getStatus());
+        }
 
-        leaveRepository.deleteById(id);
+        if (!leaveRepository.delete(id, leave.getStatus())) {
+            throw new RuntimeException("Leave was changed concurrently, please retry: " + id);
+        }
+        leaveIntervalIndex.remove(leave);
         log.info("Leave deleted successfully: {}", id);
     }
 
+    // PENDING -> APPROVING -> APPROVED around one conditional balance deduction; repeating it is safe
     public LeaveDto approveLeave(String id, String approvedBy) {
         log.info("Approving leave with ID: {} by: {}", id, approvedBy);
 
-        Leave leave = leaveRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + id));
-
-        if (!"PENDING".equals(leave.getStatus())) {
-            throw new RuntimeException("Only pending leaves can be approved");
+        Leave leave = leaveRepository.startApproval(id, approvedBy).orElse(null);
+        if (leave == null) {
+            Leave current = leaveRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + id));
+            if ("APPROVED".equals(current.getStatus())) {
+                return convertToDto(current);
+            }
+            if (!"APPROVING".equals(current.getStatus())) {
+                throw new RuntimeException("Only pending leaves can be approved");
+            }
+            // Resumes an approval interrupted after its first step
+            leave = current;
         }
 
-        // Update employee leave balance
-        Employee employee = employeeRepository.findByEmployeeId(leave.getEmployeeId())
-                .orElseThrow(() -> new RuntimeException("Employee not found: " + leave.getEmployeeId()));
-
-        deductLeaveBalance(employee, leave.getLeaveType(), leave.getTotalDays());
-        employeeRepository.save(employee);
-
-        leave.setStatus("APPROVED");
-        leave.setApprovedBy(approvedBy);
-        leave.setApprovedAt(LocalDateTime.now());
-
-        Leave approvedLeave = leaveRepository.save(leave);
+        Leave approvedLeave = completeApproval(leave);
         log.info("Leave approved successfully: {}", approvedLeave.getId());
 
         return convertToDto(approvedLeave);
@@ -188,51 +207,70 @@ public class LeaveService {
     public LeaveDto rejectLeave(String id, String rejectedBy, String rejectionReason) {
         log.info("Rejecting leave with ID: {} by: {}", id, rejectedBy);
 
-        Leave leave = leaveRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + id));
-
-        if (!"PENDING".equals(leave.getStatus())) {
+        Leave rejectedLeave = leaveRepository.reject(id, rejectedBy, rejectionReason).orElse(null);
+        if (rejectedLeave == null) {
+            leaveRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + id));
             throw new RuntimeException("Only pending leaves can be rejected");
         }
-
-        leave.setStatus("REJECTED");
-        leave.setApprovedBy(rejectedBy);
-        leave.setApprovedAt(LocalDateTime.now());
-        leave.setRejectionReason(rejectionReason);
-
-        Leave rejectedLeave = leaveRepository.save(leave);
+        leaveIntervalIndex.record(rejectedLeave);
         log.info("Leave rejected successfully: {}", rejectedLeave.getId());
 
         return convertToDto(rejectedLeave);
     }
 
+    // An approved leave goes APPROVED -> CANCELLING -> CANCELLED around one conditional balance restore
     public LeaveDto cancelLeave(String id) {
         log.info("Cancelling leave with ID: {}", id);
 
         Leave leave = leaveRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + id));
 
-        if ("CANCELLED".equals(leave.getStatus())) {
-            throw new RuntimeException("Leave is already cancelled");
-        }
-
-        // If leave was approved, restore the leave balance
-        if ("APPROVED".equals(leave.getStatus())) {
-            Employee employee = employeeRepository.findByEmployeeId(leave.getEmployeeId())
-                    .orElseThrow(() -> new RuntimeException("Employee not found: " + leave.getEmployeeId()));
-
-            restoreLeaveBalance(employee, leave.getLeaveType(), leave.getTotalDays());
-            employeeRepository.save(employee);
-        }
-
-        leave.setStatus("CANCELLED");
-
-        Leave cancelledLeave = leaveRepository.save(leave);
+        Leave cancelledLeave = switch (leave.getStatus()) {
+            case "CANCELLED" -> throw new RuntimeException("Leave is already cancelled");
+            case "APPROVING" -> throw new RuntimeException("Leave approval is in progress");
+            // Resumes a cancellation interrupted after its first step
+            case "CANCELLING" -> completeCancellation(leave);
+            case "APPROVED" -> {
+                trackLegacyDeduction(leave);
+                yield completeCancellation(leaveRepository.startCancellation(id)
+                        .orElseThrow(() -> new RuntimeException("Leave was changed concurrently, please retry: " + id)));
+            }
+            default -> {
+                Leave cancelled = leaveRepository.cancel(id, leave.getStatus())
+                        .orElseThrow(() -> new RuntimeException("Leave was changed concurrently, please retry: " + id));
+                leaveIntervalIndex.record(cancelled);
+                yield cancelled;
+            }
+        };
         log.info("Leave cancelled successfully: {}", cancelledLeave.getId());
 
         return convertToDto(cancelledLeave);
     }
 
+    // Finishes approvals and cancellations left half-done by a crash or a lost connection
+    @Scheduled(fixedDelayString = "${leave.transition.recovery-interval-ms:60000}")
+    public void recoverTransitions() {
+        try {
+            List<Leave> stuck = leaveRepository.findByStatusInAndTransitionStartedAtBefore(
+                    List.copyOf(IN_TRANSITION), LocalDateTime.now().minusSeconds(transitionTimeoutSeconds));
+            for (Leave leave : stuck) {
+                try {
+                    if ("APPROVING".equals(leave.getStatus())) {
+                        completeApproval(leave);
+                    } else {
+                        completeCancellation(leave);
+                    }
+                    log.info("Recovered {} leave {}", leave.getStatus(), leave.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Leave {} left {}: {}", leave.getId(), leave.getStatus(), e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error recovering leave transitions: {}", e.getMessage());
+        }
+    }
+
     public int getLeaveBalance(String employeeId, String leaveType) {
         Employee employee = employeeRepository.findByEmployeeId(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
@@ -245,6 +283,45 @@ public class LeaveService {
         };
     }
 
+    public Map<String, Object> checkIndexConsistency(boolean repair) {
+        log.info("Checking leave interval index against the leaves collection, repair: {}", repair);
+        return leaveIntervalIndex.checkConsistency(repair);
+    }
+
+    // The index is current up to the employee's leave version; a hit is still confirmed against the
+    // collection, since leaves closed on other instances only drop out of the index on the next rebuild
+    private void checkOverlap(String employeeId, LocalDate startDate, LocalDate endDate, String excludedId) {
+        List<String> candidates = leaveIntervalIndex.findOverlapping(employeeId, startDate, endDate)
+                .stream()
+                .filter(leaveId -> !leaveId.equals(excludedId))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<String> overlapping = leaveRepository.findOverlappingLeaves(employeeId, startDate, endDate)
+                .stream()
+                .map(Leave::getId)
+                .filter(leaveId -> !leaveId.equals(excludedId))
+                .collect(Collectors.toSet());
+        candidates.stream()
+                .filter(leaveId -> !overlapping.contains(leaveId))
+                .forEach(leaveId -> leaveIntervalIndex.remove(employeeId, leaveId));
+
+        if (!overlapping.isEmpty()) {
+            throw new RuntimeException("Leave dates overlap with existing leave application");
+        }
+    }
+
+    private int countLeaveDays(Employee employee, LeaveDto leaveDto) {
+        int days = workCalendarService.workingDays(employee.getDepartment(),
+                leaveDto.getStartDate(), leaveDto.getEndDate());
+        if (days == 0) {
+            throw new RuntimeException("Leave period has no working days");
+        }
+        return days;
+    }
+
     private boolean checkLeaveBalance(Employee employee, String leaveType, int requestedDays) {
         int currentBalance = switch (leaveType.toUpperCase()) {
             case "ANNUAL" -> employee.getAnnualLeaveBalance();
@@ -257,36 +334,71 @@ public class LeaveService {
         return currentBalance >= requestedDays;
     }
 
-    private void deductLeaveBalance(Employee employee, String leaveType, int days) {
-        switch (leaveType.toUpperCase()) {
-            case "ANNUAL":
-                employee.setAnnualLeaveBalance(employee.getAnnualLeaveBalance() - days);
-                break;
-            case "SICK":
-                employee.setSickLeaveBalance(employee.getSickLeaveBalance() - days);
-                break;
-            case "CASUAL":
-                employee.setCasualLeaveBalance(employee.getCasualLeaveBalance() - days);
-                break;
-            // No deduction for MATERNITY, PATERNITY, EMERGENCY
+    // Deducts unless this leave was already deducted, then moves it to APPROVED
+    private Leave completeApproval(Leave leave) {
+        String balanceField = balanceField(leave.getLeaveType());
+        boolean deductedNow = false;
+        if (balanceField != null) {
+            deductedNow = employeeRepository.deductLeaveBalance(leave.getEmployeeId(), balanceField,
+                    leave.getTotalDays(), leave.getId()).isPresent();
+            if (!deductedNow && !employeeRepository.isLeaveDeducted(leave.getEmployeeId(), leave.getId())) {
+                leaveRepository.abortApproval(leave.getId());
+                employeeRepository.findByEmployeeId(leave.getEmployeeId())
+                        .orElseThrow(() -> new RuntimeException("Employee not found: " + leave.getEmployeeId()));
+                throw new RuntimeException("Insufficient leave balance for " + leave.getLeaveType());
+            }
+        }
+
+        Leave approvedLeave = leaveRepository.completeApproval(leave.getId())
+                .or(() -> leaveRepository.findById(leave.getId()))
+                .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + leave.getId()));
+        // Aborted meanwhile by the recovery job, so the days taken by this call go back
+        if (!"APPROVED".equals(approvedLeave.getStatus())) {
+            if (deductedNow) {
+                employeeRepository.restoreLeaveBalance(leave.getEmployeeId(), balanceField, leave.getTotalDays(),
+                        leave.getId());
+            }
+            throw new RuntimeException("Leave was changed concurrently, please retry: " + leave.getId());
+        }
+        leaveIntervalIndex.record(approvedLeave);
+        return approvedLeave;
+    }
+
+    // Restores unless this leave was already restored, then moves it to CANCELLED
+    private Leave completeCancellation(Leave leave) {
+        String balanceField = balanceField(leave.getLeaveType());
+        if (balanceField != null) {
+            employeeRepository.restoreLeaveBalance(leave.getEmployeeId(), balanceField, leave.getTotalDays(),
+                            leave.getId())
+                    .ifPresent(employee -> log.info("Restored {} {} days to employee {}", leave.getTotalDays(),
+                            leave.getLeaveType(), employee.getEmployeeId()));
         }
+
+        Leave cancelledLeave = leaveRepository.completeCancellation(leave.getId())
+                .or(() -> leaveRepository.findById(leave.getId()))
+                .orElseThrow(() -> new RuntimeException("Leave not found with ID: " + leave.getId()));
+        leaveIntervalIndex.record(cancelledLeave);
+        return cancelledLeave;
     }
 
-    private void restoreLeaveBalance(Employee employee, String leaveType, int days) {
-        switch (leaveType.toUpperCase()) {
-            case "ANNUAL":
-                employee.setAnnualLeaveBalance(employee.getAnnualLeaveBalance() + days);
-                break;
-            case "SICK":
-                employee.setSickLeaveBalance(employee.getSickLeaveBalance() + days);
-                break;
-            case "CASUAL":
-                employee.setCasualLeaveBalance(employee.getCasualLeaveBalance() + days);
-                break;
-            // No restoration for MATERNITY, PATERNITY, EMERGENCY
+    // Leaves approved before deductions were tracked are recorded as deducted, so cancelling restores them
+    private void trackLegacyDeduction(Leave leave) {
+        String balanceField = balanceField(leave.getLeaveType());
+        if (balanceField != null) {
+            employeeRepository.markLeaveDeducted(leave.getEmployeeId(), leave.getId());
         }
     }
 
+    // No balance is kept for MATERNITY, PATERNITY, EMERGENCY
+    private String balanceField(String leaveType) {
+        return switch (leaveType.toUpperCase()) {
+            case "ANNUAL" -> "annualLeaveBalance";
+            case "SICK" -> "sickLeaveBalance";
+            case "CASUAL" -> "casualLeaveBalance";
+            default -> null;
+        };
+    }
+
     private LeaveDto convertToDto(Leave leave) {
         LeaveDto dto = new LeaveDto();
         BeanUtils.copyProperties(leave, dto);
@@ -0,0 +1,129 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.calculation.CompiledRuleSet;
+import com.ems.payroll_service.dto.PayrollRuleSetDto;
+import com.ems.payroll_service.models.PayrollRuleSet;
+import com.ems.payroll_service.repositories.PayrollRuleSetRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollRuleService {
+
+    private final PayrollRuleSetRepository payrollRuleSetRepository;
+
+    // Swapped as a whole when the active version changes
+    private volatile CompiledRuleSet rules = CompiledRuleSet.defaults();
+
+    public CompiledRuleSet getRules() {
+        return rules;
+    }
+
+    // Active rules, or a specific stored version compiled on the fly
+    public CompiledRuleSet getRules(Long version) {
+        CompiledRuleSet current = rules;
+        if (version == null || version == current.getVersion()) {
+            return current;
+        }
+        if (version == 0L) {
+            return CompiledRuleSet.defaults();
+        }
+
+        PayrollRuleSet ruleSet = payrollRuleSetRepository.findByVersion(version)
+                .orElseThrow(() -> new RuntimeException("Payroll rule set not found with version: " + version));
+        return CompiledRuleSet.compile(version, ruleSet.getRules());
+    }
+
+    public List<PayrollRuleSetDto> getAllRuleSets() {
+        log.info("Fetching all payroll rule sets");
+        return payrollRuleSetRepository.findAllByOrderByVersionDesc()
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<PayrollRuleSetDto> getActiveRuleSet() {
+        return payrollRuleSetRepository.findFirstByActiveTrueOrderByVersionDesc()
+                .map(this::convertToDto);
+    }
+
+    public PayrollRuleSetDto createRuleSet(PayrollRuleSetDto ruleSetDto) {
+        long version = payrollRuleSetRepository.findFirstByOrderByVersionDesc()
+                .map(PayrollRuleSet::getVersion)
+                .orElse(0L) + 1;
+        log.info("Creating payroll rule set version: {}", version);
+
+        // Compiling validates the rules before anything is stored
+        CompiledRuleSet compiled = CompiledRuleSet.compile(version, ruleSetDto.getRules());
+
+        PayrollRuleSet ruleSet = new PayrollRuleSet();
+        BeanUtils.copyProperties(ruleSetDto, ruleSet, "id", "version", "active", "createdAt");
+        ruleSet.setVersion(version);
+        ruleSet.setActive(true);
+        ruleSet.setCreatedAt(LocalDateTime.now());
+
+        deactivateAll();
+        PayrollRuleSet savedRuleSet = payrollRuleSetRepository.save(ruleSet);
+        rules = compiled;
+
+        log.info("Payroll rule set version {} is now active", version);
+        return convertToDto(savedRuleSet);
+    }
+
+    public PayrollRuleSetDto activateVersion(Long version) {
+        log.info("Activating payroll rule set version: {}", version);
+
+        PayrollRuleSet ruleSet = payrollRuleSetRepository.findByVersion(version)
+                .orElseThrow(() -> new RuntimeException("Payroll rule set not found with version: " + version));
+
+        CompiledRuleSet compiled = CompiledRuleSet.compile(version, ruleSet.getRules());
+
+        deactivateAll();
+        ruleSet.setActive(true);
+        PayrollRuleSet savedRuleSet = payrollRuleSetRepository.save(ruleSet);
+        rules = compiled;
+
+        return convertToDto(savedRuleSet);
+    }
+
+    // Picks up versions activated by other instances; recompiles only when the version moved
+    @Scheduled(fixedDelayString = "${payroll.rules.refresh-interval-ms:30000}")
+    public void refreshRules() {
+        try {
+            Optional<PayrollRuleSet> active = payrollRuleSetRepository.findFirstByActiveTrueOrderByVersionDesc();
+            long activeVersion = active.map(PayrollRuleSet::getVersion).orElse(0L);
+            if (activeVersion == rules.getVersion()) {
+                return;
+            }
+
+            rules = active
+                    .map(ruleSet -> CompiledRuleSet.compile(ruleSet.getVersion(), ruleSet.getRules()))
+                    .orElseGet(CompiledRuleSet::defaults);
+            log.info("Loaded payroll rule set version {}", activeVersion);
+        } catch (RuntimeException e) {
+            log.error("Error refreshing payroll rules, keeping version {}: {}", rules.getVersion(), e.getMessage());
+        }
+    }
+
+    private void deactivateAll() {
+        List<PayrollRuleSet> activeRuleSets = payrollRuleSetRepository.findByActiveTrue();
+        activeRuleSets.forEach(ruleSet -> ruleSet.setActive(false));
+        payrollRuleSetRepository.saveAll(activeRuleSets);
+    }
+
+    private PayrollRuleSetDto convertToDto(PayrollRuleSet ruleSet) {
+        PayrollRuleSetDto dto = new PayrollRuleSetDto();
+        BeanUtils.copyProperties(ruleSet, dto);
+        return dto;
+    }
+}
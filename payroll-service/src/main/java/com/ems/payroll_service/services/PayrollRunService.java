@@ -0,0 +1,227 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.PayrollRunDto;
+import com.ems.payroll_service.dto.PayrollRunSummaryDto;
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.models.PayrollRun;
+import com.ems.payroll_service.repositories.EmployeeRepository;
+import com.ems.payroll_service.repositories.PayrollRunRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollRunService {
+
+    private static final int MAX_RECORDED_FAILURES = 1000;
+
+    private final PayrollRunRepository payrollRunRepository;
+    private final EmployeeRepository employeeRepository;
+    private final PayrollService payrollService;
+
+    private final String workerId = UUID.randomUUID().toString();
+    private final ExecutorService runExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payroll-run");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> queuedRunIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${payroll.run.default-chunk-size:500}")
+    private int defaultChunkSize;
+
+    @Value("${payroll.run.lease-seconds:120}")
+    private long leaseSeconds;
+
+    public List<PayrollRunDto> getRunsByPeriod(String payPeriod) {
+        log.info("Fetching payroll runs for period: {}", payPeriod);
+        return payrollRunRepository.findByPayPeriod(payPeriod)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<PayrollRunDto> getRunById(String id) {
+        return payrollRunRepository.findById(id)
+                .map(this::convertToDto);
+    }
+
+    public PayrollRunDto startRun(String payPeriod, Integer chunkSize) {
+        log.info("Starting payroll run for period: {}", payPeriod);
+
+        YearMonth.parse(payPeriod);
+        if (chunkSize != null && chunkSize <= 0) {
+            throw new RuntimeException("Chunk size must be positive");
+        }
+
+        PayrollRun run = new PayrollRun();
+        run.setPayPeriod(payPeriod);
+        run.setStatus("PENDING");
+        run.setChunkSize(chunkSize != null ? chunkSize : defaultChunkSize);
+        run.setTotalEmployees(employeeRepository.countByStatus("ACTIVE"));
+        run.setCreatedAt(LocalDateTime.now());
+        run.setUpdatedAt(run.getCreatedAt());
+
+        PayrollRun savedRun = payrollRunRepository.save(run);
+        submit(savedRun.getId());
+
+        log.info("Payroll run created with ID: {}", savedRun.getId());
+        return convertToDto(savedRun);
+    }
+
+    public PayrollRunDto cancelRun(String id) {
+        log.info("Cancelling payroll run: {}", id);
+
+        if (!payrollRunRepository.cancel(id)) {
+            throw new RuntimeException("Only pending or running payroll runs can be cancelled");
+        }
+
+        return getRunById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with ID: " + id));
+    }
+
+    public PayrollRunDto resumeRun(String id) {
+        log.info("Resuming payroll run: {}", id);
+
+        PayrollRun run = payrollRunRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with ID: " + id));
+
+        if ("COMPLETED".equals(run.getStatus())) {
+            throw new RuntimeException("Payroll run is already completed");
+        }
+        // Claims only take pending runs, so a stopped run is explicitly made pending again
+        if (("FAILED".equals(run.getStatus()) || "CANCELLED".equals(run.getStatus()))
+                && !payrollRunRepository.reset(id)) {
+            throw new RuntimeException("Payroll run status changed concurrently, please retry");
+        }
+
+        submit(id);
+        return getRunById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll run not found with ID: " + id));
+    }
+
+    // Runs left behind by a stopped instance pick up from their checkpoint once their lease expires;
+    // also runs at startup, and again until a restarted instance's old lease has expired
+    @Scheduled(fixedDelayString = "${payroll.run.recovery-interval-ms:60000}")
+    public void resumeInterruptedRuns() {
+        try {
+            LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(leaseSeconds);
+            List<PayrollRun> interrupted = new ArrayList<>(
+                    payrollRunRepository.findByStatusAndHeartbeatAtBefore("RUNNING", staleBefore));
+            interrupted.addAll(payrollRunRepository.findByStatusAndUpdatedAtBefore("PENDING", staleBefore));
+
+            interrupted.forEach(run -> {
+                log.info("Found interrupted payroll run {} for period {}", run.getId(), run.getPayPeriod());
+                submit(run.getId());
+            });
+        } catch (RuntimeException e) {
+            log.error("Error resuming interrupted payroll runs: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+    }
+
+    // A run already queued here is not queued again by the next sweep
+    private void submit(String runId) {
+        if (!queuedRunIds.add(runId)) {
+            return;
+        }
+        runExecutor.submit(() -> {
+            try {
+                process(runId);
+            } finally {
+                queuedRunIds.remove(runId);
+            }
+        });
+    }
+
+    private void process(String runId) {
+        LocalDateTime staleBefore = LocalDateTime.now().minusSeconds(leaseSeconds);
+        PayrollRun run = payrollRunRepository.claim(runId, workerId, staleBefore).orElse(null);
+        if (run == null) {
+            log.info("Payroll run {} is completed or owned by another worker, not resuming", runId);
+            return;
+        }
+
+        log.info("Processing payroll run {} for period {} from checkpoint '{}'",
+                runId, run.getPayPeriod(), run.getLastEmployeeId());
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                String lastEmployeeId = run.getLastEmployeeId() != null ? run.getLastEmployeeId() : "";
+                List<Employee> chunk = employeeRepository.findByStatusAndEmployeeIdGreaterThanOrderByEmployeeIdAsc(
+                        "ACTIVE", lastEmployeeId, PageRequest.of(0, run.getChunkSize()));
+
+                if (chunk.isEmpty()) {
+                    payrollRunRepository.finish(run, "COMPLETED");
+                    log.info("Payroll run {} completed: {} generated, {} skipped, {} failed at {} employees/sec",
+                            runId, run.getGeneratedCount(), run.getSkippedCount(), run.getFailedCount(),
+                            String.format("%.1f", run.getEmployeesPerSecond()));
+                    return;
+                }
+
+                PayrollRunSummaryDto result = payrollService.generatePayrollChunk(run.getPayPeriod(), chunk);
+                applyChunk(run, chunk, result);
+
+                if (!payrollRunRepository.checkpoint(run)) {
+                    log.info("Payroll run {} was cancelled or taken over, stopping", runId);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Payroll run {} failed: {}", runId, e.getMessage());
+            run.setErrorMessage(e.getMessage());
+            payrollRunRepository.finish(run, "FAILED");
+        }
+    }
+
+    private void applyChunk(PayrollRun run, List<Employee> chunk, PayrollRunSummaryDto result) {
+        run.setProcessedEmployees(run.getProcessedEmployees() + chunk.size());
+        run.setGeneratedCount(run.getGeneratedCount() + result.getGenerated());
+        run.setSkippedCount(run.getSkippedCount() + result.getSkipped());
+        run.setFailedCount(run.getFailedCount() + result.getFailed());
+        result.getFailures().forEach((employeeId, message) -> {
+            if (run.getFailures().size() < MAX_RECORDED_FAILURES) {
+                run.getFailures().add(employeeId + ": " + message);
+            }
+        });
+
+        run.setLastEmployeeId(chunk.get(chunk.size() - 1).getEmployeeId());
+        run.setElapsedMillis(run.getElapsedMillis() + result.getElapsedMillis());
+        if (run.getElapsedMillis() > 0) {
+            run.setEmployeesPerSecond(run.getProcessedEmployees() * 1000.0 / run.getElapsedMillis());
+        }
+    }
+
+    private PayrollRunDto convertToDto(PayrollRun run) {
+        PayrollRunDto dto = new PayrollRunDto();
+        BeanUtils.copyProperties(run, dto);
+        if (run.getTotalEmployees() > 0) {
+            dto.setProgressPercent(Math.min(100.0, run.getProcessedEmployees() * 100.0 / run.getTotalEmployees()));
+        }
+        return dto;
+    }
+}
@@ -1,22 +1,50 @@
 package com.ems.payroll_service.services;
 
+import com.ems.payroll_service.calculation.CompiledRuleSet;
+import com.ems.payroll_service.calculation.Money;
+import com.ems.payroll_service.calculation.PayrollCalculator;
+import com.ems.payroll_service.calculation.PayrollComputation;
+import com.ems.payroll_service.dto.PayrollBatchResultDto;
+import com.ems.payroll_service.dto.PayrollBatchTransitionDto;
 import com.ems.payroll_service.dto.PayrollDto;
+import com.ems.payroll_service.dto.PayrollPageDto;
+import com.ems.payroll_service.dto.PayrollRunSummaryDto;
+import com.ems.payroll_service.models.AttendanceSummary;
 import com.ems.payroll_service.models.Employee;
 import com.ems.payroll_service.models.Payroll;
 import com.ems.payroll_service.repositories.EmployeeRepository;
 import com.ems.payroll_service.repositories.PayrollRepository;
+import com.ems.payroll_service.repositories.PayrollRepositoryCustom;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.result.UpdateResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,14 +54,32 @@ public class PayrollService {
 
     private final PayrollRepository payrollRepository;
     private final EmployeeRepository employeeRepository;
-    private final AttendanceService attendanceService;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollRuleService payrollRuleService;
+    private final PayrollSummaryService payrollSummaryService;
+    private final PayrollYtdService payrollYtdService;
+    private final WorkCalendarService workCalendarService;
+    private final WorkPolicyService workPolicyService;
+
+    private static final int BATCH_INSERT_SIZE = 1000;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String CURSOR_SEPARATOR = "\n";
+
+    public PayrollPageDto getPayrolls(String cursor, Integer limit) {
+        log.info("Fetching payroll page after cursor: {}", cursor);
+        return getPayrollPage(null, null, cursor, limit);
+    }
 
-    public List<PayrollDto> getAllPayrolls() {
-        log.info("Fetching all payrolls");
-        return payrollRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public PayrollPageDto getPayrollsByEmployeeId(String employeeId, String cursor, Integer limit) {
+        log.info("Fetching payroll page for employee: {}", employeeId);
+        return getPayrollPage(employeeId, null, cursor, limit);
+    }
+
+    public PayrollPageDto getPayrollsByPeriod(String payPeriod, String cursor, Integer limit) {
+        log.info("Fetching payroll page for period: {}", payPeriod);
+        return getPayrollPage(null, payPeriod, cursor, limit);
     }
 
     public Optional<PayrollDto> getPayrollById(String id) {
@@ -66,15 +112,6 @@ public class PayrollService {
         Employee employee = employeeRepository.findByEmployeeId(payrollDto.getEmployeeId())
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + payrollDto.getEmployeeId()));
 
-        // Check if payroll already exists for this employee and period
-        Optional<Payroll> existingPayroll = payrollRepository
-                .findByEmployeeIdAndPayPeriod(payrollDto.getEmployeeId(), payrollDto.getPayPeriod());
-
-        if (existingPayroll.isPresent()) {
-            throw new RuntimeException("Payroll already exists for employee " +
-                    payrollDto.getEmployeeId() + " for period " + payrollDto.getPayPeriod());
-        }
-
         Payroll payroll = convertToEntity(payrollDto);
         payroll.setEmployeeName(employee.getFullName());
         payroll.setCreatedAt(LocalDateTime.now());
@@ -86,7 +123,9 @@ public class PayrollService {
             calculateTotals(payroll);
         }
 
-        Payroll savedPayroll = payrollRepository.save(payroll);
+        // The unique (employeeId, payPeriod) index rejects duplicates, no lookup beforehand
+        Payroll savedPayroll = insertPayroll(payroll);
+        payrollSummaryService.recordCreated(savedPayroll);
         log.info("Payroll created successfully with ID: {}", savedPayroll.getId());
 
         return convertToDto(savedPayroll);
@@ -102,13 +141,26 @@ public class PayrollService {
         if ("APPROVED".equals(existingPayroll.getStatus()) || "PAID".equals(existingPayroll.getStatus())) {
             throw new RuntimeException("Cannot update payroll that is already approved or paid");
         }
+        if (!"DRAFT".equals(existingPayroll.getStatus())) {
+            throw new RuntimeException("Only draft payrolls can be updated");
+        }
+        // Approval, payment and cancellation move the status together with the summary and YTD totals
+        if (payrollDto.getStatus() != null && !"DRAFT".equals(payrollDto.getStatus())) {
+            throw new RuntimeException("Payroll status can only be changed by approving, paying or cancelling");
+        }
+
+        Payroll before = new Payroll();
+        BeanUtils.copyProperties(existingPayroll, before);
 
-        BeanUtils.copyProperties(payrollDto, existingPayroll, "id", "createdAt", "employeeName");
+        BeanUtils.copyProperties(payrollDto, existingPayroll, "id", "createdAt", "employeeName", "status");
         existingPayroll.setUpdatedAt(LocalDateTime.now());
 
         calculateTotals(existingPayroll);
 
-        Payroll updatedPayroll = payrollRepository.save(existingPayroll);
+        // Conditional on DRAFT, so a concurrent approval is never written back to DRAFT
+        Payroll updatedPayroll = payrollRepository.replace(existingPayroll, "DRAFT")
+                .orElseThrow(() -> new RuntimeException("Payroll status changed concurrently, please retry"));
+        payrollSummaryService.recordUpdated(before, updatedPayroll);
         log.info("Payroll updated successfully: {}", updatedPayroll.getId());
 
         return convertToDto(updatedPayroll);
@@ -125,6 +177,7 @@ public class PayrollService {
         }
 
         payrollRepository.deleteById(id);
+        payrollSummaryService.recordDeleted(payroll);
         log.info("Payroll deleted successfully: {}", id);
     }
 
@@ -138,15 +191,181 @@ public class PayrollService {
             throw new RuntimeException("Only draft payrolls can be approved");
         }
 
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Update update = new Update()
+                .set("status", "APPROVED")
+                .set("approvedBy", approvedBy)
+                .set("approvedAt", now)
+                .set("updatedAt", now);
+
+        // Conditional on DRAFT so concurrent approvals reach the YTD accumulators once
+        if (payrollRepository.transitionStatus(null, List.of(id), "DRAFT", update).getModifiedCount() == 0) {
+            throw new RuntimeException("Only draft payrolls can be approved");
+        }
+
         payroll.setStatus("APPROVED");
         payroll.setApprovedBy(approvedBy);
-        payroll.setApprovedAt(LocalDateTime.now());
-        payroll.setUpdatedAt(LocalDateTime.now());
+        payroll.setApprovedAt(now);
+        payroll.setUpdatedAt(now);
+
+        payrollSummaryService.recordStatusChange(payroll.getPayPeriod(), "DRAFT", "APPROVED", 1);
+        payrollYtdService.recordApproved(payroll);
+        log.info("Payroll approved successfully: {}", payroll.getId());
+
+        return convertToDto(payroll);
+    }
+
+    public PayrollDto cancelPayroll(String id) {
+        log.info("Cancelling payroll with ID: {}", id);
+
+        Payroll payroll = payrollRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Payroll not found with ID: " + id));
+
+        String fromStatus = payroll.getStatus();
+        if (!"DRAFT".equals(fromStatus) && !"APPROVED".equals(fromStatus)) {
+            throw new RuntimeException("Only draft or approved payrolls can be cancelled");
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Update update = new Update()
+                .set("status", "CANCELLED")
+                .set("updatedAt", now);
+
+        if (payrollRepository.transitionStatus(null, List.of(id), fromStatus, update).getModifiedCount() == 0) {
+            throw new RuntimeException("Payroll status changed concurrently, please retry");
+        }
+
+        payroll.setStatus("CANCELLED");
+        payroll.setUpdatedAt(now);
+
+        payrollSummaryService.recordStatusChange(payroll.getPayPeriod(), fromStatus, "CANCELLED", 1);
+        if ("APPROVED".equals(fromStatus)) {
+            payrollYtdService.recordCancelled(payroll);
+        }
+        log.info("Payroll cancelled successfully: {}", id);
+
+        return convertToDto(payroll);
+    }
+
+    public PayrollBatchResultDto approvePayrolls(PayrollBatchTransitionDto request) {
+        log.info("Batch approving payrolls for period: {} ids: {} by: {}", request.getPayPeriod(),
+                request.getIds() != null ? request.getIds().size() : 0, request.getApprovedBy());
+
+        if (request.getApprovedBy() == null || request.getApprovedBy().isBlank()) {
+            throw new RuntimeException("approvedBy is required");
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String batchId = UUID.randomUUID().toString();
+        Update update = new Update()
+                .set("status", "APPROVED")
+                .set("approvedBy", request.getApprovedBy())
+                .set("approvedAt", now)
+                .set("updatedAt", now)
+                .set(PayrollRepositoryCustom.TRANSITION_BATCH_ID, batchId);
+
+        return transitionPayrolls(request, "DRAFT", "APPROVED", batchId,
+                ids -> payrollRepository.transitionStatus(request.getPayPeriod(), ids, "DRAFT", update));
+    }
+
+    public PayrollBatchResultDto markPayrollsPaid(PayrollBatchTransitionDto request) {
+        log.info("Batch marking payrolls paid for period: {} ids: {}", request.getPayPeriod(),
+                request.getIds() != null ? request.getIds().size() : 0);
+
+        Map<String, String> references = request.getPaymentReferences();
+        boolean perPayrollReferences = references != null && !references.isEmpty();
+        if (!perPayrollReferences && (request.getPaymentReference() == null || request.getPaymentReference().isBlank())) {
+            throw new RuntimeException("paymentReference or paymentReferences is required");
+        }
+        if (perPayrollReferences && (request.getIds() == null || request.getIds().isEmpty())) {
+            request.setIds(new ArrayList<>(references.keySet()));
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String batchId = UUID.randomUUID().toString();
+
+        if (perPayrollReferences) {
+            // Distinct reference per payroll: a chunked unordered bulk write of conditional updates
+            return transitionPayrolls(request, "APPROVED", "PAID", batchId, ids -> {
+                Map<String, Update> updatesById = new LinkedHashMap<>();
+                for (String id : ids) {
+                    String reference = references.get(id);
+                    if (reference != null) {
+                        updatesById.put(id, new Update()
+                                .set("status", "PAID")
+                                .set("paymentReference", reference)
+                                .set("updatedAt", now)
+                                .set(PayrollRepositoryCustom.TRANSITION_BATCH_ID, batchId));
+                    }
+                }
+                return payrollRepository.transitionStatusEach(updatesById, "APPROVED");
+            });
+        }
+
+        Update update = new Update()
+                .set("status", "PAID")
+                .set("paymentReference", request.getPaymentReference())
+                .set("updatedAt", now)
+                .set(PayrollRepositoryCustom.TRANSITION_BATCH_ID, batchId);
+
+        return transitionPayrolls(request, "APPROVED", "PAID", batchId,
+                ids -> payrollRepository.transitionStatus(request.getPayPeriod(), ids, "APPROVED", update));
+    }
+
+    private PayrollBatchResultDto transitionPayrolls(PayrollBatchTransitionDto request, String fromStatus,
+                                                     String toStatus, String batchId,
+                                                     Function<List<String>, UpdateResult> transition) {
+        List<String> ids = request.getIds() != null ? request.getIds() : List.of();
+        if (request.getPayPeriod() == null && ids.isEmpty()) {
+            throw new RuntimeException("payPeriod or ids is required");
+        }
+
+        long startedAt = System.nanoTime();
+        PayrollBatchResultDto result = new PayrollBatchResultDto();
+        result.setFromStatus(fromStatus);
+        result.setToStatus(toStatus);
+
+        // A whole period is one updateMulti, explicit ids are chunked to keep $in lists bounded
+        List<List<String>> chunks = new ArrayList<>();
+        if (ids.isEmpty()) {
+            chunks.add(List.of());
+        } else {
+            for (int from = 0; from < ids.size(); from += BATCH_INSERT_SIZE) {
+                chunks.add(ids.subList(from, Math.min(from + BATCH_INSERT_SIZE, ids.size())));
+            }
+        }
+
+        List<Payroll> transitioned = new ArrayList<>();
+        for (List<String> chunk : chunks) {
+            UpdateResult updateResult = transition.apply(chunk);
+            result.setMatched(result.getMatched() + updateResult.getMatchedCount());
+            result.setModified(result.getModified() + updateResult.getModifiedCount());
+            List<Payroll> moved = payrollRepository.findTransitioned(request.getPayPeriod(), chunk, batchId);
+            payrollRepository.clearTransitionBatch(moved.stream().map(Payroll::getId).toList(), batchId);
+            transitioned.addAll(moved);
+        }
 
-        Payroll approvedPayroll = payrollRepository.save(payroll);
-        log.info("Payroll approved successfully: {}", approvedPayroll.getId());
+        transitioned.stream()
+                .collect(Collectors.groupingBy(Payroll::getPayPeriod, Collectors.counting()))
+                .forEach((payPeriod, count) ->
+                        payrollSummaryService.recordStatusChange(payPeriod, fromStatus, toStatus, count));
+        if ("APPROVED".equals(toStatus)) {
+            payrollYtdService.recordApproved(transitioned);
+        }
 
-        return convertToDto(approvedPayroll);
+        if (!ids.isEmpty()) {
+            Set<String> transitionedIds = transitioned.stream()
+                    .map(Payroll::getId)
+                    .collect(Collectors.toSet());
+            ids.stream()
+                    .filter(id -> !transitionedIds.contains(id))
+                    .forEach(result.getSkippedIds()::add);
+        }
+
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        log.info("Batch {} -> {}: matched {}, modified {}, skipped {}", fromStatus, toStatus,
+                result.getMatched(), result.getModified(), result.getSkippedIds().size());
+        return result;
     }
 
     public PayrollDto generatePayrollForEmployee(String employeeId, String payPeriod) {
@@ -155,108 +374,226 @@ public class PayrollService {
         Employee employee = employeeRepository.findByEmployeeId(employeeId)
                 .orElseThrow(() -> new RuntimeException("Employee not found: " + employeeId));
 
-        // Check if payroll already exists
-        Optional<Payroll> existingPayroll = payrollRepository
-                .findByEmployeeIdAndPayPeriod(employeeId, payPeriod);
+        Payroll payroll = newDraftPayroll(employee, payPeriod);
+        calculatePayroll(payroll, employee);
+
+        Payroll savedPayroll = insertPayroll(payroll);
+        payrollSummaryService.recordCreated(savedPayroll);
+        return convertToDto(savedPayroll);
+    }
+
+    public PayrollRunSummaryDto generatePayrollBatch(String payPeriod) {
+        log.info("Generating payroll batch for period: {}", payPeriod);
+        long startedAt = System.nanoTime();
+
+        YearMonth period = YearMonth.parse(payPeriod);
+
+        // One query per collection instead of several round trips per employee
+        List<Employee> employees = employeeRepository.findByStatus("ACTIVE");
+        Set<String> existingEmployeeIds = payrollRepository.findEmployeeIdsByPayPeriod(payPeriod)
+                .stream()
+                .map(Payroll::getEmployeeId)
+                .collect(Collectors.toSet());
+        Map<String, AttendanceSummary> attendance = attendanceMonthlyService.getSummaries(period);
 
-        if (existingPayroll.isPresent()) {
-            throw new RuntimeException("Payroll already exists for employee " + employeeId +
-                    " for period " + payPeriod);
+        PayrollRunSummaryDto summary = generatePayrolls(payPeriod, employees, existingEmployeeIds, attendance);
+        summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+        log.info("Payroll batch for period {} finished: {} generated, {} skipped, {} failed in {} ms",
+                payPeriod, summary.getGenerated(), summary.getSkipped(), summary.getFailed(),
+                summary.getElapsedMillis());
+        return summary;
+    }
+
+    public PayrollRunSummaryDto generatePayrollChunk(String payPeriod, List<Employee> employees) {
+        long startedAt = System.nanoTime();
+
+        YearMonth period = YearMonth.parse(payPeriod);
+        List<String> employeeIds = employees.stream()
+                .map(Employee::getEmployeeId)
+                .collect(Collectors.toList());
+
+        // Re-checking existing payrolls makes a re-processed chunk idempotent
+        Set<String> existingEmployeeIds = payrollRepository
+                .findEmployeeIdsByPayPeriodAndEmployeeIdIn(payPeriod, employeeIds)
+                .stream()
+                .map(Payroll::getEmployeeId)
+                .collect(Collectors.toSet());
+        Map<String, AttendanceSummary> attendance = attendanceMonthlyService.getSummaries(employeeIds, period);
+
+        PayrollRunSummaryDto summary = generatePayrolls(payPeriod, employees, existingEmployeeIds, attendance);
+        summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return summary;
+    }
+
+    private PayrollRunSummaryDto generatePayrolls(String payPeriod, List<Employee> employees,
+                                                  Set<String> existingEmployeeIds,
+                                                  Map<String, AttendanceSummary> attendance) {
+        PayrollRunSummaryDto summary = new PayrollRunSummaryDto();
+        summary.setPayPeriod(payPeriod);
+        summary.setTotalEmployees(employees.size());
+
+        // One rule set snapshot for the whole batch, even if a new version is activated meanwhile
+        CompiledRuleSet rules = payrollRuleService.getRules();
+
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        List<Payroll> payrolls = employees.parallelStream()
+                .filter(employee -> !existingEmployeeIds.contains(employee.getEmployeeId()))
+                .map(employee -> {
+                    try {
+                        Payroll payroll = newDraftPayroll(employee, payPeriod);
+                        AttendanceSummary stats = attendance.get(employee.getEmployeeId());
+                        calculatePayroll(payroll, employee,
+                                stats != null ? stats.getPresentDays() : 0,
+                                stats != null ? stats.getOvertimeHours() : 0.0, rules);
+                        return payroll;
+                    } catch (RuntimeException e) {
+                        failures.put(employee.getEmployeeId(), String.valueOf(e.getMessage()));
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        int generated = 0;
+        int duplicates = 0;
+        for (int from = 0; from < payrolls.size(); from += BATCH_INSERT_SIZE) {
+            List<Payroll> chunk = payrolls.subList(from, Math.min(from + BATCH_INSERT_SIZE, payrolls.size()));
+            try {
+                // Unordered so one rejected document does not abort the rest of the chunk
+                List<BulkWriteError> errors = payrollRepository.insertUnordered(chunk);
+                Set<Integer> rejected = new HashSet<>();
+                for (BulkWriteError error : errors) {
+                    rejected.add(error.getIndex());
+                    if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                        // Generated concurrently by another request or run since the existence check
+                        duplicates++;
+                    } else {
+                        failures.put(chunk.get(error.getIndex()).getEmployeeId(), error.getMessage());
+                    }
+                }
+
+                List<Payroll> inserted = new ArrayList<>(chunk.size() - rejected.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (!rejected.contains(i)) {
+                        inserted.add(chunk.get(i));
+                    }
+                }
+                payrollSummaryService.recordCreated(inserted);
+                generated += inserted.size();
+            } catch (RuntimeException e) {
+                log.error("Error inserting payroll chunk for period {}: {}", payPeriod, e.getMessage());
+                chunk.forEach(payroll -> failures.put(payroll.getEmployeeId(), String.valueOf(e.getMessage())));
+            }
         }
 
+        summary.setGenerated(generated);
+        summary.setSkipped(duplicates + (int) employees.stream()
+                .filter(employee -> existingEmployeeIds.contains(employee.getEmployeeId()))
+                .count());
+        summary.setFailed(failures.size());
+        summary.getFailures().putAll(new TreeMap<>(failures));
+        return summary;
+    }
+
+    private Payroll insertPayroll(Payroll payroll) {
+        try {
+            return payrollRepository.insert(payroll);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Payroll already exists for employee " +
+                    payroll.getEmployeeId() + " for period " + payroll.getPayPeriod());
+        }
+    }
+
+    private Payroll newDraftPayroll(Employee employee, String payPeriod) {
         Payroll payroll = new Payroll();
-        payroll.setEmployeeId(employeeId);
+        payroll.setEmployeeId(employee.getEmployeeId());
         payroll.setEmployeeName(employee.getFullName());
         payroll.setPayPeriod(payPeriod);
         payroll.setCreatedAt(LocalDateTime.now());
         payroll.setStatus("DRAFT");
+        return payroll;
+    }
 
-        calculatePayroll(payroll, employee);
+    private void calculatePayroll(Payroll payroll, Employee employee) {
+        // Working days and overtime for the period come from the employee's monthly rollup
+        AttendanceSummary stats = attendanceMonthlyService.getSummary(
+                payroll.getEmployeeId(), YearMonth.parse(payroll.getPayPeriod()));
 
-        Payroll savedPayroll = payrollRepository.save(payroll);
-        return convertToDto(savedPayroll);
+        calculatePayroll(payroll, employee, stats.getPresentDays(), stats.getOvertimeHours(),
+                payrollRuleService.getRules());
     }
 
-    private void calculatePayroll(Payroll payroll, Employee employee) {
+    private void calculatePayroll(Payroll payroll, Employee employee, long presentDays, double overtimeHours,
+                                  CompiledRuleSet rules) {
+        if (employee.getBaseSalary() == null) {
+            throw new RuntimeException("Base salary not set for employee: " + employee.getEmployeeId());
+        }
+
         // Set base salary from employee record
         payroll.setBaseSalary(employee.getBaseSalary());
         payroll.setAllowances(employee.getAllowances() != null ? employee.getAllowances() : BigDecimal.ZERO);
-
-        // Calculate working days and overtime for the period
-        String[] periodParts = payroll.getPayPeriod().split("-");
-        int year = Integer.parseInt(periodParts[0]);
-        int month = Integer.parseInt(periodParts[1]);
-
-        LocalDate startDate = LocalDate.of(year, month, 1);
-        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
-
-        // Get attendance data for the period
-        long presentDays = attendanceService.getWorkingDaysForEmployee(
-                payroll.getEmployeeId(), startDate, endDate);
-        double overtimeHours = attendanceService.getOvertimeHoursForEmployee(
-                payroll.getEmployeeId(), startDate, endDate);
-
         payroll.setWorkingDays((int) presentDays);
-        payroll.setOvertimeHours(BigDecimal.valueOf(overtimeHours));
 
-        // Calculate overtime pay (assuming 1.5x hourly rate)
-        BigDecimal dailyRate = employee.getBaseSalary().divide(BigDecimal.valueOf(30), 2, RoundingMode.HALF_UP);
-        BigDecimal hourlyRate = dailyRate.divide(BigDecimal.valueOf(8), 2, RoundingMode.HALF_UP);
-        BigDecimal overtimeRate = hourlyRate.multiply(BigDecimal.valueOf(1.5));
-
-        payroll.setOvertimePay(overtimeRate.multiply(BigDecimal.valueOf(overtimeHours)));
-
-        // Set default deductions (can be customized based on business rules)
-        calculateDefaultDeductions(payroll);
+        // Overtime, rule-based deductions and totals are computed in fixed point
+        PayrollComputation computation = PayrollComputation.from(payroll);
+        computation.setOvertimeCentiHours(Money.toCentiHours(overtimeHours));
+        // The daily rate follows the working days of the employee's calendar for the period
+        computation.setPeriodWorkingDays(workCalendarService.workingDays(employee.getDepartment(),
+                YearMonth.parse(payroll.getPayPeriod())));
+        payrollCalculator.calculate(computation,
+                rules.resolve(employee.getEmploymentType(), employee.getSalaryGrade()),
+                workPolicyService.resolve(employee).getOvertimeMultiplierBps());
+        computation.applyTo(payroll);
+    }
 
-        // Calculate totals
-        calculateTotals(payroll);
+    private void calculateTotals(Payroll payroll) {
+        PayrollComputation computation = PayrollComputation.from(payroll);
+        payrollCalculator.calculateTotals(computation);
+        computation.applyTotalsTo(payroll);
     }
 
-    private void calculateDefaultDeductions(Payroll payroll) {
-        BigDecimal grossPay = payroll.getBaseSalary()
-                .add(payroll.getOvertimePay() != null ? payroll.getOvertimePay() : BigDecimal.ZERO)
-                .add(payroll.getAllowances() != null ? payroll.getAllowances() : BigDecimal.ZERO)
-                .add(payroll.getBonuses() != null ? payroll.getBonuses() : BigDecimal.ZERO)
-                .add(payroll.getCommissions() != null ? payroll.getCommissions() : BigDecimal.ZERO);
+    private PayrollPageDto getPayrollPage(String employeeId, String payPeriod, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        if (pageSize <= 0) {
+            throw new RuntimeException("Limit must be positive");
+        }
 
-        // Tax calculation (simplified - 10% of gross pay)
-        payroll.setTaxDeduction(grossPay.multiply(BigDecimal.valueOf(0.10)));
+        String[] after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : new String[3];
 
-        // Provident Fund (12% of basic salary)
-        payroll.setProvidentFund(payroll.getBaseSalary().multiply(BigDecimal.valueOf(0.12)));
+        // One extra row tells whether another page exists without a count query
+        List<Payroll> payrolls = payrollRepository.findPage(employeeId, payPeriod,
+                after[0], after[1], after[2], pageSize + 1);
 
-        // Insurance (fixed amount)
-        payroll.setInsurance(BigDecimal.valueOf(500));
+        PayrollPageDto page = new PayrollPageDto();
+        page.setLimit(pageSize);
+        page.setHasMore(payrolls.size() > pageSize);
+        List<Payroll> items = page.isHasMore() ? payrolls.subList(0, pageSize) : payrolls;
+        items.forEach(payroll -> page.getItems().add(convertToDto(payroll)));
+        if (page.isHasMore()) {
+            page.setNextCursor(encodeCursor(items.get(items.size() - 1)));
+        }
+        return page;
+    }
 
-        // Set defaults for other fields if null
-        if (payroll.getLoanDeduction() == null) payroll.setLoanDeduction(BigDecimal.ZERO);
-        if (payroll.getOtherDeductions() == null) payroll.setOtherDeductions(BigDecimal.ZERO);
+    // Last key of the page: payPeriod, employeeId and id, opaque to clients
+    private String encodeCursor(Payroll payroll) {
+        String key = payroll.getPayPeriod() + CURSOR_SEPARATOR + payroll.getEmployeeId()
+                + CURSOR_SEPARATOR + payroll.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
     }
 
-    private void calculateTotals(Payroll payroll) {
-        // Calculate total earnings
-        BigDecimal totalEarnings = BigDecimal.ZERO
-                .add(payroll.getBaseSalary() != null ? payroll.getBaseSalary() : BigDecimal.ZERO)
-                .add(payroll.getOvertimePay() != null ? payroll.getOvertimePay() : BigDecimal.ZERO)
-                .add(payroll.getBonuses() != null ? payroll.getBonuses() : BigDecimal.ZERO)
-                .add(payroll.getAllowances() != null ? payroll.getAllowances() : BigDecimal.ZERO)
-                .add(payroll.getCommissions() != null ? payroll.getCommissions() : BigDecimal.ZERO);
-
-        payroll.setTotalEarnings(totalEarnings);
-
-        // Calculate total deductions
-        BigDecimal totalDeductions = BigDecimal.ZERO
-                .add(payroll.getTaxDeduction() != null ? payroll.getTaxDeduction() : BigDecimal.ZERO)
-                .add(payroll.getProvidentFund() != null ? payroll.getProvidentFund() : BigDecimal.ZERO)
-                .add(payroll.getInsurance() != null ? payroll.getInsurance() : BigDecimal.ZERO)
-                .add(payroll.getLoanDeduction() != null ? payroll.getLoanDeduction() : BigDecimal.ZERO)
-                .add(payroll.getOtherDeductions() != null ? payroll.getOtherDeductions() : BigDecimal.ZERO);
-
-        payroll.setTotalDeductions(totalDeductions);
-
-        // Calculate net pay
-        payroll.setNetPay(totalEarnings.subtract(totalDeductions));
+    private String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(CURSOR_SEPARATOR, -1);
+            if (parts.length == 3) {
+                return parts;
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below
+        }
+        throw new RuntimeException("Invalid cursor: " + cursor);
     }
 
     private PayrollDto convertToDto(Payroll payroll) {
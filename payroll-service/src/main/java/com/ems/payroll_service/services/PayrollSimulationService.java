@@ -0,0 +1,244 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.calculation.CompiledRuleSet;
+import com.ems.payroll_service.calculation.Money;
+import com.ems.payroll_service.calculation.PayrollCalculator;
+import com.ems.payroll_service.calculation.PayrollComputation;
+import com.ems.payroll_service.calculation.PayrollTotals;
+import com.ems.payroll_service.dto.PayrollSimulationRequestDto;
+import com.ems.payroll_service.dto.PayrollSimulationResultDto;
+import com.ems.payroll_service.dto.PayrollSimulationTotalsDto;
+import com.ems.payroll_service.models.AttendanceSummary;
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.repositories.EmployeeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * What-if payroll runs: same fixed-point calculation as generation, against one
+ * attendance aggregate, with nothing written back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollSimulationService {
+
+    private static final int MAX_RECORDED_FAILURES = 100;
+    private static final int SLICES_PER_THREAD = 4;
+    private static final String NO_DEPARTMENT = "UNASSIGNED";
+
+    private final EmployeeRepository employeeRepository;
+    private final AttendanceMonthlyService attendanceMonthlyService;
+    private final PayrollCalculator payrollCalculator;
+    private final PayrollRuleService payrollRuleService;
+    private final WorkCalendarService workCalendarService;
+    private final WorkPolicyService workPolicyService;
+
+    @Value("${payroll.simulation.threads:0}")
+    private int threads;
+
+    private int poolSize;
+    private ExecutorService simulationExecutor;
+
+    @PostConstruct
+    void startExecutor() {
+        poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        simulationExecutor = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "payroll-simulation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        simulationExecutor.shutdownNow();
+    }
+
+    public PayrollSimulationResultDto simulate(PayrollSimulationRequestDto request) {
+        log.info("Simulating payroll for period: {}", request.getPayPeriod());
+        long startedAt = System.nanoTime();
+
+        YearMonth period = YearMonth.parse(request.getPayPeriod());
+
+        CompiledRuleSet rules = payrollRuleService.getRules(request.getRuleSetVersion())
+                .withOverrides(request.getTaxRate(), request.getProvidentFundRate(), request.getInsurance());
+        // Without an override each employee's work policy supplies the multiplier
+        Long overtimeMultiplierBps = request.getOvertimeMultiplier() != null
+                ? toBasisPoints(request.getOvertimeMultiplier(), 4)
+                : null;
+        long salaryFactorBps = Money.BASIS_POINTS
+                + (request.getSalaryIncrease() != null ? toBasisPoints(request.getSalaryIncrease(), 2) : 0L);
+        if (salaryFactorBps < 0L) {
+            throw new RuntimeException("Salary increase cannot be below -100%");
+        }
+
+        List<Employee> employees = selectEmployees(request);
+        Map<String, AttendanceSummary> attendance = request.getEmployeeIds() != null && !request.getEmployeeIds().isEmpty()
+                ? attendanceMonthlyService.getSummaries(request.getEmployeeIds(), period)
+                : attendanceMonthlyService.getSummaries(period);
+
+        // A few slices per thread so one slow slice does not hold up the whole result
+        int sliceSize = Math.max(1, (employees.size() + poolSize * SLICES_PER_THREAD - 1) / (poolSize * SLICES_PER_THREAD));
+        List<Future<PartialResult>> futures = new ArrayList<>();
+        for (int from = 0; from < employees.size(); from += sliceSize) {
+            List<Employee> slice = employees.subList(from, Math.min(from + sliceSize, employees.size()));
+            futures.add(simulationExecutor.submit(() ->
+                    simulateSlice(slice, period, attendance, rules, overtimeMultiplierBps, salaryFactorBps)));
+        }
+
+        PartialResult combined = new PartialResult();
+        try {
+            for (Future<PartialResult> future : futures) {
+                combined.merge(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payroll simulation interrupted");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("Payroll simulation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+
+        PayrollSimulationResultDto result = new PayrollSimulationResultDto();
+        result.setPayPeriod(request.getPayPeriod());
+        result.setRuleSetVersion(rules.getVersion());
+        result.setTotalEmployees(employees.size());
+        result.setFailed(combined.failed);
+        result.getFailures().putAll(combined.failures);
+        result.setTotals(convertToDto(combined.totals));
+        combined.departments.forEach((department, totals) ->
+                result.getDepartments().put(department, convertToDto(totals)));
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+
+        log.info("Payroll simulation for period {} covered {} employees in {} ms",
+                request.getPayPeriod(), employees.size(), result.getElapsedMillis());
+        return result;
+    }
+
+    private List<Employee> selectEmployees(PayrollSimulationRequestDto request) {
+        Set<String> departments = toSet(request.getDepartments());
+        Set<String> employmentTypes = toSet(request.getEmploymentTypes());
+        Set<String> employeeIds = toSet(request.getEmployeeIds());
+
+        // Projected to the calculation inputs, filtering the active workforce in memory is cheap
+        return employeeRepository.findPayrollInputsByStatus("ACTIVE")
+                .stream()
+                .filter(employee -> departments == null || departments.contains(employee.getDepartment()))
+                .filter(employee -> employmentTypes == null || employmentTypes.contains(employee.getEmploymentType()))
+                .filter(employee -> employeeIds == null || employeeIds.contains(employee.getEmployeeId()))
+                .collect(Collectors.toList());
+    }
+
+    private PartialResult simulateSlice(List<Employee> slice, YearMonth period,
+                                        Map<String, AttendanceSummary> attendance,
+                                        CompiledRuleSet rules, Long overtimeMultiplierBps, long salaryFactorBps) {
+        PartialResult partial = new PartialResult();
+        PayrollComputation computation = new PayrollComputation();
+
+        for (Employee employee : slice) {
+            try {
+                if (employee.getBaseSalary() == null) {
+                    throw new RuntimeException("Base salary not set for employee: " + employee.getEmployeeId());
+                }
+
+                computation.loadEmployee(employee);
+                if (salaryFactorBps != Money.BASIS_POINTS) {
+                    computation.setBaseSalary(Money.applyRate(computation.getBaseSalary(), salaryFactorBps));
+                }
+                AttendanceSummary stats = attendance.get(employee.getEmployeeId());
+                computation.setOvertimeCentiHours(stats != null ? Money.toCentiHours(stats.getOvertimeHours()) : 0L);
+                computation.setPeriodWorkingDays(workCalendarService.workingDays(employee.getDepartment(), period));
+
+                payrollCalculator.calculate(computation,
+                        rules.resolve(employee.getEmploymentType(), employee.getSalaryGrade()),
+                        overtimeMultiplierBps != null ? overtimeMultiplierBps
+                                : workPolicyService.resolve(employee).getOvertimeMultiplierBps());
+
+                partial.totals.add(computation);
+                partial.departments
+                        .computeIfAbsent(employee.getDepartment() != null ? employee.getDepartment() : NO_DEPARTMENT,
+                                department -> new PayrollTotals())
+                        .add(computation);
+            } catch (RuntimeException e) {
+                partial.recordFailure(employee.getEmployeeId(), String.valueOf(e.getMessage()));
+            }
+        }
+        return partial;
+    }
+
+    private static long toBasisPoints(BigDecimal value, int shift) {
+        return value.movePointRight(shift).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static Set<String> toSet(Collection<String> values) {
+        return values == null || values.isEmpty() ? null : new HashSet<>(values);
+    }
+
+    private PayrollSimulationTotalsDto convertToDto(PayrollTotals totals) {
+        PayrollSimulationTotalsDto dto = new PayrollSimulationTotalsDto();
+        dto.setEmployees(totals.getEmployees());
+        dto.setBaseSalary(Money.toBigDecimal(totals.getBaseSalary()));
+        dto.setAllowances(Money.toBigDecimal(totals.getAllowances()));
+        dto.setOvertimePay(Money.toBigDecimal(totals.getOvertimePay()));
+        dto.setTotalEarnings(Money.toBigDecimal(totals.getTotalEarnings()));
+        dto.setTaxDeduction(Money.toBigDecimal(totals.getTaxDeduction()));
+        dto.setProvidentFund(Money.toBigDecimal(totals.getProvidentFund()));
+        dto.setInsurance(Money.toBigDecimal(totals.getInsurance()));
+        dto.setTotalDeductions(Money.toBigDecimal(totals.getTotalDeductions()));
+        dto.setNetPay(Money.toBigDecimal(totals.getNetPay()));
+        return dto;
+    }
+
+    private static class PartialResult {
+
+        private final PayrollTotals totals = new PayrollTotals();
+        private final Map<String, PayrollTotals> departments = new HashMap<>();
+        private final Map<String, String> failures = new TreeMap<>();
+        private int failed;
+
+        void recordFailure(String employeeId, String message) {
+            failed++;
+            if (failures.size() < MAX_RECORDED_FAILURES) {
+                failures.put(employeeId, message);
+            }
+        }
+
+        void merge(PartialResult other) {
+            totals.merge(other.totals);
+            other.departments.forEach((department, departmentTotals) ->
+                    departments.computeIfAbsent(department, key -> new PayrollTotals()).merge(departmentTotals));
+            failed += other.failed;
+            other.failures.forEach((employeeId, message) -> {
+                if (failures.size() < MAX_RECORDED_FAILURES) {
+                    failures.put(employeeId, message);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Payroll;
+import com.ems.payroll_service.models.PayrollPeriodSummary;
+import com.ems.payroll_service.repositories.PayrollPeriodSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollSummaryService {
+
+    private final PayrollPeriodSummaryRepository payrollPeriodSummaryRepository;
+
+    public PayrollPeriodSummary getSummary(String payPeriod) {
+        return payrollPeriodSummaryRepository.findById(payPeriod)
+                .orElseGet(() -> {
+                    PayrollPeriodSummary empty = new PayrollPeriodSummary();
+                    empty.setPayPeriod(payPeriod);
+                    return empty;
+                });
+    }
+
+    public PayrollPeriodSummary rebuildSummary(String payPeriod) {
+        log.info("Rebuilding payroll summary for period: {}", payPeriod);
+
+        PayrollPeriodSummary summary = payrollPeriodSummaryRepository.aggregateFromPayrolls(payPeriod);
+        summary.setUpdatedAt(LocalDateTime.now());
+        summary.setRebuiltAt(summary.getUpdatedAt());
+
+        return payrollPeriodSummaryRepository.save(summary);
+    }
+
+    public void recordCreated(Payroll payroll) {
+        apply(payroll, 1);
+    }
+
+    // One $inc per pay period for a whole inserted chunk
+    public void recordCreated(Collection<Payroll> payrolls) {
+        Map<String, List<Payroll>> byPeriod = payrolls.stream()
+                .collect(Collectors.groupingBy(Payroll::getPayPeriod));
+
+        byPeriod.forEach((payPeriod, periodPayrolls) -> {
+            Map<String, Long> statusDeltas = new HashMap<>();
+            BigDecimal totalEarnings = BigDecimal.ZERO;
+            BigDecimal totalDeductions = BigDecimal.ZERO;
+            BigDecimal totalNetPay = BigDecimal.ZERO;
+
+            for (Payroll payroll : periodPayrolls) {
+                totalEarnings = totalEarnings.add(nullToZero(payroll.getTotalEarnings()));
+                totalDeductions = totalDeductions.add(nullToZero(payroll.getTotalDeductions()));
+                totalNetPay = totalNetPay.add(nullToZero(payroll.getNetPay()));
+                statusDeltas.merge(payroll.getStatus(), 1L, Long::sum);
+            }
+
+            increment(payPeriod, periodPayrolls.size(), totalEarnings, totalDeductions, totalNetPay, statusDeltas);
+        });
+    }
+
+    public void recordDeleted(Payroll payroll) {
+        apply(payroll, -1);
+    }
+
+    // before must be a detached copy taken prior to the update
+    public void recordUpdated(Payroll before, Payroll after) {
+        if (!Objects.equals(before.getPayPeriod(), after.getPayPeriod())) {
+            recordDeleted(before);
+            recordCreated(after);
+            return;
+        }
+
+        Map<String, Long> statusDeltas = new HashMap<>();
+        if (!Objects.equals(before.getStatus(), after.getStatus())) {
+            statusDeltas.merge(before.getStatus(), -1L, Long::sum);
+            statusDeltas.merge(after.getStatus(), 1L, Long::sum);
+        }
+
+        increment(after.getPayPeriod(), 0,
+                nullToZero(after.getTotalEarnings()).subtract(nullToZero(before.getTotalEarnings())),
+                nullToZero(after.getTotalDeductions()).subtract(nullToZero(before.getTotalDeductions())),
+                nullToZero(after.getNetPay()).subtract(nullToZero(before.getNetPay())),
+                statusDeltas);
+    }
+
+    public void recordStatusChange(String payPeriod, String fromStatus, String toStatus, long count) {
+        Map<String, Long> statusDeltas = new HashMap<>();
+        statusDeltas.put(fromStatus, -count);
+        statusDeltas.merge(toStatus, count, Long::sum);
+        increment(payPeriod, 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, statusDeltas);
+    }
+
+    private void apply(Payroll payroll, int sign) {
+        BigDecimal multiplier = BigDecimal.valueOf(sign);
+        Map<String, Long> statusDeltas = new HashMap<>();
+        statusDeltas.put(payroll.getStatus(), (long) sign);
+
+        increment(payroll.getPayPeriod(), sign,
+                nullToZero(payroll.getTotalEarnings()).multiply(multiplier),
+                nullToZero(payroll.getTotalDeductions()).multiply(multiplier),
+                nullToZero(payroll.getNetPay()).multiply(multiplier),
+                statusDeltas);
+    }
+
+    // A failed summary update must never fail the payroll write itself; rebuild reconciles it
+    private void increment(String payPeriod, long payrollCount, BigDecimal totalEarnings,
+                           BigDecimal totalDeductions, BigDecimal totalNetPay, Map<String, Long> statusDeltas) {
+        try {
+            payrollPeriodSummaryRepository.increment(payPeriod, payrollCount,
+                    totalEarnings, totalDeductions, totalNetPay, statusDeltas);
+        } catch (RuntimeException e) {
+            log.error("Error updating payroll summary for period {}, rebuild required: {}", payPeriod, e.getMessage());
+        }
+    }
+
+    private BigDecimal nullToZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
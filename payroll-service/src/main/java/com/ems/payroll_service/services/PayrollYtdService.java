@@ -0,0 +1,119 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.dto.PayrollYtdDto;
+import com.ems.payroll_service.models.Payroll;
+import com.ems.payroll_service.models.PayrollYtd;
+import com.ems.payroll_service.repositories.PayrollYtdRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayrollYtdService {
+
+    private final PayrollYtdRepository payrollYtdRepository;
+
+    @Value("${payroll.ytd.fiscal-year-start-month:1}")
+    private int fiscalYearStartMonth;
+
+    public PayrollYtdDto getYtd(String employeeId, Integer fiscalYear) {
+        int year = fiscalYear != null ? fiscalYear : fiscalYear(YearMonth.now());
+        log.info("Fetching YTD payroll totals for employee: {} fiscal year: {}", employeeId, year);
+
+        PayrollYtd ytd = payrollYtdRepository.findById(PayrollYtd.key(employeeId, year))
+                .orElseGet(() -> {
+                    PayrollYtd empty = new PayrollYtd();
+                    empty.setEmployeeId(employeeId);
+                    empty.setFiscalYear(year);
+                    return empty;
+                });
+        return convertToDto(ytd);
+    }
+
+    public Map<String, Object> rebuild() {
+        log.info("Rebuilding YTD payroll accumulators");
+        long startedAt = System.currentTimeMillis();
+
+        payrollYtdRepository.rebuildFromPayrolls(fiscalYearStartMonth);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accumulators", payrollYtdRepository.count());
+        result.put("elapsedMillis", System.currentTimeMillis() - startedAt);
+        log.info("YTD payroll accumulators rebuilt: {}", result);
+        return result;
+    }
+
+    public void recordApproved(Payroll payroll) {
+        recordApproved(List.of(payroll));
+    }
+
+    // Deltas are folded per accumulator first, so a batch costs one upsert per employee
+    public void recordApproved(Collection<Payroll> payrolls) {
+        apply(payrolls, BigDecimal.ONE);
+    }
+
+    public void recordCancelled(Payroll payroll) {
+        apply(List.of(payroll), BigDecimal.ONE.negate());
+    }
+
+    public int fiscalYear(String payPeriod) {
+        return fiscalYear(YearMonth.parse(payPeriod));
+    }
+
+    private int fiscalYear(YearMonth period) {
+        return period.getMonthValue() >= fiscalYearStartMonth ? period.getYear() : period.getYear() - 1;
+    }
+
+    // A failed accumulator update must never fail the payroll transition; rebuild reconciles it
+    private void apply(Collection<Payroll> payrolls, BigDecimal sign) {
+        Map<String, PayrollYtd> deltas = new LinkedHashMap<>();
+        for (Payroll payroll : payrolls) {
+            int year = fiscalYear(payroll.getPayPeriod());
+            PayrollYtd delta = deltas.computeIfAbsent(PayrollYtd.key(payroll.getEmployeeId(), year), key -> {
+                PayrollYtd ytd = new PayrollYtd();
+                ytd.setId(key);
+                ytd.setEmployeeId(payroll.getEmployeeId());
+                ytd.setFiscalYear(year);
+                return ytd;
+            });
+
+            delta.setPayrollCount(delta.getPayrollCount() + sign.longValue());
+            delta.setTotalEarnings(delta.getTotalEarnings().add(signed(payroll.getTotalEarnings(), sign)));
+            delta.setTaxDeduction(delta.getTaxDeduction().add(signed(payroll.getTaxDeduction(), sign)));
+            delta.setProvidentFund(delta.getProvidentFund().add(signed(payroll.getProvidentFund(), sign)));
+            delta.setTotalDeductions(delta.getTotalDeductions().add(signed(payroll.getTotalDeductions(), sign)));
+            delta.setNetPay(delta.getNetPay().add(signed(payroll.getNetPay(), sign)));
+        }
+
+        try {
+            payrollYtdRepository.increment(deltas.values());
+        } catch (RuntimeException e) {
+            log.error("Error updating YTD payroll accumulators, rebuild required: {}", e.getMessage());
+        }
+    }
+
+    private BigDecimal signed(BigDecimal amount, BigDecimal sign) {
+        return amount != null ? amount.multiply(sign) : BigDecimal.ZERO;
+    }
+
+    private PayrollYtdDto convertToDto(PayrollYtd ytd) {
+        PayrollYtdDto dto = new PayrollYtdDto();
+        BeanUtils.copyProperties(ytd, dto);
+        LocalDate start = LocalDate.of(ytd.getFiscalYear(), fiscalYearStartMonth, 1);
+        dto.setFiscalYearStart(start);
+        dto.setFiscalYearEnd(start.plusYears(1).minusDays(1));
+        return dto;
+    }
+}
@@ -0,0 +1,166 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Attendance;
+import com.ems.payroll_service.repositories.AttendanceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Today's presence state per employee as bitsets over the {@link EmployeeDirectory} index.
+ * Rebuilt from the attendance collection at startup and at midnight, and kept current by
+ * every attendance write in between.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceIndex {
+
+    public enum State { RECORDED, CHECKED_IN, CHECKED_OUT, ON_BREAK }
+
+    private final AttendanceRepository attendanceRepository;
+    private final EmployeeDirectory employeeDirectory;
+
+    private LocalDate date = LocalDate.now();
+    private final BitSet recorded = new BitSet();   // any attendance record today
+    private final BitSet checkedIn = new BitSet();  // checked in, not yet checked out
+    private final BitSet checkedOut = new BitSet();
+    private final BitSet onBreak = new BitSet();    // checked in, break started and not ended
+
+    // Runs after the employee directory is loaded
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(1)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${attendance.presence.rebuild-cron:5 0 0 * * *}")
+    public void rebuild() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            LocalDate today = LocalDate.now();
+            List<Attendance> records;
+
+            // Writers wait for the reload so no update lands between the query and the swap
+            synchronized (this) {
+                records = attendanceRepository.findPresenceByDate(today);
+                date = today;
+                recorded.clear();
+                checkedIn.clear();
+                checkedOut.clear();
+                onBreak.clear();
+                records.forEach(this::apply);
+            }
+            log.info("Presence index rebuilt for {} with {} records in {} ms",
+                    today, records.size(), System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.error("Error rebuilding presence index: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void record(Attendance attendance) {
+        rollOver();
+        if (date.equals(attendance.getDate())) {
+            apply(attendance);
+        }
+    }
+
+    public synchronized void remove(String employeeId, LocalDate recordDate) {
+        rollOver();
+        if (!date.equals(recordDate)) {
+            return;
+        }
+        employeeDirectory.find(employeeId).ifPresent(employee -> {
+            int index = employee.getIndex();
+            recorded.clear(index);
+            checkedIn.clear(index);
+            checkedOut.clear(index);
+            onBreak.clear(index);
+        });
+    }
+
+    public synchronized long count(State state) {
+        rollOver();
+        return bits(state).cardinality();
+    }
+
+    // Counts per department for each state except RECORDED
+    public synchronized Map<String, Map<State, Long>> countByDepartment() {
+        rollOver();
+        Map<String, Map<State, Long>> counts = new TreeMap<>();
+        for (State state : List.of(State.CHECKED_IN, State.CHECKED_OUT, State.ON_BREAK)) {
+            BitSet bits = bits(state);
+            for (int index = bits.nextSetBit(0); index >= 0; index = bits.nextSetBit(index + 1)) {
+                EmployeeDirectory.Entry employee = employeeDirectory.get(index);
+                String department = employee != null && employee.getDepartment() != null
+                        ? employee.getDepartment() : "UNASSIGNED";
+                counts.computeIfAbsent(department, key -> new TreeMap<>()).merge(state, 1L, Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    public synchronized List<EmployeeDirectory.Entry> members(State state, String department) {
+        rollOver();
+        List<EmployeeDirectory.Entry> members = new ArrayList<>();
+        BitSet bits = bits(state);
+        for (int index = bits.nextSetBit(0); index >= 0; index = bits.nextSetBit(index + 1)) {
+            EmployeeDirectory.Entry employee = employeeDirectory.get(index);
+            if (employee != null && (department == null || department.equals(employee.getDepartment()))) {
+                members.add(employee);
+            }
+        }
+        return members;
+    }
+
+    public synchronized LocalDate getDate() {
+        rollOver();
+        return date;
+    }
+
+    private void apply(Attendance attendance) {
+        EmployeeDirectory.Entry employee = employeeDirectory.find(attendance.getEmployeeId()).orElse(null);
+        if (employee == null) {
+            return;
+        }
+
+        int index = employee.getIndex();
+        boolean in = attendance.getCheckInTime() != null && attendance.getCheckOutTime() == null;
+        recorded.set(index);
+        checkedIn.set(index, in);
+        checkedOut.set(index, attendance.getCheckOutTime() != null);
+        onBreak.set(index, in && attendance.getBreakStartTime() != null && attendance.getBreakEndTime() == null);
+    }
+
+    // Until the midnight rebuild runs, a new day starts empty
+    private void rollOver() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(date)) {
+            date = today;
+            recorded.clear();
+            checkedIn.clear();
+            checkedOut.clear();
+            onBreak.clear();
+        }
+    }
+
+    private BitSet bits(State state) {
+        return switch (state) {
+            case RECORDED -> recorded;
+            case CHECKED_IN -> checkedIn;
+            case CHECKED_OUT -> checkedOut;
+            case ON_BREAK -> onBreak;
+        };
+    }
+}
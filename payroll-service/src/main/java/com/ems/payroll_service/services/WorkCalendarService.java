@@ -0,0 +1,162 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.calculation.YearCalendar;
+import com.ems.payroll_service.dto.HolidayDto;
+import com.ems.payroll_service.models.Holiday;
+import com.ems.payroll_service.repositories.HolidayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Working-day calendars: company-wide holidays plus optional per-department ones. Each
+ * calendar year is compiled once into a {@link YearCalendar} and cached until a holiday in
+ * that year is edited, so range counts never loop over days.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkCalendarService {
+
+    public static final String DEFAULT_CALENDAR = "DEFAULT";
+
+    private final HolidayRepository holidayRepository;
+
+    private final Map<String, YearCalendar> calendars = new ConcurrentHashMap<>();
+    // Last holiday edit seen, to notice edits made by other instances
+    private volatile String loadedVersion;
+
+    @Value("${calendar.weekend-days:SATURDAY,SUNDAY}")
+    private String weekendDays;
+
+    public int workingDays(String calendar, LocalDate startDate, LocalDate endDate) {
+        int total = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            YearCalendar yearCalendar = getYear(calendar, year);
+            LocalDate from = year == startDate.getYear() ? startDate : LocalDate.of(year, 1, 1);
+            LocalDate to = year == endDate.getYear() ? endDate : LocalDate.of(year, 12, 31);
+            total += yearCalendar.workingDays(from, to);
+        }
+        return total;
+    }
+
+    public int workingDays(String calendar, YearMonth month) {
+        return getYear(calendar, month.getYear()).workingDays(month.atDay(1), month.atEndOfMonth());
+    }
+
+    public boolean isWorkingDay(String calendar, LocalDate date) {
+        return getYear(calendar, date.getYear()).isWorkingDay(date);
+    }
+
+    // A department without holidays of its own gets the company-wide calendar
+    public YearCalendar getYear(String calendar, int year) {
+        String name = calendarName(calendar);
+        return calendars.computeIfAbsent(name + "|" + year, key -> compile(name, year));
+    }
+
+    public List<HolidayDto> getHolidays(String calendar) {
+        return holidayRepository.findByCalendarOrderByDateAsc(calendarName(calendar))
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    public HolidayDto createHoliday(HolidayDto holidayDto) {
+        Holiday holiday = new Holiday();
+        BeanUtils.copyProperties(holidayDto, holiday, "id", "updatedAt");
+        holiday.setCalendar(calendarName(holidayDto.getCalendar()));
+        holiday.setUpdatedAt(LocalDateTime.now());
+        log.info("Adding holiday {} on {} to calendar {}", holiday.getName(), holiday.getDate(), holiday.getCalendar());
+
+        Holiday savedHoliday;
+        try {
+            savedHoliday = holidayRepository.insert(holiday);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Holiday already exists on " + holiday.getDate()
+                    + " in calendar " + holiday.getCalendar());
+        }
+        invalidate(savedHoliday);
+        return convertToDto(savedHoliday);
+    }
+
+    public void deleteHoliday(String id) {
+        Holiday holiday = holidayRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Holiday not found with ID: " + id));
+        log.info("Removing holiday {} on {} from calendar {}", holiday.getName(), holiday.getDate(), holiday.getCalendar());
+
+        holidayRepository.deleteById(id);
+        invalidate(holiday);
+    }
+
+    // Picks up holidays edited by other instances; deletions elsewhere are caught by the count
+    @Scheduled(fixedDelayString = "${calendar.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            String version = holidayRepository.count() + "|" + holidayRepository.findFirstByOrderByUpdatedAtDesc()
+                    .map(Holiday::getUpdatedAt)
+                    .orElse(null);
+            if (!version.equals(loadedVersion)) {
+                calendars.clear();
+                loadedVersion = version;
+            }
+        } catch (RuntimeException e) {
+            log.error("Error refreshing work calendars: {}", e.getMessage());
+        }
+    }
+
+    // Company-wide edits reach every calendar of that year
+    private void invalidate(Holiday holiday) {
+        String year = "|" + holiday.getDate().getYear();
+        if (DEFAULT_CALENDAR.equals(holiday.getCalendar())) {
+            calendars.keySet().removeIf(key -> key.endsWith(year));
+        } else {
+            calendars.remove(holiday.getCalendar() + year);
+        }
+    }
+
+    private YearCalendar compile(String calendar, int year) {
+        List<LocalDate> holidays = holidayRepository
+                .findByCalendarInAndDateBetween(List.of(DEFAULT_CALENDAR, calendar),
+                        LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31))
+                .stream()
+                .map(Holiday::getDate)
+                .collect(Collectors.toList());
+        return YearCalendar.build(year, weekend(), holidays);
+    }
+
+    private Set<DayOfWeek> weekend() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        Arrays.stream(weekendDays.split(","))
+                .map(String::trim)
+                .filter(day -> !day.isEmpty())
+                .map(DayOfWeek::valueOf)
+                .forEach(days::add);
+        return days;
+    }
+
+    private String calendarName(String calendar) {
+        return calendar == null || calendar.isBlank() ? DEFAULT_CALENDAR : calendar;
+    }
+
+    private HolidayDto convertToDto(Holiday holiday) {
+        HolidayDto dto = new HolidayDto();
+        BeanUtils.copyProperties(holiday, dto);
+        return dto;
+    }
+}
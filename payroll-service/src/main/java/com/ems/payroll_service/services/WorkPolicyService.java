@@ -0,0 +1,198 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.calculation.CompiledWorkPolicy;
+import com.ems.payroll_service.calculation.CompiledWorkPolicySet;
+import com.ems.payroll_service.dto.WorkPolicySetDto;
+import com.ems.payroll_service.models.Employee;
+import com.ems.payroll_service.models.WorkPolicySet;
+import com.ems.payroll_service.repositories.WorkPolicySetRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Work policies resolved per employee. The active policy set is compiled and resolved for
+ * every employee in the {@link EmployeeDirectory} into one immutable table, swapped in whole,
+ * so a check-out resolves its policy by array index without touching the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkPolicyService {
+
+    private final WorkPolicySetRepository workPolicySetRepository;
+    private final EmployeeDirectory employeeDirectory;
+
+    // Catch-all values used when no policy set is active, and for fields a catch-all policy leaves empty
+    @Value("${attendance.policy.standard-hours:8}")
+    private double standardHours;
+
+    @Value("${attendance.policy.half-day-hours:4}")
+    private double halfDayHours;
+
+    private volatile PolicyTable table;
+
+    // Compiled policies plus the policy resolved for each directory index, with the entry it was resolved for
+    private record PolicyTable(CompiledWorkPolicySet policies, EmployeeDirectory.Entry[] entries,
+                               CompiledWorkPolicy[] resolved) {
+    }
+
+    @PostConstruct
+    void init() {
+        table = new PolicyTable(defaults(), new EmployeeDirectory.Entry[0], new CompiledWorkPolicy[0]);
+    }
+
+    // Runs after the employee directory is loaded
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(2)
+    public void load() {
+        refreshPolicies();
+    }
+
+    public CompiledWorkPolicy resolve(String employeeId) {
+        PolicyTable current = table;
+        EmployeeDirectory.Entry entry = employeeDirectory.findLoaded(employeeId).orElse(null);
+        if (entry == null) {
+            return current.policies().getDefault();
+        }
+
+        int index = entry.getIndex();
+        if (index < current.entries().length && sameKey(current.entries()[index], entry)) {
+            return current.resolved()[index];
+        }
+        // Employees added or moved since the table was built
+        return current.policies().resolve(entry.getDepartment(), entry.getEmploymentType(), entry.getSalaryGrade());
+    }
+
+    public CompiledWorkPolicy resolve(Employee employee) {
+        return table.policies().resolve(employee.getDepartment(), employee.getEmploymentType(),
+                employee.getSalaryGrade());
+    }
+
+    public List<WorkPolicySetDto> getAllPolicySets() {
+        log.info("Fetching all work policy sets");
+        return workPolicySetRepository.findAllByOrderByVersionDesc()
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<WorkPolicySetDto> getActivePolicySet() {
+        return workPolicySetRepository.findFirstByActiveTrueOrderByVersionDesc()
+                .map(this::convertToDto);
+    }
+
+    public WorkPolicySetDto createPolicySet(WorkPolicySetDto policySetDto) {
+        long version = workPolicySetRepository.findFirstByOrderByVersionDesc()
+                .map(WorkPolicySet::getVersion)
+                .orElse(0L) + 1;
+        log.info("Creating work policy set version: {}", version);
+
+        // Compiling validates the policies before anything is stored
+        CompiledWorkPolicySet compiled = CompiledWorkPolicySet.compile(version, policySetDto.getPolicies(),
+                defaults().getDefault());
+
+        WorkPolicySet policySet = new WorkPolicySet();
+        BeanUtils.copyProperties(policySetDto, policySet, "id", "version", "active", "createdAt");
+        policySet.setVersion(version);
+        policySet.setActive(true);
+        policySet.setCreatedAt(LocalDateTime.now());
+
+        deactivateAll();
+        WorkPolicySet savedPolicySet = workPolicySetRepository.save(policySet);
+        table = buildTable(compiled);
+
+        log.info("Work policy set version {} is now active", version);
+        return convertToDto(savedPolicySet);
+    }
+
+    public WorkPolicySetDto activateVersion(Long version) {
+        log.info("Activating work policy set version: {}", version);
+
+        WorkPolicySet policySet = workPolicySetRepository.findByVersion(version)
+                .orElseThrow(() -> new RuntimeException("Work policy set not found with version: " + version));
+
+        CompiledWorkPolicySet compiled = CompiledWorkPolicySet.compile(version, policySet.getPolicies(),
+                defaults().getDefault());
+
+        deactivateAll();
+        policySet.setActive(true);
+        WorkPolicySet savedPolicySet = workPolicySetRepository.save(policySet);
+        table = buildTable(compiled);
+
+        return convertToDto(savedPolicySet);
+    }
+
+    // Picks up versions activated by other instances and re-resolves employees the directory picked up
+    @Scheduled(fixedDelayString = "${attendance.policy.refresh-interval-ms:30000}")
+    public void refreshPolicies() {
+        try {
+            CompiledWorkPolicySet policies = table.policies();
+            Optional<WorkPolicySet> active = workPolicySetRepository.findFirstByActiveTrueOrderByVersionDesc();
+            long activeVersion = active.map(WorkPolicySet::getVersion).orElse(0L);
+            if (activeVersion != policies.getVersion()) {
+                policies = active
+                        .map(policySet -> CompiledWorkPolicySet.compile(policySet.getVersion(),
+                                policySet.getPolicies(), defaults().getDefault()))
+                        .orElseGet(this::defaults);
+                log.info("Loaded work policy set version {}", activeVersion);
+            }
+            table = buildTable(policies);
+        } catch (RuntimeException e) {
+            log.error("Error refreshing work policies, keeping version {}: {}",
+                    table.policies().getVersion(), e.getMessage());
+        }
+    }
+
+    private PolicyTable buildTable(CompiledWorkPolicySet policies) {
+        int size = employeeDirectory.size();
+        EmployeeDirectory.Entry[] entries = new EmployeeDirectory.Entry[size];
+        CompiledWorkPolicy[] resolved = new CompiledWorkPolicy[size];
+        for (int index = 0; index < size; index++) {
+            EmployeeDirectory.Entry entry = employeeDirectory.get(index);
+            if (entry != null) {
+                entries[index] = entry;
+                resolved[index] = policies.resolve(entry.getDepartment(), entry.getEmploymentType(),
+                        entry.getSalaryGrade());
+            }
+        }
+        return new PolicyTable(policies, entries, resolved);
+    }
+
+    // Directory refreshes replace entries, so the resolution key is compared rather than the instance
+    private boolean sameKey(EmployeeDirectory.Entry resolvedFor, EmployeeDirectory.Entry entry) {
+        return resolvedFor != null
+                && Objects.equals(resolvedFor.getDepartment(), entry.getDepartment())
+                && Objects.equals(resolvedFor.getEmploymentType(), entry.getEmploymentType())
+                && Objects.equals(resolvedFor.getSalaryGrade(), entry.getSalaryGrade());
+    }
+
+    private CompiledWorkPolicySet defaults() {
+        return CompiledWorkPolicySet.defaults(standardHours, halfDayHours);
+    }
+
+    private void deactivateAll() {
+        List<WorkPolicySet> activePolicySets = workPolicySetRepository.findByActiveTrue();
+        activePolicySets.forEach(policySet -> policySet.setActive(false));
+        workPolicySetRepository.saveAll(activePolicySets);
+    }
+
+    private WorkPolicySetDto convertToDto(WorkPolicySet policySet) {
+        WorkPolicySetDto dto = new WorkPolicySetDto();
+        BeanUtils.copyProperties(policySet, dto);
+        return dto;
+    }
+}
@@ -0,0 +1,116 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.PayrollRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledRuleSetTests {
+
+	@Test
+	void appliesProgressiveSlabsAndCap() {
+		PayrollRule rule = rule(null, null, new String[][]{{"10000", "0"}, {"30000", "10"}, {null, "20"}});
+		rule.setTaxCap(new BigDecimal("9000"));
+		CompiledPayrollRule compiled = CompiledRuleSet.compile(1, List.of(rule)).resolve("FULL_TIME", "G1");
+
+		assertThat(compiled.tax(Money.of(8000))).isEqualTo(0L);
+		assertThat(compiled.tax(Money.of(20000))).isEqualTo(Money.of(1000));
+		// 2000 from the 10% slab plus 20% of 20000
+		assertThat(compiled.tax(Money.of(50000))).isEqualTo(Money.of(6000));
+		assertThat(compiled.tax(Money.of(100000))).isEqualTo(Money.of(9000));
+	}
+
+	@Test
+	void resolvesMostSpecificRule() {
+		PayrollRule fallback = rule(null, null, new String[][]{{null, "10"}});
+		PayrollRule contract = rule("CONTRACT", null, new String[][]{{null, "5"}});
+		PayrollRule seniorContract = rule("CONTRACT", "G9", new String[][]{{null, "30"}});
+		CompiledRuleSet rules = CompiledRuleSet.compile(2, List.of(fallback, contract, seniorContract));
+
+		assertThat(rules.resolve("FULL_TIME", "G9").tax(Money.of(1000))).isEqualTo(Money.of(100));
+		assertThat(rules.resolve("CONTRACT", "G1").tax(Money.of(1000))).isEqualTo(Money.of(50));
+		assertThat(rules.resolve("CONTRACT", "G9").tax(Money.of(1000))).isEqualTo(Money.of(300));
+	}
+
+	@Test
+	void rejectsRuleSetWithoutCatchAll() {
+		PayrollRule contract = rule("CONTRACT", null, new String[][]{{null, "5"}});
+
+		assertThatThrownBy(() -> CompiledRuleSet.compile(3, List.of(contract)))
+				.hasMessageContaining("catch-all");
+	}
+
+	@Test
+	void overridesReplaceRatesInEveryRule() {
+		PayrollRule fallback = rule(null, null, new String[][]{{"10000", "0"}, {null, "20"}});
+		PayrollRule contract = rule("CONTRACT", null, new String[][]{{null, "5"}});
+		CompiledRuleSet rules = CompiledRuleSet.compile(5, List.of(fallback, contract))
+				.withOverrides(new BigDecimal("15"), new BigDecimal("10"), null);
+
+		assertThat(rules.getVersion()).isEqualTo(5L);
+		assertThat(rules.resolve("FULL_TIME", "G1").tax(Money.of(20000))).isEqualTo(Money.of(3000));
+		assertThat(rules.resolve("CONTRACT", "G1").tax(Money.of(20000))).isEqualTo(Money.of(3000));
+		assertThat(rules.resolve("CONTRACT", "G1").providentFund(Money.of(20000))).isEqualTo(Money.of(2000));
+		assertThat(rules.resolve("CONTRACT", "G1").getInsurance()).isEqualTo(Money.of(500));
+	}
+
+	@Test
+	void evaluatesTenSlabScheduleLikeBigDecimal() {
+		String[][] slabs = new String[10][];
+		for (int i = 0; i < 9; i++) {
+			slabs[i] = new String[]{String.valueOf((i + 1) * 10000), String.valueOf(i * 3)};
+		}
+		slabs[9] = new String[]{null, "30"};
+		CompiledPayrollRule compiled = CompiledRuleSet.compile(4, List.of(rule(null, null, slabs)))
+				.resolve("FULL_TIME", "G1");
+
+		PayrollCalculator calculator = new PayrollCalculator();
+		PayrollComputation reused = new PayrollComputation();
+		for (int i = 0; i < 1000; i++) {
+			long income = i * 127L;
+			BigDecimal expected = BigDecimal.ZERO;
+			for (int slab = 0; slab < 10; slab++) {
+				long lower = slab * 10000L;
+				long upper = slab < 9 ? lower + 10000L : Long.MAX_VALUE;
+				long inSlab = Math.max(0L, Math.min(income, upper) - lower);
+				expected = expected.add(BigDecimal.valueOf(inSlab).multiply(new BigDecimal(slabs[slab][1]))
+						.divide(BigDecimal.valueOf(100)));
+			}
+			assertThat(compiled.tax(Money.of(income))).as("income %d", income).isEqualTo(Money.toMicros(expected));
+
+			// A computation reused across employees gives the same result as a fresh one
+			PayrollComputation fresh = new PayrollComputation();
+			for (PayrollComputation c : List.of(reused, fresh)) {
+				c.reset();
+				c.setBaseSalary(Money.of(5000 + income));
+				c.setAllowances(Money.of(1500));
+				c.setOvertimeCentiHours(i * 4L);
+				calculator.calculate(c, compiled);
+			}
+			assertThat(reused.getNetPay()).isEqualTo(fresh.getNetPay());
+		}
+	}
+
+	private PayrollRule rule(String employmentType, String salaryGrade, String[][] slabs) {
+		PayrollRule rule = new PayrollRule();
+		rule.setEmploymentType(employmentType);
+		rule.setSalaryGrade(salaryGrade);
+		rule.setProvidentFundRate(new BigDecimal("12"));
+		rule.setInsurance(new BigDecimal("500"));
+
+		List<PayrollRule.TaxSlab> taxSlabs = new ArrayList<>();
+		for (String[] slab : slabs) {
+			PayrollRule.TaxSlab taxSlab = new PayrollRule.TaxSlab();
+			taxSlab.setUpTo(slab[0] != null ? new BigDecimal(slab[0]) : null);
+			taxSlab.setRate(new BigDecimal(slab[1]));
+			taxSlabs.add(taxSlab);
+		}
+		rule.setTaxSlabs(taxSlabs);
+		return rule;
+	}
+}
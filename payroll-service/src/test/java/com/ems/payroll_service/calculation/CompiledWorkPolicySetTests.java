@@ -0,0 +1,79 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.WorkPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompiledWorkPolicySetTests {
+
+	private static final CompiledWorkPolicy FALLBACK = CompiledWorkPolicySet.defaults(8, 4).getDefault();
+
+	@Test
+	void departmentOutranksEmploymentTypeAndGrade() {
+		WorkPolicy catchAll = policy(null, null, null, "8");
+		WorkPolicy contract = policy(null, "CONTRACT", null, "6");
+		WorkPolicy seniors = policy(null, null, "G9", "9");
+		WorkPolicy support = policy("SUPPORT", null, null, "7.5");
+		CompiledWorkPolicySet policies = CompiledWorkPolicySet.compile(1,
+				List.of(catchAll, contract, seniors, support), FALLBACK);
+
+		assertThat(policies.resolve("SUPPORT", "CONTRACT", "G9").getStandardHours()).isEqualTo(7.5);
+		assertThat(policies.resolve("SALES", "CONTRACT", "G9").getStandardHours()).isEqualTo(6.0);
+		assertThat(policies.resolve("SALES", "FULL_TIME", "G9").getStandardHours()).isEqualTo(9.0);
+		assertThat(policies.resolve("SALES", "FULL_TIME", "G1").getStandardHours()).isEqualTo(8.0);
+		assertThat(policies.resolve(null, null, null).getStandardHours()).isEqualTo(8.0);
+	}
+
+	@Test
+	void emptyFieldsInheritFromCatchAll() {
+		WorkPolicy catchAll = policy(null, null, null, "9");
+		catchAll.setOvertimeMultiplier(new BigDecimal("2"));
+		catchAll.setGraceMinutes(15);
+		WorkPolicy support = policy("SUPPORT", null, null, "7");
+		CompiledWorkPolicy compiled = CompiledWorkPolicySet.compile(2, List.of(catchAll, support), FALLBACK)
+				.resolve("SUPPORT", "FULL_TIME", "G1");
+
+		assertThat(compiled.getStandardHours()).isEqualTo(7.0);
+		assertThat(compiled.getHalfDayHours()).isEqualTo(4.0);
+		assertThat(compiled.getOvertimeMultiplierBps()).isEqualTo(20_000L);
+		assertThat(compiled.getGraceMinutes()).isEqualTo(15);
+	}
+
+	@Test
+	void graceCountsTowardsThresholds() {
+		WorkPolicy catchAll = policy(null, null, null, "8");
+		catchAll.setGraceMinutes(30);
+		CompiledWorkPolicy compiled = CompiledWorkPolicySet.compile(3, List.of(catchAll), FALLBACK).getDefault();
+
+		assertThat(compiled.status(7.5)).isEqualTo("PRESENT");
+		assertThat(compiled.status(7.4)).isEqualTo("HALF_DAY");
+		assertThat(compiled.status(3.5)).isEqualTo("HALF_DAY");
+		assertThat(compiled.status(3.0)).isEqualTo("LATE");
+		assertThat(compiled.status(0.0)).isEqualTo("ABSENT");
+	}
+
+	@Test
+	void rejectsInvalidPolicySets() {
+		assertThatThrownBy(() -> CompiledWorkPolicySet.compile(4, List.of(policy("SUPPORT", null, null, "7")), FALLBACK))
+				.hasMessageContaining("catch-all");
+		assertThatThrownBy(() -> CompiledWorkPolicySet.compile(4,
+				List.of(policy(null, null, null, "8"), policy(null, null, null, "9")), FALLBACK))
+				.hasMessageContaining("Duplicate");
+		assertThatThrownBy(() -> CompiledWorkPolicySet.compile(4, List.of(policy(null, null, null, "3")), FALLBACK))
+				.hasMessageContaining("Half-day");
+	}
+
+	private WorkPolicy policy(String department, String employmentType, String salaryGrade, String standardHours) {
+		WorkPolicy policy = new WorkPolicy();
+		policy.setDepartment(department);
+		policy.setEmploymentType(employmentType);
+		policy.setSalaryGrade(salaryGrade);
+		policy.setStandardHours(new BigDecimal(standardHours));
+		return policy;
+	}
+}
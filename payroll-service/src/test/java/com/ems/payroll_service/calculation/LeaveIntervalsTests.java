@@ -0,0 +1,51 @@
+package com.ems.payroll_service.calculation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaveIntervalsTests {
+
+	@Test
+	void findsOverlapsIncludingSharedBoundaryDays() {
+		LeaveIntervals intervals = LeaveIntervals.EMPTY
+				.with("b", day(10), day(12))
+				.with("a", day(1), day(3))
+				.with("c", day(20), day(25));
+
+		assertThat(intervals.overlapping(day(3), day(3))).containsExactly("a");
+		assertThat(intervals.overlapping(day(4), day(9))).isEmpty();
+		assertThat(intervals.overlapping(day(12), day(20))).containsExactlyInAnyOrder("b", "c");
+		assertThat(intervals.overlapping(day(26), day(30))).isEmpty();
+	}
+
+	@Test
+	void longLeaveIsFoundBehindLaterStarts() {
+		// The running maximum of end dates keeps the long leave reachable past the short ones
+		LeaveIntervals intervals = LeaveIntervals.EMPTY
+				.with("long", day(1), day(28))
+				.with("short", day(5), day(6))
+				.with("other", day(10), day(11));
+
+		assertThat(intervals.overlapping(day(20), day(21))).containsExactly("long");
+	}
+
+	@Test
+	void replacesAndRemovesById() {
+		LeaveIntervals intervals = LeaveIntervals.EMPTY
+				.with("a", day(1), day(3))
+				.with("a", day(10), day(12));
+
+		assertThat(intervals.size()).isEqualTo(1);
+		assertThat(intervals.overlapping(day(1), day(3))).isEmpty();
+		assertThat(intervals.contains("a", day(10), day(12))).isTrue();
+		assertThat(intervals.without("a").size()).isZero();
+		assertThat(intervals.without("missing")).isSameAs(intervals);
+	}
+
+	private LocalDate day(int dayOfMonth) {
+		return LocalDate.of(2025, 3, dayOfMonth);
+	}
+}
@@ -0,0 +1,61 @@
+package com.ems.payroll_service.calculation;
+
+import com.ems.payroll_service.models.PayrollRule;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost of one full payroll calculation against a ten-slab tax schedule; the target is under one
+ * microsecond. Not a test, so it never fails a build on a slow machine. Run it by hand after
+ * {@code mvn test-compile}:
+ *
+ * <pre>java -cp target/classes:target/test-classes com.ems.payroll_service.calculation.PayrollCalculatorBenchmark</pre>
+ */
+public class PayrollCalculatorBenchmark {
+
+	private static final int WARM_UP_ROUNDS = 3;
+	private static final int MEASURED_ROUNDS = 5;
+	private static final int ITERATIONS = 2_000_000;
+
+	public static void main(String[] args) {
+		CompiledPayrollRule rule = CompiledRuleSet.compile(1, List.of(tenSlabRule())).resolve("FULL_TIME", "G1");
+		PayrollCalculator calculator = new PayrollCalculator();
+		PayrollComputation c = new PayrollComputation();
+
+		long checksum = 0;
+		for (int round = 0; round < WARM_UP_ROUNDS + MEASURED_ROUNDS; round++) {
+			long started = System.nanoTime();
+			for (int i = 0; i < ITERATIONS; i++) {
+				c.reset();
+				c.setBaseSalary(Money.of(5000 + (i % 120000)));
+				c.setAllowances(Money.of(1500));
+				c.setOvertimeCentiHours(i % 4000);
+				calculator.calculate(c, rule);
+				checksum += c.getNetPay();
+			}
+			double nanosPerPayroll = (double) (System.nanoTime() - started) / ITERATIONS;
+			System.out.printf("%s round %d: %.1f ns per payroll%n",
+					round < WARM_UP_ROUNDS ? "warm-up" : "measured", round + 1, nanosPerPayroll);
+		}
+		// Keeps the JIT from discarding the loop
+		System.out.println("checksum " + checksum);
+	}
+
+	private static PayrollRule tenSlabRule() {
+		List<PayrollRule.TaxSlab> taxSlabs = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			PayrollRule.TaxSlab taxSlab = new PayrollRule.TaxSlab();
+			taxSlab.setUpTo(i < 9 ? BigDecimal.valueOf((i + 1) * 10000L) : null);
+			taxSlab.setRate(BigDecimal.valueOf(i < 9 ? i * 3L : 30L));
+			taxSlabs.add(taxSlab);
+		}
+
+		PayrollRule rule = new PayrollRule();
+		rule.setProvidentFundRate(new BigDecimal("12"));
+		rule.setInsurance(new BigDecimal("500"));
+		rule.setTaxSlabs(taxSlabs);
+		return rule;
+	}
+}
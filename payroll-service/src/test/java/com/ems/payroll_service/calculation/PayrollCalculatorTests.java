@@ -0,0 +1,88 @@
+package com.ems.payroll_service.calculation;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayrollCalculatorTests {
+
+	private static final String[] BASE_SALARIES = {"0", "15000", "25000.50", "33333.33", "48750.75", "99999.99", "125000", "1000000.01"};
+	private static final String[] ALLOWANCES = {"0", "1500", "2750.25"};
+	private static final String[] BONUSES = {"0", "5000.10"};
+	private static final double[] OVERTIME_HOURS = {0.0, 0.33, 2.5, 7.25, 12.75, 40.0};
+
+	private final PayrollCalculator calculator = new PayrollCalculator();
+	private final CompiledPayrollRule defaultRule = CompiledRuleSet.defaults().resolve(null, null);
+
+	@Test
+	void matchesBigDecimalCalculationForFixtureSet() {
+		for (String base : BASE_SALARIES) {
+			for (String allowance : ALLOWANCES) {
+				for (String bonus : BONUSES) {
+					for (double hours : OVERTIME_HOURS) {
+						BigDecimal baseSalary = new BigDecimal(base);
+						BigDecimal allowances = new BigDecimal(allowance);
+						BigDecimal bonuses = new BigDecimal(bonus);
+
+						PayrollComputation c = new PayrollComputation();
+						c.setBaseSalary(Money.toMicros(baseSalary));
+						c.setAllowances(Money.toMicros(allowances));
+						c.setBonuses(Money.toMicros(bonuses));
+						c.setOvertimeCentiHours(Money.toCentiHours(hours));
+						calculator.calculate(c, defaultRule);
+
+						// Reference: the original BigDecimal implementation
+						BigDecimal dailyRate = baseSalary.divide(BigDecimal.valueOf(30), 2, RoundingMode.HALF_UP);
+						BigDecimal hourlyRate = dailyRate.divide(BigDecimal.valueOf(8), 2, RoundingMode.HALF_UP);
+						BigDecimal overtimePay = hourlyRate.multiply(BigDecimal.valueOf(1.5)).multiply(BigDecimal.valueOf(hours));
+						BigDecimal gross = baseSalary.add(overtimePay).add(allowances).add(bonuses);
+						BigDecimal tax = gross.multiply(BigDecimal.valueOf(0.10));
+						BigDecimal providentFund = baseSalary.multiply(BigDecimal.valueOf(0.12));
+						BigDecimal deductions = tax.add(providentFund).add(BigDecimal.valueOf(500));
+
+						// Exact at six decimals: setScale throws if the reference needed rounding
+						String fixture = base + "/" + allowance + "/" + bonus + "/" + hours;
+						assertThat(micros(c.getOvertimePay())).as(fixture).isEqualTo(overtimePay.setScale(Money.SCALE));
+						assertThat(micros(c.getTaxDeduction())).as(fixture).isEqualTo(tax.setScale(Money.SCALE));
+						assertThat(micros(c.getProvidentFund())).as(fixture).isEqualTo(providentFund.setScale(Money.SCALE));
+						assertThat(micros(c.getTotalEarnings())).as(fixture).isEqualTo(gross.setScale(Money.SCALE));
+						assertThat(micros(c.getTotalDeductions())).as(fixture).isEqualTo(deductions.setScale(Money.SCALE));
+						assertThat(micros(c.getNetPay())).as(fixture)
+								.isEqualTo(gross.subtract(deductions).setScale(Money.SCALE));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void storesAmountsWithTwoDecimalsAndTrailingZerosStripped() {
+		// The BigDecimal path stored 1000.0000 here
+		assertThat(Money.toBigDecimal(Money.toMicros(new BigDecimal("1000.0000")))).isEqualTo(new BigDecimal("1000.00"));
+		assertThat(Money.toBigDecimal(Money.toMicros(new BigDecimal("2500.05")))).isEqualTo(new BigDecimal("2500.05"));
+		assertThat(Money.toBigDecimal(Money.toMicros(new BigDecimal("123.456700")))).isEqualTo(new BigDecimal("123.4567"));
+	}
+
+	@Test
+	void roundsSummedOvertimeHoursToCentiHours() {
+		double summed = 0.1 + 0.2;
+		assertThat(Money.toCentiHours(summed)).isEqualTo(30L);
+		assertThat(Money.centiHoursToBigDecimal(Money.toCentiHours(summed))).isEqualTo(new BigDecimal("0.30"));
+	}
+
+	@Test
+	void roundsHalfUpAwayFromZero() {
+		assertThat(Money.divideHalfUp(5, 2)).isEqualTo(3);
+		assertThat(Money.divideHalfUp(-5, 2)).isEqualTo(-3);
+		assertThat(Money.divideHalfUp(4, 3)).isEqualTo(1);
+		assertThat(Money.divideToCents(Money.toMicros(new BigDecimal("33333.33")), 30))
+				.isEqualTo(Money.toMicros(new BigDecimal("1111.11")));
+	}
+
+	private static BigDecimal micros(long amount) {
+		return BigDecimal.valueOf(amount, Money.SCALE);
+	}
+}
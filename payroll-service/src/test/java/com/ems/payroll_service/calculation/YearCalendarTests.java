@@ -0,0 +1,44 @@
+package com.ems.payroll_service.calculation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class YearCalendarTests {
+
+	private static final Set<DayOfWeek> WEEKEND = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+	private static final List<LocalDate> HOLIDAYS = List.of(
+			LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 12, 25), LocalDate.of(2024, 12, 28));
+
+	private final YearCalendar calendar = YearCalendar.build(2024, WEEKEND, HOLIDAYS);
+
+	@Test
+	void matchesDayByDayCountForEveryRange() {
+		LocalDate first = LocalDate.of(2024, 1, 1);
+		for (LocalDate start = first; start.getYear() == 2024; start = start.plusDays(7)) {
+			for (LocalDate end = start; end.getYear() == 2024; end = end.plusDays(5)) {
+				long expected = start.datesUntil(end.plusDays(1))
+						.filter(date -> !WEEKEND.contains(date.getDayOfWeek()) && !HOLIDAYS.contains(date))
+						.count();
+				assertThat(calendar.workingDays(start, end)).as(start + ".." + end).isEqualTo(expected);
+			}
+		}
+	}
+
+	@Test
+	void excludesWeekendsAndHolidays() {
+		assertThat(calendar.isWorkingDay(LocalDate.of(2024, 1, 1))).isFalse();
+		assertThat(calendar.isWorkingDay(LocalDate.of(2024, 1, 2))).isTrue();
+		assertThat(calendar.isWorkingDay(LocalDate.of(2024, 1, 6))).isFalse();
+		assertThat(calendar.isWorkingDay(LocalDate.of(2024, 12, 31))).isTrue();
+		// 262 weekdays in 2024, the Saturday holiday does not count twice
+		assertThat(calendar.workingDays()).isEqualTo(262 - 3);
+		assertThat(calendar.workingDays(LocalDate.of(2024, 3, 10), LocalDate.of(2024, 3, 9))).isZero();
+	}
+}
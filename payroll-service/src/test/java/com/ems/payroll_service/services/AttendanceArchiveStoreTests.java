@@ -0,0 +1,66 @@
+package com.ems.payroll_service.services;
+
+import com.ems.payroll_service.models.Attendance;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttendanceArchiveStoreTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void roundTripsEveryField() {
+		AttendanceArchiveStore store = new AttendanceArchiveStore();
+		ReflectionTestUtils.setField(store, "directory", directory.toString());
+		YearMonth month = YearMonth.of(2024, 3);
+
+		Attendance full = new Attendance();
+		full.setId(new ObjectId().toHexString());
+		full.setEmployeeId("EMP002");
+		full.setEmployeeName("Ada Lovelace");
+		full.setDate(LocalDate.of(2024, 3, 5));
+		full.setCheckInTime(LocalDateTime.of(2024, 3, 5, 9, 1, 7, 123_000_000));
+		full.setCheckOutTime(LocalDateTime.of(2024, 3, 6, 0, 30, 59));
+		full.setBreakStartTime(LocalDateTime.of(2024, 3, 5, 12, 0, 1));
+		full.setBreakEndTime(LocalDateTime.of(2024, 3, 5, 12, 45, 2));
+		full.setHoursWorked(14.583333);
+		full.setOvertimeHours(6.58);
+		full.setBreakHours(0.8);
+		full.setStatus("PRESENT");
+		full.setRemarks("Auto checkout");
+		full.setCheckInLocation("Office");
+		full.setCheckOutLocation("Remote");
+		full.setApprovedBy("MGR001");
+		full.setApprovedAt(LocalDateTime.of(2024, 3, 7, 10, 0, 0, 5_000_000));
+		full.setIsApproved(false);
+
+		Attendance empty = new Attendance();
+		empty.setId(new ObjectId().toHexString());
+		empty.setEmployeeId("EMP001");
+		empty.setDate(LocalDate.of(2024, 3, 5));
+
+		store.write(month, List.of(full, empty));
+
+		assertThat(store.find(month, month.atDay(1), month.atEndOfMonth(), null, null))
+				.containsExactly(empty, full);
+		assertThat(store.find(month, month.atDay(1), month.atEndOfMonth(), Set.of("EMP002"), "PRESENT"))
+				.containsExactly(full);
+
+		PrimitiveIterator.OfInt rows = store.open(month).rows(month.atDay(5), month.atDay(5), Set.of("EMP001"), null);
+		assertThat(store.open(month).toAttendance(rows.nextInt())).isEqualTo(empty);
+		assertThat(rows.hasNext()).isFalse();
+	}
+}